@@ -3,6 +3,7 @@ package cl.camodev.wosbot.console.view;
 import java.awt.Desktop;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -13,6 +14,8 @@ import cl.camodev.wosbot.console.model.LogMessageAux;
 import cl.camodev.wosbot.ot.DTOLogMessage;
 import cl.camodev.wosbot.ot.DTOProfiles;
 import cl.camodev.wosbot.serv.IProfileDataChangeListener;
+import cl.camodev.wosbot.serv.impl.ServLogs;
+import cl.camodev.wosbot.serv.impl.ServMetrics;
 import cl.camodev.wosbot.serv.impl.ServProfiles;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -37,6 +40,9 @@ public class ConsoleLogLayoutController implements IProfileDataChangeListener {
 	@FXML
 	private Button buttonOpenLogFolder;
 
+	@FXML
+	private Button buttonDumpMetrics;
+
 	@FXML
 	private CheckBox checkboxDebug;
 
@@ -146,6 +152,19 @@ public class ConsoleLogLayoutController implements IProfileDataChangeListener {
 		}
 	}
 
+	@FXML
+	void handleButtonDumpMetrics(ActionEvent event) {
+		try {
+			// Latency and template statistics are written next to the application logs
+			Path metricsFile = ServMetrics.getServices().dumpToFile();
+			ServLogs.getServices().appendLog(EnumTpMessageSeverity.INFO, "Metrics", "-", "Metrics written to " + metricsFile.toAbsolutePath());
+			Desktop.getDesktop().open(metricsFile.toFile());
+		} catch (IOException e) {
+			System.err.println("Error writing metrics: " + e.getMessage());
+			e.printStackTrace();
+		}
+	}
+
 	private void initializeProfileFilter() {
 		// Load available profiles
 		try {
@@ -71,10 +71,12 @@ public class ProfileManagerActionController implements IProfileStatusChangeListe
 	public boolean saveProfile(ProfileAux currentProfile) {
 
 		DTOProfiles dtoprofile = new DTOProfiles(currentProfile.getId(), currentProfile.getName(), currentProfile.getEmulatorNumber(), currentProfile.isEnabled(), currentProfile.getPriority(), currentProfile.getReconnectionTime());
+		List<DTOConfig> dtoConfigs = new ArrayList<>();
 		currentProfile.getConfigs().forEach(cfgAux -> {
 			DTOConfig dtoConfig = new DTOConfig(currentProfile.getId(), cfgAux.getName(), cfgAux.getValue());
-			dtoprofile.getConfigs().add(dtoConfig);
+			dtoConfigs.add(dtoConfig);
 		});
+		dtoprofile.setConfigs(dtoConfigs);
 		return iModel.saveProfile(dtoprofile);
 	}
 
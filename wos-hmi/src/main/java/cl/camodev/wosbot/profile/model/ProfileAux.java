@@ -1,5 +1,6 @@
 package cl.camodev.wosbot.profile.model;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +22,8 @@ public class ProfileAux {
 	private LongProperty priority;
 	private StringProperty status;
 	private LongProperty reconnectionTime;
+	private LocalDateTime idleUntil;
+	private String nextTaskName;
 
 	private List<ConfigAux> configs = new ArrayList<ConfigAux>();
 
@@ -100,6 +103,23 @@ public class ProfileAux {
 		return status;
 	}
 
+	// Deadline of the next task while the profile is idling, null otherwise
+	public LocalDateTime getIdleUntil() {
+		return idleUntil;
+	}
+
+	public void setIdleUntil(LocalDateTime idleUntil) {
+		this.idleUntil = idleUntil;
+	}
+
+	public String getNextTaskName() {
+		return nextTaskName;
+	}
+
+	public void setNextTaskName(String nextTaskName) {
+		this.nextTaskName = nextTaskName;
+	}
+
 	// Métodos para la propiedad 'priority'
 	public Long getPriority() {
 		return priority.get();
@@ -1,5 +1,6 @@
 package cl.camodev.wosbot.profile.view;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -15,6 +16,9 @@ import cl.camodev.wosbot.profile.model.IProfileChangeObserver;
 import cl.camodev.wosbot.profile.model.IProfileLoadListener;
 import cl.camodev.wosbot.profile.model.ProfileAux;
 import cl.camodev.wosbot.serv.impl.ServLogs;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.animation.TranslateTransition;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -70,6 +74,10 @@ public class ProfileManagerLayoutController implements IProfileChangeObserver {
 		initializeTableView();
 		loadProfiles();
 
+		// Idle countdowns are computed here instead of being pushed by every queue each second
+		Timeline ticker = new Timeline(new KeyFrame(Duration.seconds(1), evt -> updateIdleCountdowns()));
+		ticker.setCycleCount(Animation.INDEFINITE);
+		ticker.play();
 	}
 
 	private void initializeController() {
@@ -346,7 +354,9 @@ public class ProfileManagerLayoutController implements IProfileChangeObserver {
 	public void handleProfileStatusChange(DTOProfileStatus status) {
 		Platform.runLater(() -> {
 			profiles.stream().filter(p -> p.getId() == status.getId()).forEach(p -> {
-				p.setStatus(status.getStatus());
+				p.setIdleUntil(status.getIdleUntil());
+				p.setNextTaskName(status.getNextTaskName());
+				p.setStatus(status.getIdleUntil() != null ? formatIdleStatus(p, LocalDateTime.now()) : status.getStatus());
 			});
 			tableviewLogMessages.refresh();
 			tableviewLogMessages.sort();
@@ -354,6 +364,23 @@ public class ProfileManagerLayoutController implements IProfileChangeObserver {
 
 	}
 
+	private void updateIdleCountdowns() {
+		if (profiles == null) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		profiles.stream().filter(p -> p.getIdleUntil() != null).forEach(p -> p.setStatus(formatIdleStatus(p, now)));
+	}
+
+	private String formatIdleStatus(ProfileAux profile, LocalDateTime now) {
+		java.time.Duration remaining = java.time.Duration.between(now, profile.getIdleUntil());
+		if (remaining.isNegative()) {
+			remaining = java.time.Duration.ZERO;
+		}
+		return String.format("Idling for %02d:%02d:%02d\nNext task: %s", remaining.toHours(), remaining.toMinutesPart(), remaining.toSecondsPart(),
+				profile.getNextTaskName());
+	}
+
 	@Override
 	public void notifyProfileChange(EnumConfigurationKey key, Object value) {
 		try {
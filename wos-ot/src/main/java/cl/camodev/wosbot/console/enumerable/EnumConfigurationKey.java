@@ -14,6 +14,11 @@ public enum EnumConfigurationKey {
 	GAME_VERSION_STRING("GLOBAL", String.class),
 	MAX_RUNNING_EMULATORS_INT("1", Integer.class),
 	MAX_IDLE_TIME_INT("1", Integer.class),
+	FRAME_FRESHNESS_MS_INT("0", Integer.class),
+	TEMPLATE_LOCATION_HINTS_BOOL("true", Boolean.class),
+	HOT_PATH_METRICS_BOOL("true", Boolean.class),
+	OCR_CACHE_SIZE_INT("512", Integer.class),
+	OCR_CACHE_TTL_SECONDS_INT("600", Integer.class),
 	IDLE_BEHAVIOR_SEND_TO_BACKGROUND_BOOL("false", Boolean.class),
 	MUMU_PATH_STRING("", String.class),
 	MEMU_PATH_STRING("", String.class),
@@ -0,0 +1,12 @@
+package cl.camodev.wosbot.console.enumerable;
+
+/**
+ * Screens the bot can recognise from a screen fingerprint.
+ */
+public enum EnumScreen {
+    HOME,
+    WORLD,
+    RECONNECT,
+    INTEL,
+    UNKNOWN
+}
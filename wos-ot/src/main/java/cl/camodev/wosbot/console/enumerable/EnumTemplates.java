@@ -4,6 +4,20 @@ package cl.camodev.wosbot.console.enumerable;
  * Enum containing all image template paths used for image recognition in the
  * game.
  * Templates are organized by functional categories for easier maintenance.
+ * <p>
+ * An entry may declare {@link TemplateSearchDefaults} for the searches that do
+ * not give a region. Only templates drawn at a fixed place of the 720x1280
+ * layout declare one, with a wide margin around it: a region that is too small
+ * makes the search miss. The bands used are
+ * <ul>
+ * <li>bottom bar, y 1120-1280</li>
+ * <li>city/world toggle, bottom right quarter</li>
+ * <li>event and deal tab strip, y 0-320</li>
+ * <li>home screen icons under the top bar, upper half</li>
+ * <li>buttons of centred dialogs, y 320-1040</li>
+ * </ul>
+ * Entries without one search the full screen, and repeated searches are still
+ * narrowed by the location hints of {@code ImageSearchUtil}.
  */
 public enum EnumTemplates {
 
@@ -11,23 +25,23 @@ public enum EnumTemplates {
     // ========================================================================
     // HOME SCREEN AND NAVIGATION
     // ========================================================================
-	GAME_HOME_FURNACE("/templates/city.png"),
-	GAME_HOME_WORLD("/templates/world.png"),
+	GAME_HOME_FURNACE("/templates/city.png", TemplateSearchDefaults.area(360, 960, 720, 1280)),
+	GAME_HOME_WORLD("/templates/world.png", TemplateSearchDefaults.area(360, 960, 720, 1280)),
 	GAME_HOME_PETS("/templates/home/petsButton.png"),
 	GAME_HOME_INTEL("/templates/home/intelButton.png"),
 	GAME_HOME_INTEL_DONE("/templates/intel/intelDone.png"),
-	GAME_HOME_RECONNECT("/templates/home/reconnectButton.png"),
+	GAME_HOME_RECONNECT("/templates/home/reconnectButton.png", TemplateSearchDefaults.area(0, 320, 720, 1040)),
 	
 	GAME_HOME_NEW_SURVIVORS("/templates/home/newSurvivors.png"),
 
 	GAME_HOME_NEW_SURVIVORS_WELCOME_IN("/templates/home/newSurvivorsWelcome.png"),
 	GAME_HOME_NEW_SURVIVORS_PLUS_BUTTON("/templates/home/newSurvivorsPlusButton.png"),
 
-	GAME_HOME_BOTTOM_BAR_SHOP_BUTTON("/templates/home/bottombar/shopButton.png"),
-	GAME_HOME_BOTTOM_BAR_BACKPACK_BUTTON("/templates/home/bottombar/backpack.png"),
+	GAME_HOME_BOTTOM_BAR_SHOP_BUTTON("/templates/home/bottombar/shopButton.png", TemplateSearchDefaults.area(0, 1120, 720, 1280)),
+	GAME_HOME_BOTTOM_BAR_BACKPACK_BUTTON("/templates/home/bottombar/backpack.png", TemplateSearchDefaults.area(0, 1120, 720, 1280)),
 	
-	HOME_DEALS_BUTTON("/templates/home/dealsButton.png"),
-	HOME_EVENTS_BUTTON("/templates/home/eventsButton.png"),
+	HOME_DEALS_BUTTON("/templates/home/dealsButton.png", TemplateSearchDefaults.area(0, 0, 720, 640)),
+	HOME_EVENTS_BUTTON("/templates/home/eventsButton.png", TemplateSearchDefaults.area(0, 0, 720, 640)),
 	
 	LEFT_MENU_CITY_TAB("/templates/leftmenu/cityTab.png"),
 	LEFT_MENU_LABYRINTH_BUTTON("/templates/leftmenu/labyrinth.png"),
@@ -175,8 +189,8 @@ public enum EnumTemplates {
     // ========================================================================
     // ALLIANCE MOBILIZATION
     // ========================================================================
-    ALLIANCE_MOBILIZATION_TAB("/templates/events/mobilization/allianzMobilizationTab.png"),
-    ALLIANCE_MOBILIZATION_UNSELECTED_TAB("/templates/events/mobilization/allianzMobilizationUnselected.png"),
+    ALLIANCE_MOBILIZATION_TAB("/templates/events/mobilization/allianzMobilizationTab.png", TemplateSearchDefaults.area(0, 0, 720, 320)),
+    ALLIANCE_MOBILIZATION_UNSELECTED_TAB("/templates/events/mobilization/allianzMobilizationUnselected.png", TemplateSearchDefaults.area(0, 0, 720, 320)),
     AM_120_PERCENT("/templates/events/mobilization/AM_120%.png"),
     AM_200_PERCENT("/templates/events/mobilization/AM_200%.png"),
     AM_BAR_X("/templates/events/mobilization/AM_Bar_X.png"),
@@ -315,7 +329,7 @@ public enum EnumTemplates {
     // ========================================================================
     // TUNDRA TRUCK AND TREK EVENTS
     // ========================================================================
-	TUNDRA_TRUCK_TAB("/templates/tundratruck/tundraTruckTab.png"),
+	TUNDRA_TRUCK_TAB("/templates/tundratruck/tundraTruckTab.png", TemplateSearchDefaults.area(0, 0, 720, 320)),
 	TUNDRA_TRUCK_ARRIVED("/templates/tundratruck/tundraTruckArrived.png"),
 	TUNDRA_TRUCK_YELLOW("/templates/tundratruck/tundraTruckLegendary.png"),
 	TUNDRA_TRUCK_PURPLE("/templates/tundratruck/tundraTruckEpic.png"),
@@ -340,8 +354,8 @@ public enum EnumTemplates {
     // ========================================================================
     // TUNDRA TRUCK AND TREK EVENTS
     // ========================================================================
-    JOURNEY_OF_LIGHT_TAB("/templates/events/journeyoflight/journeyOfLightTab.png"),
-    JOURNEY_OF_LIGHT_UNSELECTED_TAB("/templates/events/journeyoflight/journeyOfLightUnselected.png"),
+    JOURNEY_OF_LIGHT_TAB("/templates/events/journeyoflight/journeyOfLightTab.png", TemplateSearchDefaults.area(0, 0, 720, 320)),
+    JOURNEY_OF_LIGHT_UNSELECTED_TAB("/templates/events/journeyoflight/journeyOfLightUnselected.png", TemplateSearchDefaults.area(0, 0, 720, 320)),
     JOURNEY_OF_LIGHT_FREE_WATCHES("/templates/events/journeyoflight/freeWatch.png"),
     JOURNEY_OF_LIGHT_CLAIM_WATCHES("/templates/events/journeyoflight/freeWatchAvailable.png"),
 
@@ -359,7 +373,7 @@ public enum EnumTemplates {
     EXPERT_TRAINING_HOLGER_BADGE("/templates/experts/holgerBadge.png"),
     EXPERT_TRAINING_LEARN_BUTTON("/templates/experts/learnButton.png"),
 	
-	MERCENARY_EVENT_TAB("/templates/mercenary/mercenaryEventTab.png"),
+	MERCENARY_EVENT_TAB("/templates/mercenary/mercenaryEventTab.png", TemplateSearchDefaults.area(0, 0, 720, 320)),
 	MERCENARY_SCOUT_BUTTON("/templates/mercenary/mercenaryEventScout.png"),
 	MERCENARY_CHALLENGE_BUTTON("/templates/mercenary/mercenaryEventChallenge.png"),
 	MERCENARY_ATTACK_BUTTON("/templates/mercenary/mercenaryEventAttack.png"),
@@ -369,7 +383,7 @@ public enum EnumTemplates {
 	// ========================================================================
     // HERO'S MISSION EVENT
     // ========================================================================
-	HERO_MISSION_EVENT_TAB("/templates/events/heromission/heroMissionEventTab.png"),
+	HERO_MISSION_EVENT_TAB("/templates/events/heromission/heroMissionEventTab.png", TemplateSearchDefaults.area(0, 0, 720, 320)),
 	HERO_MISSION_EVENT_TRACE_BUTTON("/templates/events/heromission/heroMissionEventTraceButton.png"),
 	HERO_MISSION_EVENT_CAPTURE_BUTTON("/templates/events/heromission/heroMissionEventCaptureButton.png"),
 	HERO_MISSION_EVENT_CHEST("/templates/events/heromission/heroMissionEventChest.png"),
@@ -406,12 +420,26 @@ public enum EnumTemplates {
 
 	// @formatter:on
 	private String template;
+	private TemplateSearchDefaults searchDefaults;
 
 	private EnumTemplates(String template) {
+		this(template, TemplateSearchDefaults.NONE);
+	}
+
+	private EnumTemplates(String template, TemplateSearchDefaults searchDefaults) {
 		this.template = template;
+		this.searchDefaults = searchDefaults;
 	}
 
 	public String getTemplate() {
 		return template;
 	}
+
+	/**
+	 * Gets the region, matching mode, threshold and suppression radius used
+	 * when a search does not specify them.
+	 */
+	public TemplateSearchDefaults getSearchDefaults() {
+		return searchDefaults;
+	}
 }
@@ -0,0 +1,105 @@
+package cl.camodev.wosbot.console.enumerable;
+
+import cl.camodev.wosbot.ot.DTOArea;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * Optional search metadata of an {@link EnumTemplates} entry, used by the
+ * search overloads that take no explicit region.
+ * <p>
+ * Instances are immutable; every {@code with}-style method returns a copy:
+ * <pre>
+ * TemplateSearchDefaults.area(0, 640, 720, 1280).grayscale().threshold(85)
+ * </pre>
+ */
+public final class TemplateSearchDefaults {
+
+	public static final DTOArea FULL_SCREEN = new DTOArea(new DTOPoint(0, 0), new DTOPoint(720, 1280));
+
+	public static final int DEFAULT_THRESHOLD = 90;
+
+	public static final TemplateSearchDefaults NONE = new TemplateSearchDefaults(FULL_SCREEN, false, DEFAULT_THRESHOLD, 0, false);
+
+	private final DTOArea area;
+	private final boolean grayscale;
+	private final double threshold;
+	private final int nmsRadius;
+	private final boolean pyramid;
+
+	private TemplateSearchDefaults(DTOArea area, boolean grayscale, double threshold, int nmsRadius, boolean pyramid) {
+		this.area = area;
+		this.grayscale = grayscale;
+		this.threshold = threshold;
+		this.nmsRadius = nmsRadius;
+		this.pyramid = pyramid;
+	}
+
+	/**
+	 * Starts from a default search region given by its top-left and bottom-right corners.
+	 */
+	public static TemplateSearchDefaults area(int x1, int y1, int x2, int y2) {
+		return new TemplateSearchDefaults(new DTOArea(new DTOPoint(x1, y1), new DTOPoint(x2, y2)), false, DEFAULT_THRESHOLD, 0, false);
+	}
+
+	/**
+	 * Starts from the full screen as default search region.
+	 */
+	public static TemplateSearchDefaults fullScreen() {
+		return NONE;
+	}
+
+	/**
+	 * Prefers grayscale matching when no mode is requested by the caller.
+	 */
+	public TemplateSearchDefaults grayscale() {
+		return new TemplateSearchDefaults(area, true, threshold, nmsRadius, pyramid);
+	}
+
+	/**
+	 * Sets the threshold used when the caller does not pass one.
+	 */
+	public TemplateSearchDefaults threshold(double threshold) {
+		return new TemplateSearchDefaults(area, grayscale, threshold, nmsRadius, pyramid);
+	}
+
+	/**
+	 * Sets the radius suppressed around each match of a multiple search.
+	 */
+	public TemplateSearchDefaults nmsRadius(int nmsRadius) {
+		return new TemplateSearchDefaults(area, grayscale, threshold, nmsRadius, pyramid);
+	}
+
+	/**
+	 * Matches single searches coarse-to-fine: candidates are found at half
+	 * resolution and only small windows around them are matched at full resolution.
+	 * A coarse miss is followed by the full search, so a miss costs more than
+	 * without this mode: only enable it where the PyramidMatchBenchmark of
+	 * wos-utiles shows a gain at the hit rate the template sees.
+	 */
+	public TemplateSearchDefaults pyramid() {
+		return new TemplateSearchDefaults(area, grayscale, threshold, nmsRadius, true);
+	}
+
+	public DTOArea getArea() {
+		return area;
+	}
+
+	public boolean isGrayscale() {
+		return grayscale;
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @return the suppression radius, or 0 to suppress an area the size of the template
+	 */
+	public int getNmsRadius() {
+		return nmsRadius;
+	}
+
+	public boolean isPyramid() {
+		return pyramid;
+	}
+}
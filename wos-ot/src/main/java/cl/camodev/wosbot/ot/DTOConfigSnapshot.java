@@ -0,0 +1,94 @@
+package cl.camodev.wosbot.ot;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
+
+/**
+ * Immutable view of a profile's configuration with every value already parsed
+ * to the type of its {@link EnumConfigurationKey}.
+ * <p>
+ * Keys without a stored value hold their parsed default, so lookups are a
+ * single array access into an {@link EnumMap} and never allocate.
+ */
+public final class DTOConfigSnapshot {
+
+    // Parsed defaults shared by every snapshot
+    private static final EnumMap<EnumConfigurationKey, Object> DEFAULTS = new EnumMap<>(EnumConfigurationKey.class);
+
+    // Configuration names are matched case-insensitively, as in DTOProfiles
+    private static final Map<String, EnumConfigurationKey> KEYS_BY_NAME = new HashMap<>();
+
+    static {
+        for (EnumConfigurationKey key : EnumConfigurationKey.values()) {
+            DEFAULTS.put(key, parse(key, key.getDefaultValue()));
+            KEYS_BY_NAME.put(key.name().toUpperCase(Locale.ROOT), key);
+        }
+    }
+
+    private final EnumMap<EnumConfigurationKey, Object> values;
+
+    private DTOConfigSnapshot(EnumMap<EnumConfigurationKey, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Builds a snapshot from stored configurations. Unknown names are ignored; when a
+     * name appears more than once the first value wins, and a value that cannot be
+     * parsed falls back to the key's default.
+     */
+    public static DTOConfigSnapshot of(Collection<DTOConfig> configs) {
+        EnumMap<EnumConfigurationKey, Object> values = new EnumMap<>(DEFAULTS);
+        if (configs != null) {
+            EnumSet<EnumConfigurationKey> seen = EnumSet.noneOf(EnumConfigurationKey.class);
+            for (DTOConfig config : configs) {
+                if (config.getConfigurationName() == null) {
+                    continue;
+                }
+                EnumConfigurationKey key = KEYS_BY_NAME.get(config.getConfigurationName().toUpperCase(Locale.ROOT));
+                if (key != null && seen.add(key)) {
+                    Object parsed = parse(key, config.getValue());
+                    values.put(key, parsed != null ? parsed : DEFAULTS.get(key));
+                }
+            }
+        }
+        return new DTOConfigSnapshot(values);
+    }
+
+    private static Object parse(EnumConfigurationKey key, String value) {
+        try {
+            return key.castValue(value);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the parsed value of a key, typed as the caller expects it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(EnumConfigurationKey key) {
+        return (T) values.get(key);
+    }
+
+    public boolean getBoolean(EnumConfigurationKey key) {
+        return (Boolean) values.get(key);
+    }
+
+    public int getInt(EnumConfigurationKey key) {
+        return (Integer) values.get(key);
+    }
+
+    public double getDouble(EnumConfigurationKey key) {
+        return (Double) values.get(key);
+    }
+
+    public String getString(EnumConfigurationKey key) {
+        return (String) values.get(key);
+    }
+}
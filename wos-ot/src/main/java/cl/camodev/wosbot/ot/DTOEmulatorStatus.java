@@ -0,0 +1,53 @@
+package cl.camodev.wosbot.ot;
+
+import java.util.Objects;
+
+/**
+ * Running state of a single emulator instance as reported by the vendor console.
+ */
+public class DTOEmulatorStatus {
+	private final String emulatorNumber;
+	private final boolean running;
+	private final long pid;
+
+	public DTOEmulatorStatus(String emulatorNumber, boolean running, long pid) {
+		this.emulatorNumber = emulatorNumber;
+		this.running = running;
+		this.pid = pid;
+	}
+
+	public String getEmulatorNumber() {
+		return emulatorNumber;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * @return Process id of the instance, or -1 if it is not running or unknown
+	 */
+	public long getPid() {
+		return pid;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof DTOEmulatorStatus))
+			return false;
+		DTOEmulatorStatus that = (DTOEmulatorStatus) o;
+		return running == that.running && pid == that.pid && Objects.equals(emulatorNumber, that.emulatorNumber);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(emulatorNumber, running, pid);
+	}
+
+	@Override
+	public String toString() {
+		return "DTOEmulatorStatus [emulatorNumber=" + emulatorNumber + ", running=" + running + ", pid=" + pid + "]";
+	}
+}
@@ -0,0 +1,13 @@
+package cl.camodev.wosbot.ot;
+
+/**
+ * Named screen region of a batch OCR read.
+ *
+ * @param settings Tesseract settings of the region, or null for a plain single-line read
+ */
+public record DTOOcrRegion(String name, DTOPoint topLeft, DTOPoint bottomRight, DTOTesseractSettings settings) {
+
+	public DTOOcrRegion(String name, DTOPoint topLeft, DTOPoint bottomRight) {
+		this(name, topLeft, bottomRight, null);
+	}
+}
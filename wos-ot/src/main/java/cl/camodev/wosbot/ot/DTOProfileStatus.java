@@ -1,15 +1,31 @@
 package cl.camodev.wosbot.ot;
 
+import java.time.LocalDateTime;
+import java.util.Objects;
+
 public class DTOProfileStatus {
 
 	private Long id;
 	private String status;
+	private LocalDateTime idleUntil;
+	private String nextTaskName;
 
 	public DTOProfileStatus(Long id, String status) {
 		this.id = id;
 		this.status = status;
 	}
 
+	/**
+	 * Status of a profile waiting for its next task. The countdown is not part of the
+	 * status text; listeners compute it from {@code idleUntil} when they display it.
+	 */
+	public DTOProfileStatus(Long id, LocalDateTime idleUntil, String nextTaskName) {
+		this.id = id;
+		this.status = "Idling";
+		this.idleUntil = idleUntil;
+		this.nextTaskName = nextTaskName;
+	}
+
 	public Long getId() {
 		return id;
 	}
@@ -26,4 +42,39 @@ public class DTOProfileStatus {
 		this.status = status;
 	}
 
+	/**
+	 * @return when the next task is due, or null if the profile is not idling
+	 */
+	public LocalDateTime getIdleUntil() {
+		return idleUntil;
+	}
+
+	public void setIdleUntil(LocalDateTime idleUntil) {
+		this.idleUntil = idleUntil;
+	}
+
+	public String getNextTaskName() {
+		return nextTaskName;
+	}
+
+	public void setNextTaskName(String nextTaskName) {
+		this.nextTaskName = nextTaskName;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof DTOProfileStatus))
+			return false;
+		DTOProfileStatus that = (DTOProfileStatus) o;
+		return Objects.equals(id, that.id) && Objects.equals(status, that.status) && Objects.equals(idleUntil, that.idleUntil)
+				&& Objects.equals(nextTaskName, that.nextTaskName);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, status, idleUntil, nextTaskName);
+	}
+
 }
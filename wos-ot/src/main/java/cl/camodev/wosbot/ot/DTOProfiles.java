@@ -1,6 +1,7 @@
 package cl.camodev.wosbot.ot;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +19,8 @@ public class DTOProfiles {
     private int queuePosition = Integer.MAX_VALUE;
     private List<DTOConfig> configs = new ArrayList<>();
     private HashMap<String, String> globalsettings = new HashMap<>();
+    // Parsed view of 'configs', rebuilt on the first lookup after a change
+    private volatile DTOConfigSnapshot configSnapshot;
 
     /**
      * Constructor for the DTOProfiles class.
@@ -56,12 +59,17 @@ public class DTOProfiles {
         return enabled;
     }
 
+    /**
+     * Returns a read-only view of the configurations. Change them with
+     * {@link #setConfig} or {@link #setConfigs}, which keep the parsed snapshot in sync.
+     */
     public List<DTOConfig> getConfigs() {
-        return configs;
+        return Collections.unmodifiableList(configs);
     }
 
     public void setConfigs(List<DTOConfig> configs) {
-        this.configs = configs;
+        this.configs = new ArrayList<>(configs);
+        this.configSnapshot = null;
     }
 
     public void setId(Long id) {
@@ -98,16 +106,38 @@ public class DTOProfiles {
      * based on the key.
      */
     public <T> T getConfig(EnumConfigurationKey key, Class<T> clazz) {
-        Optional<DTOConfig> configOptional = configs.stream().filter(config -> config.getConfigurationName().equalsIgnoreCase(key.name())).findFirst();
-
-        if (!configOptional.isPresent()) {
+        return getConfigSnapshot().get(key);
+    }
 
-            DTOConfig defaultConfig = new DTOConfig(-1L, key.name(), key.getDefaultValue());
-            configs.add(defaultConfig);
+    /**
+     * Returns the parsed, immutable view of this profile's configurations. It is
+     * built once and reused until {@link #setConfig} or {@link #setConfigs} changes
+     * the configurations.
+     */
+    public DTOConfigSnapshot getConfigSnapshot() {
+        DTOConfigSnapshot snapshot = configSnapshot;
+        if (snapshot == null) {
+            snapshot = DTOConfigSnapshot.of(configs);
+            configSnapshot = snapshot;
         }
-        String value = configOptional.map(DTOConfig::getValue).orElse(key.getDefaultValue());
+        return snapshot;
+    }
 
-        return key.castValue(value);
+    /**
+     * Returns a copy of this profile whose configurations can be changed without
+     * affecting this instance. The parsed configuration snapshot is immutable, so
+     * the copy shares it until one of them changes its configurations.
+     */
+    public DTOProfiles copy() {
+        DTOProfiles copy = new DTOProfiles(id, name, emulatorNumber, enabled, priority, reconnectionTime);
+        copy.status = status;
+        copy.queuePosition = queuePosition;
+        copy.globalsettings = globalsettings != null ? new HashMap<>(globalsettings) : null;
+        for (DTOConfig config : configs) {
+            copy.configs.add(new DTOConfig(config.getProfileId(), config.getConfigurationName(), config.getValue()));
+        }
+        copy.configSnapshot = configSnapshot;
+        return copy;
     }
 
     public <T> void setConfig(EnumConfigurationKey key, T value) {
@@ -120,6 +150,7 @@ public class DTOProfiles {
             DTOConfig newConfig = new DTOConfig(getId(), key.name(), valueToStore);
             configs.add(newConfig);
         }
+        configSnapshot = null;
     }
 
     public String getStatus() {
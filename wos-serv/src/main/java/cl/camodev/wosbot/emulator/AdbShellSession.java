@@ -0,0 +1,159 @@
+package cl.camodev.wosbot.emulator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.camodev.wosbot.ex.InputNotAcknowledgedException;
+
+/**
+ * Long-lived interactive {@code adb shell} for a single device.
+ * <p>
+ * Commands are written to the shell's stdin as a pipelined stream followed by an
+ * {@code echo} of a unique marker; the batch is acknowledged once the marker is
+ * read back, so callers keep the same "command completed" semantics as
+ * {@code executeShellCommand} without opening a new shell session per command.
+ * <p>
+ * The shell is started lazily and restarted on the next batch if it dies.
+ * Once a batch has been written it is never resent: a failure after that point
+ * raises {@link InputNotAcknowledgedException}, since the device may already
+ * have run part of it.
+ */
+class AdbShellSession implements AutoCloseable {
+	private static final Logger logger = LoggerFactory.getLogger(AdbShellSession.class);
+	private static final String ACK_PREFIX = "__WOSBOT_ACK_";
+	// Pushed by the reader thread when the shell output ends; never equal to an output line
+	private static final Object END_OF_STREAM = new Object();
+
+	private final String adbPath;
+	private final String serial;
+	private final AtomicLong ackSequence = new AtomicLong();
+
+	private Process process;
+	// Output lines as String, then END_OF_STREAM
+	private BlockingQueue<Object> outputLines;
+	private OutputStream stdin;
+
+	AdbShellSession(String adbPath, String serial) {
+		this.adbPath = adbPath;
+		this.serial = serial;
+	}
+
+	/**
+	 * Writes the commands to the shell in one batch and waits until all of them have completed.
+	 * @param commands Shell commands, executed in order
+	 * @param timeoutMs Maximum time to wait for the acknowledgement
+	 * @throws IOException if the shell cannot be started; nothing was sent to the device
+	 * @throws InputNotAcknowledgedException if the shell dies or does not acknowledge in time
+	 *         once the commands have been written
+	 * @throws InterruptedException if interrupted while waiting; the shell is closed, which stops
+	 *         whatever part of the batch the device had not run yet
+	 */
+	synchronized void execute(List<String> commands, long timeoutMs) throws IOException, InterruptedException {
+		ensureStarted();
+
+		String marker = ACK_PREFIX + ackSequence.incrementAndGet() + "__";
+		StringBuilder batch = new StringBuilder();
+		for (String command : commands) {
+			batch.append(command).append('\n');
+		}
+		batch.append("echo ").append(marker).append('\n');
+
+		try {
+			stdin.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+			stdin.flush();
+		} catch (IOException e) {
+			close();
+			throw new InputNotAcknowledgedException("Shell for " + serial + " closed while writing commands", e);
+		}
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+		while (true) {
+			long remaining = deadline - System.nanoTime();
+			Object element;
+			try {
+				element = remaining > 0 ? outputLines.poll(remaining, TimeUnit.NANOSECONDS) : null;
+			} catch (InterruptedException e) {
+				// Ending the session ends the device-side shell, so long sleeps stop with the caller
+				close();
+				throw e;
+			}
+			if (element == null) {
+				close();
+				throw new InputNotAcknowledgedException("Shell for " + serial + " did not acknowledge commands within " + timeoutMs + " ms");
+			}
+			if (element == END_OF_STREAM) {
+				close();
+				throw new InputNotAcknowledgedException("Shell for " + serial + " terminated unexpectedly");
+			}
+			String line = (String) element;
+			if (line.trim().equals(marker)) {
+				return;
+			}
+			logger.trace("Shell output on {}: {}", serial, line);
+		}
+	}
+
+	private void ensureStarted() throws IOException {
+		if (process != null && process.isAlive()) {
+			return;
+		}
+		close();
+
+		ProcessBuilder pb = new ProcessBuilder(adbPath, "-s", serial, "shell");
+		pb.directory(new File(adbPath).getParentFile());
+		pb.redirectErrorStream(true);
+		process = pb.start();
+		stdin = process.getOutputStream();
+
+		// Each process gets its own queue so a dying reader cannot signal the next shell
+		BlockingQueue<Object> lines = new LinkedBlockingQueue<>();
+		outputLines = lines;
+		Process started = process;
+		Thread reader = new Thread(() -> {
+			try (BufferedReader br = new BufferedReader(new InputStreamReader(started.getInputStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = br.readLine()) != null) {
+					lines.offer(line);
+				}
+			} catch (IOException e) {
+				logger.debug("Shell reader for {} stopped: {}", serial, e.getMessage());
+			} finally {
+				lines.offer(END_OF_STREAM);
+			}
+		}, "adb-shell-" + serial);
+		reader.setDaemon(true);
+		reader.start();
+		logger.info("Persistent ADB shell opened for {}", serial);
+	}
+
+	/**
+	 * Terminates the shell process. A new one is started on the next {@link #execute} call.
+	 */
+	@Override
+	public synchronized void close() {
+		if (process == null) {
+			return;
+		}
+		try {
+			stdin.close();
+		} catch (IOException e) {
+			// The process is destroyed below anyway
+		}
+		process.destroy();
+		process = null;
+		stdin = null;
+		logger.debug("Persistent ADB shell closed for {}", serial);
+	}
+}
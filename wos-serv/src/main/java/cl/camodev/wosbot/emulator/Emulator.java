@@ -1,25 +1,35 @@
 package cl.camodev.wosbot.emulator;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
+import java.awt.image.DataBufferByte;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.BufferedReader;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import javax.imageio.ImageIO;
 
 import cl.camodev.utiles.UtilOCR;
+import cl.camodev.utiles.image.PixelLayoutConverter;
+import cl.camodev.utiles.image.RawFrame;
+import cl.camodev.utiles.metrics.HotPathMetrics;
 import cl.camodev.wosbot.console.enumerable.GameVersion;
 import cl.camodev.wosbot.ex.ADBConnectionException;
+import cl.camodev.wosbot.ex.InputNotAcknowledgedException;
 import com.android.ddmlib.*;
 
+import cl.camodev.wosbot.ot.DTOEmulatorStatus;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
 import net.sourceforge.tess4j.TesseractException;
@@ -45,12 +55,17 @@ public abstract class Emulator {
 	protected static final int RETRY_DELAY_MS = 3000;
 	protected static final int INIT_LOOPS = 10;
 	protected static final int INIT_DELAY_MS = 500;
+	protected static final int INPUT_ACK_TIMEOUT_MS = 10000;
+	protected static final int CONSOLE_TIMEOUT_MS = 10000;
 	private static final Logger logger = LoggerFactory.getLogger(Emulator.class);
 	protected String consolePath;
 	protected AndroidDebugBridge bridge = null;
 
 	private final ThreadLocal<BufferedImage> reusableImage = new ThreadLocal<>();
 
+	// Long-lived input shells, keyed by device serial
+	private final Map<String, AdbShellSession> inputShells = new ConcurrentHashMap<>();
+
 	public Emulator(String consolePath) {
 		this.consolePath = consolePath;
 		initializeBridge();
@@ -120,11 +135,78 @@ public abstract class Emulator {
 
 	/**
 	 * Checks if the emulator is running.
+	 * Reads the state cached by {@link EmulatorStatusService} and only queries the
+	 * instance directly when no fresh status list is available.
+	 * @param emulatorNumber Emulator identifier
+	 * @return true if running, false otherwise
+	 */
+	public boolean isRunning(String emulatorNumber) {
+		Boolean cached = EmulatorStatusService.getServices().getCachedRunning(this, emulatorNumber);
+		if (cached != null) {
+			return cached;
+		}
+		return queryRunning(emulatorNumber);
+	}
+
+	/**
+	 * Queries the vendor console for the running state of a single instance.
 	 * Must be implemented by subclasses.
 	 * @param emulatorNumber Emulator identifier
 	 * @return true if running, false otherwise
 	 */
-	public abstract boolean isRunning(String emulatorNumber);
+	protected abstract boolean queryRunning(String emulatorNumber);
+
+	/**
+	 * Lists the state of every instance with a single vendor console call.
+	 * Must be implemented by subclasses.
+	 * @return Status of each instance, keyed by emulator number
+	 * @throws IOException if the console cannot be executed or its output cannot be parsed
+	 */
+	protected abstract Map<String, DTOEmulatorStatus> queryInstanceStatuses() throws IOException;
+
+	/**
+	 * Runs a vendor console command and collects its standard output.
+	 * @param command Executable and arguments
+	 * @return Output lines
+	 * @throws IOException if the command cannot be started or does not finish in time
+	 */
+	protected List<String> runConsoleCommand(String... command) throws IOException {
+		ProcessBuilder pb = new ProcessBuilder(command);
+		pb.directory(new File(consolePath).getParentFile());
+		pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+		Process process = pb.start();
+
+		// The output is read on its own thread, so a console that hangs without
+		// closing it is still bounded by the timeout below
+		List<String> lines = new ArrayList<>();
+		Thread outputReader = Thread.ofVirtual().start(() -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					lines.add(line);
+				}
+			} catch (IOException e) {
+				// Closed when the process is destroyed
+			}
+		});
+
+		try {
+			if (!process.waitFor(CONSOLE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+				process.destroyForcibly();
+				throw new IOException("Console command timed out: " + String.join(" ", command));
+			}
+			// A child the console left behind may still hold the output open
+			if (!outputReader.join(Duration.ofMillis(CONSOLE_TIMEOUT_MS))) {
+				process.getInputStream().close();
+				throw new IOException("Console command output was not closed: " + String.join(" ", command));
+			}
+		} catch (InterruptedException e) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for console command", e);
+		}
+		return lines;
+	}
 
 	/**
 	 * Waits for the ddmlib bridge to be ready.
@@ -213,6 +295,20 @@ public abstract class Emulator {
 		}
 	}
 
+	/**
+	 * Stops the retries of an action whose input already reached the device. Replaying it
+	 * could repeat taps that have landed, e.g. confirming a purchase twice.
+	 */
+	private static void rethrowIfInputSent(Exception error, String actionName, String emulatorNumber) {
+		for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+			if (cause instanceof InputNotAcknowledgedException inputError) {
+				logger.error("{} on {} failed after its input was sent, not retrying: {}", actionName, emulatorNumber,
+						inputError.getMessage());
+				throw inputError;
+			}
+		}
+	}
+
 	/**
 	 * Executes an action with retries for the given emulator.
 	 * @param emulatorNumber Emulator identifier
@@ -249,6 +345,7 @@ public abstract class Emulator {
 				}
 				return action.apply(device);
 			} catch (Exception e) {
+				rethrowIfInputSent(e, actionName, emulatorNumber);
 				logger.warn("Attempt {} of {} failed: {}", attempt, actionName, e.getMessage());
 				if (attempt >= MAX_RETRIES - 2) {
 					logger.warn("Multiple failures, attempting ADB restart (attempt {})", attempt);
@@ -305,6 +402,7 @@ public abstract class Emulator {
 				}
 				return action.apply(device);
 			} catch (Exception e) {
+				rethrowIfInputSent(e, actionName, emulatorNumber);
 				logger.warn("Attempt {} of {} failed after emulator restart: {}", attempt, actionName, e.getMessage());
 				if (attempt >= MAX_RETRIES - 2) {
 					logger.warn("Multiple failures after emulator restart, attempting ADB restart (attempt {})",
@@ -332,12 +430,31 @@ public abstract class Emulator {
 				+ actionName + " on " + emulatorNumber);
 	}
 
+	/**
+	 * Identifies the framebuffer layout reported by ddmlib.
+	 * @param rawImage RawImage from ddmlib
+	 * @return Layout with a specialised converter, or null if the generic loop is needed
+	 */
+	protected PixelLayoutConverter.Layout detectLayout(RawImage rawImage) {
+		return PixelLayoutConverter.Layout.detect(rawImage.bpp, rawImage.red_offset, rawImage.red_length,
+				rawImage.green_offset, rawImage.green_length, rawImage.blue_offset, rawImage.blue_length,
+				rawImage.alpha_length);
+	}
+
 	/**
 	 * Converts a RawImage to BufferedImage.
+	 * Known layouts are converted in bulk straight into the raster of a TYPE_3BYTE_BGR image.
 	 * @param rawImage RawImage from ddmlib
 	 * @param image BufferedImage to fill
 	 */
 	protected void convertRawImageToBufferedImage(RawImage rawImage, BufferedImage image) {
+		PixelLayoutConverter.Layout layout = detectLayout(rawImage);
+		if (layout != null && image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+			byte[] target = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+			PixelLayoutConverter.toBgrBytes(rawImage.data, rawImage.width, rawImage.height, layout, target);
+			return;
+		}
+
 		int[] pixels = new int[rawImage.width * rawImage.height];
 		int index = 0;
 
@@ -378,6 +495,7 @@ public abstract class Emulator {
 	 */
 	protected byte[] captureScreenshotWithDdmlib(String emulatorNumber) {
 		return withRetries(emulatorNumber, device -> {
+			long start = System.nanoTime();
 			try {
 				RawImage rawImage = device.getScreenshot();
 				if (rawImage == null) {
@@ -388,13 +506,14 @@ public abstract class Emulator {
 				if (image == null ||
 						image.getWidth() != rawImage.width ||
 						image.getHeight() != rawImage.height) {
-						image = new BufferedImage(rawImage.width, rawImage.height, BufferedImage.TYPE_INT_RGB);
+						image = new BufferedImage(rawImage.width, rawImage.height, BufferedImage.TYPE_3BYTE_BGR);
 					reusableImage.set(image);
 				}
 				convertRawImageToBufferedImage(rawImage, image);
 				ByteArrayOutputStream baos = new ByteArrayOutputStream();
 				ImageIO.write(image, "png", baos);
 				// java.nio.file.Files.write(java.nio.file.Files.createTempFile("img_full-", ".png"), baos.toByteArray());
+				HotPathMetrics.recordLatency(HotPathMetrics.CAPTURE + ":png", start);
 				return baos.toByteArray();
 			} catch (Exception e) {
 				throw new RuntimeException("Error capturing screenshot", e);
@@ -402,6 +521,117 @@ public abstract class Emulator {
 		}, "captureScreenshot");
 	}
 
+	/**
+	 * Converts a RawImage into a raw frame, without any intermediate image encoding.
+	 * RGBA/RGBX framebuffers are wrapped without copying, other known layouts are converted in bulk.
+	 * @param rawImage RawImage from ddmlib
+	 * @return Raw frame holding the converted pixels
+	 */
+	protected RawFrame convertRawImageToFrame(RawImage rawImage) {
+		PixelLayoutConverter.Layout layout = detectLayout(rawImage);
+		if (layout == PixelLayoutConverter.Layout.RGBA_8888 || layout == PixelLayoutConverter.Layout.RGBX_8888) {
+			// Wrap the framebuffer as is, the BGR view is built with a single bulk swizzle when needed
+			return new RawFrame(rawImage.data, rawImage.width, rawImage.height, rawImage.width * 4, RawFrame.PixelFormat.RGBA_8888);
+		}
+		if (layout != null) {
+			byte[] bgr = PixelLayoutConverter.toBgrBytes(rawImage.data, rawImage.width, rawImage.height, layout);
+			return new RawFrame(bgr, rawImage.width, rawImage.height, rawImage.width * 3, RawFrame.PixelFormat.BGR_888);
+		}
+
+		int pixelCount = rawImage.width * rawImage.height;
+		int bytesPerPixel = rawImage.bpp / 8;
+		byte[] bgr = new byte[pixelCount * 3];
+
+		for (int i = 0, src = 0, dst = 0; i < pixelCount; i++, src += bytesPerPixel, dst += 3) {
+			bgr[dst] = (byte) getColorComponent(rawImage, src, rawImage.blue_offset);
+			bgr[dst + 1] = (byte) getColorComponent(rawImage, src, rawImage.green_offset);
+			bgr[dst + 2] = (byte) getColorComponent(rawImage, src, rawImage.red_offset);
+		}
+
+		return new RawFrame(bgr, rawImage.width, rawImage.height, rawImage.width * 3, RawFrame.PixelFormat.BGR_888);
+	}
+
+	/**
+	 * Captures a raw frame using ddmlib, skipping the PNG encode/decode round trip.
+	 * @param emulatorNumber Emulator identifier
+	 * @return Raw frame of the current screen
+	 */
+	protected RawFrame captureFrameWithDdmlib(String emulatorNumber) {
+		return withRetries(emulatorNumber, device -> {
+			long start = System.nanoTime();
+			try {
+				RawImage rawImage = device.getScreenshot();
+				if (rawImage == null) {
+					throw new RuntimeException("RawImage is null");
+				}
+				RawFrame frame = convertRawImageToFrame(rawImage);
+				HotPathMetrics.recordLatency(HotPathMetrics.CAPTURE, start);
+				return frame;
+			} catch (Exception e) {
+				throw new RuntimeException("Error capturing frame", e);
+			}
+		}, "captureFrame");
+	}
+
+	/**
+	 * Runs input commands through the persistent shell of the device and waits for them to complete.
+	 * If the shell cannot be opened it is discarded, so the next attempt of {@link #withRetries} opens
+	 * a new one. Once the commands have been written a failure is not retried, see
+	 * {@link InputNotAcknowledgedException}.
+	 * @param device Target device
+	 * @param commands Shell commands, executed in order
+	 */
+	protected void executeInputCommands(IDevice device, String... commands) {
+		executeInputCommands(device, Arrays.asList(commands), INPUT_ACK_TIMEOUT_MS + 1000L * commands.length);
+	}
+
+	/**
+	 * Runs input commands through the persistent shell of the device with an explicit timeout.
+	 * @param device Target device
+	 * @param commands Shell commands, executed in order
+	 * @param timeoutMs Maximum time to wait for all commands to complete
+	 */
+	protected void executeInputCommands(IDevice device, List<String> commands, long timeoutMs) {
+		String serial = device.getSerialNumber();
+		AdbShellSession shell = inputShells.computeIfAbsent(serial, s -> new AdbShellSession(getProjectAdbPath(), s));
+		long start = System.nanoTime();
+		try {
+			shell.execute(commands, timeoutMs);
+			HotPathMetrics.recordLatency(inputMetricName(commands), start);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			inputShells.remove(serial, shell);
+			// Part of the input may have run; an interrupted action is never replayed
+			throw new InputNotAcknowledgedException("Interrupted while executing input on " + serial, e);
+		} catch (InputNotAcknowledgedException e) {
+			inputShells.remove(serial, shell);
+			throw e;
+		} catch (IOException e) {
+			inputShells.remove(serial, shell);
+			shell.close();
+			throw new RuntimeException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Names the latency of an input batch after its kind of command, e.g. {@code input:tap}.
+	 */
+	private static String inputMetricName(List<String> commands) {
+		if (commands.size() != 1) {
+			return HotPathMetrics.INPUT + ":batch";
+		}
+		String[] words = commands.get(0).split(" ", 3);
+		return HotPathMetrics.INPUT + ":" + (words.length > 1 ? words[1] : words[0]);
+	}
+
+	/**
+	 * Closes every persistent input shell. They are reopened on demand.
+	 */
+	protected void closeInputShells() {
+		inputShells.values().forEach(AdbShellSession::close);
+		inputShells.clear();
+	}
+
 	/**
 	 * Simulates a tap event at a random point within the given area.
 	 * @param emulatorNumber Emulator identifier
@@ -412,6 +642,8 @@ public abstract class Emulator {
 	 * @return true if successful
 	 */
 	protected boolean tapWithDdmlib(String emulatorNumber, DTOPoint point1, DTOPoint point2, int tapCount, int delayMs) {
+		// Taps already acknowledged by the device, so a retry resumes instead of tapping them again
+		AtomicInteger tapsDone = new AtomicInteger();
 		return withRetries(emulatorNumber, device -> {
 			Random random = new Random();
 			int minX = Math.min(point1.getX(), point2.getX());
@@ -419,12 +651,24 @@ public abstract class Emulator {
 			int minY = Math.min(point1.getY(), point2.getY());
 			int maxY = Math.max(point1.getY(), point2.getY());
 
-			for (int i = 1; i <= tapCount; i++) {
+			if (delayMs <= 0) {
+				// No pause between taps, pipeline all of them in a single batch
+				String[] taps = new String[tapCount];
+				for (int i = 0; i < tapCount; i++) {
+					taps[i] = "input tap " + (minX + random.nextInt(maxX - minX + 1)) + " " + (minY + random.nextInt(maxY - minY + 1));
+				}
+				executeInputCommands(device, taps);
+				logger.debug("{} taps executed in area ({},{})-({},{}) on emulator {}", tapCount, minX, minY, maxX, maxY, emulatorNumber);
+				return Boolean.TRUE;
+			}
+
+			for (int i = tapsDone.get() + 1; i <= tapCount; i++) {
 				int x = minX + random.nextInt(maxX - minX + 1);
 				int y = minY + random.nextInt(maxY - minY + 1);
 
 				try {
-					device.executeShellCommand("input tap " + x + " " + y, new NullOutputReceiver());
+					executeInputCommands(device, "input tap " + x + " " + y);
+					tapsDone.set(i);
                     // Detailed log with coordinates and tap count
                     logger.debug("Tap {}/{} executed at ({},{}) on emulator {}", i, tapCount, x, y, emulatorNumber);
 					Thread.sleep(delayMs);
@@ -440,6 +684,7 @@ public abstract class Emulator {
 	 * Restarts the ADB bridge using the project's ADB executable.
 	 */
 	public void restartAdb() {
+		closeInputShells();
 		AndroidDebugBridge.disconnectBridge(5000, TimeUnit.MILLISECONDS);
 		AndroidDebugBridge.terminate();
 		AndroidDebugBridge.init(false);
@@ -460,7 +705,7 @@ public abstract class Emulator {
 		withRetries(emulatorNumber, device -> {
 			try {
 				String command = String.format("input swipe %d %d %d %d", point.getX(), point.getY(), point2.getX(), point2.getY());
-				device.executeShellCommand(command, new NullOutputReceiver());
+				executeInputCommands(device, command);
 				logger.debug("Swipe executed from ({},{}) to ({},{}) on emulator {}",
 						point.getX(), point.getY(), point2.getX(), point2.getY(), emulatorNumber);
 				return null;
@@ -477,7 +722,7 @@ public abstract class Emulator {
 	public void pressBackButton(String emulatorNumber) {
 		withRetries(emulatorNumber, device -> {
 			try {
-				device.executeShellCommand("input keyevent KEYCODE_BACK", new NullOutputReceiver());
+				executeInputCommands(device, "input keyevent KEYCODE_BACK");
                 logger.debug("Back button pressed on emulator {}", emulatorNumber);
 				return null;
 			} catch (Exception e) {
@@ -486,6 +731,24 @@ public abstract class Emulator {
 		}, "pressBackButton");
 	}
 
+	/**
+	 * Runs a whole input macro on the device in a single batch, returning once every step has finished.
+	 * Macros are not idempotent, so only finding the device and opening its shell are retried: once the
+	 * macro has been written, a failure or an interrupt ends it with {@link InputNotAcknowledgedException}
+	 * and the caller decides how to recover from the screen it is left on. An interrupt also closes the
+	 * shell, which stops the steps the device had not run yet.
+	 * @param emulatorNumber Emulator identifier
+	 * @param macro Macro to execute
+	 */
+	public void executeMacro(String emulatorNumber, InputMacro macro) {
+		withRetries(emulatorNumber, device -> {
+			long timeoutMs = INPUT_ACK_TIMEOUT_MS + macro.getTotalSleepMs() + 1000L * macro.getCommands().size();
+			executeInputCommands(device, macro.getCommands(), timeoutMs);
+			logger.debug("Macro of {} steps executed on emulator {}", macro.getCommands().size(), emulatorNumber);
+			return null;
+		}, "executeMacro");
+	}
+
 	/**
 	 * Checks if an app is installed on the emulator.
 	 * @param emulatorNumber Emulator identifier
@@ -594,7 +857,7 @@ public abstract class Emulator {
 	public void sendGameToBackground(String emulatorNumber) {
 		withRetries(emulatorNumber, device -> {
 			try {
-				device.executeShellCommand("input keyevent KEYCODE_HOME", new NullOutputReceiver());
+				executeInputCommands(device, "input keyevent KEYCODE_HOME");
                 logger.info("Game sent to background on emulator {}", emulatorNumber);
 				return null;
 			} catch (Exception e) {
@@ -637,12 +900,12 @@ public abstract class Emulator {
 	 * @throws TesseractException if OCR fails
 	 */
 	public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2) throws IOException, TesseractException {
-		BufferedImage image = ImageIO.read(new ByteArrayInputStream(captureScreenshot(emulatorNumber)));
-		if (image == null)
+		RawFrame frame = captureFrame(emulatorNumber);
+		if (frame == null)
 			throw new IOException("Could not capture image.");
 
         String language = (EmulatorManager.GAME == GameVersion.CHINA) ? "eng+chi_sim" : "eng";
-		return UtilOCR.ocrFromRegion(image, p1, p2, language);
+		return UtilOCR.ocrFromRegion(frame, p1, p2, language);
 	}
 
 	/**
@@ -656,11 +919,11 @@ public abstract class Emulator {
 	 * @throws TesseractException if OCR fails
 	 */
 	public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
-		BufferedImage image = ImageIO.read(new ByteArrayInputStream(captureScreenshot(emulatorNumber)));
-		if (image == null)
+		RawFrame frame = captureFrame(emulatorNumber);
+		if (frame == null)
 			throw new IOException("Could not capture image.");
 
-		return UtilOCR.ocrFromRegion(image, p1, p2, settings);
+		return UtilOCR.ocrFromRegion(frame, p1, p2, settings);
 	}
 
 	/**
@@ -672,6 +935,15 @@ public abstract class Emulator {
 		return captureScreenshotWithDdmlib(emulatorNumber);
 	}
 
+	/**
+	 * Captures an uncompressed frame from the emulator.
+	 * @param emulatorNumber Emulator identifier
+	 * @return Raw frame of the current screen
+	 */
+	public RawFrame captureFrame(String emulatorNumber) {
+		return captureFrameWithDdmlib(emulatorNumber);
+	}
+
 	/**
 	 * Extracts the IP:port address from a device serial string.
 	 * @param serial Device serial string
@@ -1,28 +1,38 @@
 package cl.camodev.wosbot.emulator;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
-import javax.imageio.ImageIO;
-
 import cl.camodev.utiles.ImageSearchUtil;
+import cl.camodev.utiles.UtilOCR;
+import cl.camodev.utiles.image.ColorAnalyzer;
+import cl.camodev.utiles.image.ColorCounts;
+import cl.camodev.utiles.image.RawFrame;
+import cl.camodev.utiles.metrics.HotPathMetrics;
+import cl.camodev.utiles.ocr.OcrResultCache;
+import cl.camodev.utiles.ocr.TesseractPool;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
+import cl.camodev.wosbot.console.enumerable.EnumScreen;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.GameVersion;
 import cl.camodev.wosbot.emulator.impl.LDPlayerEmulator;
 import cl.camodev.wosbot.emulator.impl.MEmuEmulator;
 import cl.camodev.wosbot.emulator.impl.MuMuEmulator;
+import cl.camodev.wosbot.ot.DTOArea;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
+import cl.camodev.wosbot.ot.DTOOcrRegion;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOProfiles;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
@@ -45,6 +55,9 @@ public class EmulatorManager {
     private Emulator emulator;
     private int MAX_RUNNING_EMULATORS = 3;
     private final Set<Thread> activeSlots = new HashSet<>();
+    private final Map<String, ScreenSnapshot> recentSnapshots = new ConcurrentHashMap<>();
+    private volatile long frameFreshnessMs = 0;
+    private final ScreenClassifier screenClassifier = new ScreenClassifier();
 
     private EmulatorManager() {
 
@@ -73,13 +86,26 @@ public class EmulatorManager {
             logger.warn("Invalid game version '{}' found in configuration, using default GLOBAL", gameVersionName);
             GAME = GameVersion.GLOBAL;
         }
-
+        ImageSearchUtil.setLocationHintsScope(GAME.name());
+        screenClassifier.clear();
+        // Glyph samples learned in previous sessions, per game version since the fonts may differ
+        UtilOCR.loadLearnedGlyphs(Paths.get("glyphs", GAME.name() + ".bin"));
 
         String savedActiveEmulator = globalConfig.get(EnumConfigurationKey.CURRENT_EMULATOR_STRING.name());
         if (savedActiveEmulator == null) {
             throw new IllegalStateException("No active emulator set. Ensure an emulator is selected.");
         }
         MAX_RUNNING_EMULATORS = Optional.ofNullable(globalConfig.get(EnumConfigurationKey.MAX_RUNNING_EMULATORS_INT.name())).map(Integer::parseInt).orElse(Integer.parseInt(EnumConfigurationKey.MAX_RUNNING_EMULATORS_INT.getDefaultValue()));
+        // One OCR engine per configuration and running emulator, loaded off the caller's thread
+        TesseractPool.setMaxEnginesPerKey(MAX_RUNNING_EMULATORS);
+        String ocrLanguage = (GAME == GameVersion.CHINA) ? "eng+chi_sim" : "eng";
+        Thread.ofVirtual().name("ocr-warm-up").start(() -> UtilOCR.warmUp(ocrLanguage));
+        setFrameFreshnessWindow(Optional.ofNullable(globalConfig.get(EnumConfigurationKey.FRAME_FRESHNESS_MS_INT.name())).map(Long::parseLong).orElse(Long.parseLong(EnumConfigurationKey.FRAME_FRESHNESS_MS_INT.getDefaultValue())));
+        ImageSearchUtil.setLocationHintsEnabled(Optional.ofNullable(globalConfig.get(EnumConfigurationKey.TEMPLATE_LOCATION_HINTS_BOOL.name())).map(Boolean::parseBoolean).orElse(Boolean.parseBoolean(EnumConfigurationKey.TEMPLATE_LOCATION_HINTS_BOOL.getDefaultValue())));
+        HotPathMetrics.setEnabled(Optional.ofNullable(globalConfig.get(EnumConfigurationKey.HOT_PATH_METRICS_BOOL.name())).map(Boolean::parseBoolean).orElse(Boolean.parseBoolean(EnumConfigurationKey.HOT_PATH_METRICS_BOOL.getDefaultValue())));
+        int ocrCacheSize = Optional.ofNullable(globalConfig.get(EnumConfigurationKey.OCR_CACHE_SIZE_INT.name())).map(Integer::parseInt).orElse(Integer.parseInt(EnumConfigurationKey.OCR_CACHE_SIZE_INT.getDefaultValue()));
+        long ocrCacheTtlSeconds = Optional.ofNullable(globalConfig.get(EnumConfigurationKey.OCR_CACHE_TTL_SECONDS_INT.name())).map(Long::parseLong).orElse(Long.parseLong(EnumConfigurationKey.OCR_CACHE_TTL_SECONDS_INT.getDefaultValue()));
+        OcrResultCache.configure(ocrCacheSize, TimeUnit.SECONDS.toMillis(ocrCacheTtlSeconds));
         try {
             EmulatorType emulatorType = EmulatorType.valueOf(savedActiveEmulator);
             String consolePath = globalConfig.get(emulatorType.getConfigKey());
@@ -103,6 +129,7 @@ public class EmulatorManager {
             }
 
             logger.info("Emulator initialized: {}", emulatorType.getDisplayName());
+            EmulatorStatusService.getServices().start(this.emulator);
             //restartAdbServer();
 
         } catch (IllegalArgumentException e) {
@@ -127,6 +154,98 @@ public class EmulatorManager {
         return emulator.captureScreenshot(emulatorNumber);
     }
 
+    /**
+     * Captures an uncompressed frame of the emulator screen.
+     */
+    public RawFrame captureFrame(String emulatorNumber) {
+        checkEmulatorInitialized();
+        return emulator.captureFrame(emulatorNumber);
+    }
+
+    /**
+     * Captures the screen once and returns a handle that any number of template
+     * searches, OCR reads and colour checks can be evaluated against.
+     * The caller must close the snapshot when done.
+     */
+    public ScreenSnapshot captureSnapshot(String emulatorNumber) {
+        checkEmulatorInitialized();
+        return new ScreenSnapshot(this, emulatorNumber, emulator.captureFrame(emulatorNumber));
+    }
+
+    /**
+     * Gets the classifier that recognises screens from their fingerprint. It is
+     * shared by every emulator and cleared when the manager is initialized.
+     */
+    public ScreenClassifier getScreenClassifier() {
+        return screenClassifier;
+    }
+
+    /**
+     * Recognises the current screen of the emulator from its fingerprint.
+     * @return The screen, or {@link EnumScreen#UNKNOWN} when the classifier is not confident
+     */
+    public EnumScreen classifyScreen(String emulatorNumber) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.classifyScreen();
+        }
+    }
+
+    /**
+     * Sets how long, in milliseconds, a captured frame may be reused by the
+     * implicit captures of {@code searchTemplate*}, {@code ocrRegionText} and
+     * {@code analyzeColors}. Zero disables reuse.
+     */
+    public void setFrameFreshnessWindow(long millis) {
+        frameFreshnessMs = Math.max(0, millis);
+        if (frameFreshnessMs == 0) {
+            recentSnapshots.keySet().forEach(this::invalidateFrame);
+        }
+    }
+
+    public long getFrameFreshnessWindow() {
+        return frameFreshnessMs;
+    }
+
+    /**
+     * Drops the frame kept by the freshness window for the given emulator, so the
+     * next read captures the screen again. Called after every input action.
+     */
+    public void invalidateFrame(String emulatorNumber) {
+        ScreenSnapshot previous = recentSnapshots.remove(emulatorNumber);
+        if (previous != null) {
+            previous.discard();
+        }
+    }
+
+    /**
+     * Returns a snapshot for an implicit read: the last frame of this emulator if it
+     * is still inside the freshness window, a new capture otherwise. Use it to run
+     * several reads on one frame, and close it afterwards.
+     */
+    public ScreenSnapshot obtainSnapshot(String emulatorNumber) {
+        checkEmulatorInitialized();
+        long freshness = frameFreshnessMs;
+        if (freshness <= 0) {
+            return new ScreenSnapshot(this, emulatorNumber, emulator.captureFrame(emulatorNumber));
+        }
+
+        // A cached frame that another thread discarded meanwhile cannot be retained
+        ScreenSnapshot cached = recentSnapshots.get(emulatorNumber);
+        if (cached != null && cached.getAgeMillis() <= freshness && cached.retain()) {
+            HotPathMetrics.increment(HotPathMetrics.CAPTURE + ":reused");
+            return cached;
+        }
+
+        // One reference for the caller, one for the freshness window
+        ScreenSnapshot fresh = new ScreenSnapshot(this, emulatorNumber, emulator.captureFrame(emulatorNumber));
+        fresh.retain();
+        ScreenSnapshot previous = recentSnapshots.put(emulatorNumber, fresh);
+        if (previous != null) {
+            previous.discard();
+        }
+        return fresh;
+    }
+
     /**
      * Taps at a specific coordinate.
      */
@@ -138,6 +257,7 @@ public class EmulatorManager {
         logger.info("{} - Tapping at ({},{}) for emulator {}", 
                 profileName, point.getX(), point.getY(), emulatorNumber);
                 
+        invalidateFrame(emulatorNumber);
         emulator.tapAtRandomPoint(emulatorNumber, point, point);
     }
 
@@ -152,6 +272,7 @@ public class EmulatorManager {
         logger.info("{} - Random tapping in area ({},{}) to ({},{}) for emulator {}", 
                 profileName, point1.getX(), point1.getY(), point2.getX(), point2.getY(), emulatorNumber);
                 
+        invalidateFrame(emulatorNumber);
         return emulator.tapAtRandomPoint(emulatorNumber, point1, point2);
     }
 
@@ -166,6 +287,7 @@ public class EmulatorManager {
         logger.info("{} - Multiple random tapping ({} times) in area ({},{}) to ({},{}) for emulator {}", 
                 profileName, tapCount, point1.getX(), point1.getY(), point2.getX(), point2.getY(), emulatorNumber);
                 
+        invalidateFrame(emulatorNumber);
         return emulator.tapAtRandomPoint(emulatorNumber, point1, point2, tapCount, delayMs);
     }
 
@@ -180,9 +302,26 @@ public class EmulatorManager {
         logger.info("{} - Swiping from ({},{}) to ({},{}) for emulator {}", 
                 profileName, start.getX(), start.getY(), end.getX(), end.getY(), emulatorNumber);
                 
+        invalidateFrame(emulatorNumber);
         emulator.swipe(emulatorNumber, start, end);
     }
 
+    /**
+     * Runs a sequence of taps, swipes, key events and waits on the device in one round trip.
+     * A macro that fails or is interrupted after reaching the device is not replayed.
+     */
+    public void executeMacro(String emulatorNumber, InputMacro macro) {
+        checkEmulatorInitialized();
+
+        // Get profile name and log the macro
+        String profileName = getProfileNameForEmulator(emulatorNumber);
+        logger.info("{} - Executing macro of {} steps ({} ms of waits) for emulator {}",
+                profileName, macro.getCommands().size(), macro.getTotalSleepMs(), emulatorNumber);
+
+        invalidateFrame(emulatorNumber);
+        emulator.executeMacro(emulatorNumber, macro);
+    }
+
     /**
      * Checks if an application is installed on the emulator.
      */
@@ -202,6 +341,7 @@ public class EmulatorManager {
         logger.info("{} - Pressing back button for emulator {}", 
                 profileName, emulatorNumber);
                 
+        invalidateFrame(emulatorNumber);
         emulator.pressBackButton(emulatorNumber);
     }
 
@@ -209,8 +349,70 @@ public class EmulatorManager {
      * Executes OCR on a screen region and extracts text.
      */
     public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2) throws IOException, TesseractException {
-        checkEmulatorInitialized();
-        return emulator.ocrRegionText(emulatorNumber, p1, p2);
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.ocrRegionText(p1, p2);
+        }
+    }
+
+    /**
+     * Hashes the pixels of a screen region. Two captures with an equal hash show the same region content.
+     * @param emulatorNumber Emulator identifier
+     * @param p1 First corner of the region
+     * @param p2 Second corner of the region
+     * @return Hash of the region pixels
+     * @throws IOException if image capture fails
+     */
+    public long regionHash(String emulatorNumber, DTOPoint p1, DTOPoint p2) throws IOException {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.regionHash(p1, p2);
+        }
+    }
+
+    /**
+     * Executes OCR on several screen regions, all read in parallel from a single capture.
+     * @param emulatorNumber Emulator identifier
+     * @param regions Regions to read, each with its own optional Tesseract settings
+     * @return Recognized text by region name, in the order of the regions; null for the regions that could not be read
+     * @throws IOException if image capture fails
+     */
+    public Map<String, String> ocrRegionsText(String emulatorNumber, List<DTOOcrRegion> regions) throws IOException {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.ocrRegionsText(regions);
+        }
+    }
+
+    /**
+     * Reads a counter or timer (digits, '/', ':', '.' and ',') from a screen region.
+     * Learned glyphs are matched first and Tesseract is only used when they are not conclusive.
+     * @param emulatorNumber Emulator identifier
+     * @param p1 First corner of the region
+     * @param p2 Second corner of the region
+     * @param allowedChars Characters the region may hold, such as "0123456789/"
+     * @return Recognized text
+     * @throws IOException if image capture fails
+     * @throws TesseractException if OCR fails
+     */
+    public String ocrDigitsText(String emulatorNumber, DTOPoint p1, DTOPoint p2, String allowedChars) throws IOException, TesseractException {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.ocrDigitsText(p1, p2, allowedChars);
+        }
+    }
+
+    /**
+     * Reads a counter or timer from a screen region, matching the learned glyphs first and
+     * falling back to Tesseract with the given settings.
+     * @param emulatorNumber Emulator identifier
+     * @param p1 First corner of the region
+     * @param p2 Second corner of the region
+     * @param settings Tesseract settings, whose whitelist gives the characters the region may hold
+     * @return Recognized text
+     * @throws IOException if image capture fails
+     * @throws TesseractException if OCR fails
+     */
+    public String ocrDigitsText(String emulatorNumber, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.ocrDigitsText(p1, p2, settings);
+        }
     }
 
     /**
@@ -224,14 +426,15 @@ public class EmulatorManager {
      * @throws TesseractException if OCR fails
      */
     public String ocrRegionText(String emulatorNumber, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
-        checkEmulatorInitialized();
-        return emulator.ocrRegionText(emulatorNumber, p1, p2, settings);
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.ocrRegionText(p1, p2, settings);
+        }
     }
 
     /**
      * Helper method to get profile name from emulator number
      */
-    private String getProfileNameForEmulator(String emulatorNumber) {
+    String getProfileNameForEmulator(String emulatorNumber) {
         try {
             // Use ServProfiles to find profile with this emulator number
             List<DTOProfiles> profiles = ServProfiles.getServices().getProfiles();
@@ -294,7 +497,7 @@ public class EmulatorManager {
     /**
      * Gets the most appropriate template path according to the configured region
      */
-    private String getBestTemplatePath(String originalPath) {
+    String getBestTemplatePath(String originalPath) {
         // Generate region-specific path
         String regionSpecificPath = getRegionSpecificTemplatePath(originalPath);
 
@@ -313,39 +516,44 @@ public class EmulatorManager {
      * Searches for an image on the captured screen of the emulator.
      */
     public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner , double threshold) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplate(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplate(templatePath, topLeftCorner, bottomRightCorner, threshold);
+        }
+    }
+
+    /**
+     * Searches for an image on the captured screen of the emulator, overriding the pyramid mode of the template.
+     */
+    public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, boolean pyramid) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplate(templatePath, topLeftCorner, bottomRightCorner, threshold, pyramid);
         }
     }
 
     /**
-     * Searches for an image on the entire emulator screen.
+     * Searches for an image on the default region of the template, or the entire emulator screen if it has none.
      */
     public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, double threshold) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplate(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplate(templatePath, threshold);
+        }
+    }
+
+    /**
+     * Searches for an image on the default region of the template, overriding its pyramid mode.
+     */
+    public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath, double threshold, boolean pyramid) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplate(templatePath, threshold, pyramid);
+        }
+    }
+
+    /**
+     * Searches for an image using the default region, matching mode and threshold of the template.
+     */
+    public DTOImageSearchResult searchTemplate(String emulatorNumber, EnumTemplates templatePath) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplate(templatePath);
         }
     }
 
@@ -353,39 +561,17 @@ public class EmulatorManager {
      * Searches for an image on the specified region of the emulator screen using grayscale matching.
      */
     public DTOImageSearchResult searchTemplateGrayscale(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscale(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplateGrayscale(templatePath, topLeftCorner, bottomRightCorner, threshold);
         }
     }
 
     /**
-     * Searches for an image on the entire emulator screen using grayscale matching.
+     * Searches for an image on the default region of the template using grayscale matching.
      */
     public DTOImageSearchResult searchTemplateGrayscale(String emulatorNumber, EnumTemplates templatePath, double threshold) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscale(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplateGrayscale(templatePath, threshold);
         }
     }
 
@@ -393,125 +579,93 @@ public class EmulatorManager {
      * Searches for multiple instances of an image on the specified region of the emulator screen using grayscale matching.
      */
     public List<DTOImageSearchResult> searchTemplatesGrayscale(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscaleMultiple(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplatesGrayscale(templatePath, topLeftCorner, bottomRightCorner, threshold, maxResults);
         }
     }
 
     /**
-     * Searches for multiple instances of an image on the entire emulator screen using grayscale matching.
+     * Searches for multiple instances of an image on the default region of the template using grayscale matching.
      */
     public List<DTOImageSearchResult> searchTemplatesGrayscale(String emulatorNumber, EnumTemplates templatePath, double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateGrayscaleMultiple(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplatesGrayscale(templatePath, threshold, maxResults);
         }
     }
 
     public List<DTOImageSearchResult> searchTemplates(String emulatorNumber, EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner , double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateMultiple(screenshot, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplates(templatePath, topLeftCorner, bottomRightCorner, threshold, maxResults);
         }
     }
 
     public List<DTOImageSearchResult> searchTemplates(String emulatorNumber, EnumTemplates templatePath, double threshold, int maxResults) {
-        checkEmulatorInitialized();
-        byte[] screenshot = captureScreenshotViaADB(emulatorNumber);
-        String bestTemplatePath = getBestTemplatePath(templatePath.getTemplate());
-        
-        try {
-            // Set profile name in ImageSearchUtil for logging
-            String profileName = getProfileNameForEmulator(emulatorNumber);
-            ImageSearchUtil.setProfileName(profileName);
-            
-            return ImageSearchUtil.searchTemplateMultiple(screenshot, bestTemplatePath, new DTOPoint(0,0), new DTOPoint(720,1280), threshold, maxResults);
-        } finally {
-            // Clear profile name after the search is done
-            ImageSearchUtil.clearProfileName();
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplates(templatePath, threshold, maxResults);
+        }
+    }
+
+    /**
+     * Searches for multiple instances of an image using the default region, matching mode,
+     * threshold and suppression radius of the template.
+     */
+    public List<DTOImageSearchResult> searchTemplates(String emulatorNumber, EnumTemplates templatePath, int maxResults) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchTemplates(templatePath, maxResults);
+        }
+    }
+
+    /**
+     * Searches several templates on the specified region of a single capture, matching
+     * them in parallel.
+     * @return Results per template, in the iteration order of {@code templates}
+     */
+    public Map<EnumTemplates, List<DTOImageSearchResult>> searchAnyOf(String emulatorNumber, Collection<EnumTemplates> templates, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, int maxResults) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchAnyOf(templates, topLeftCorner, bottomRightCorner, threshold, maxResults);
+        }
+    }
+
+    /**
+     * Searches several templates from a single capture, matching them in parallel over the
+     * smallest region that covers the default region of every template.
+     */
+    public Map<EnumTemplates, List<DTOImageSearchResult>> searchAnyOf(String emulatorNumber, Collection<EnumTemplates> templates, double threshold, int maxResults) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchAnyOf(templates, threshold, maxResults);
+        }
+    }
+
+    /**
+     * Searches several templates on the specified region of a single capture and keeps the best match.
+     * @return The best template and its match, or null if none of them was found
+     */
+    public Map.Entry<EnumTemplates, DTOImageSearchResult> searchBestOf(String emulatorNumber, Collection<EnumTemplates> templates, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.searchBestOf(templates, topLeftCorner, bottomRightCorner, threshold);
         }
     }
 
     /**
-     * Analyzes the colors in a region of the screen, counting pixels that match certain criteria
+     * Counts the pixels of several regions of a single capture that belong to each colour class of the analyzer.
      * @param emulatorNumber Emulator identifier
-     * @param topLeft Top-left point of the region to analyze
-     * @param bottomRight Bottom-right point of the region to analyze
+     * @param areas Regions to analyze, both corners included
      * @param stepSize Step size for scanning (e.g., 2 to check every other pixel)
-     * @return Array with counts for [background, green, red] pixels
+     * @return One result per region, in the same order; empty counts if the screen could not be analyzed
      */
-    public int[] analyzeRegionColors(String emulatorNumber, DTOPoint topLeft, DTOPoint bottomRight, int stepSize) {
-        try {
-            // Take a single screenshot
-            byte[] screenshot = emulator.captureScreenshot(emulatorNumber);
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(screenshot));
-            
-            int[] counts = new int[3]; // [background, green, red]
-            
-            // Scan the region
-            for (int y = topLeft.getY(); y <= bottomRight.getY(); y += stepSize) {
-                for (int x = topLeft.getX(); x <= bottomRight.getX(); x += stepSize) {
-                    int rgb = image.getRGB(x, y);
-                    int r = (rgb >> 16) & 0xFF;
-                    int g = (rgb >> 8) & 0xFF;
-                    int b = rgb & 0xFF;
-                    
-                    // Check if it's background color (127, 173, 205)
-                    if (Math.abs(r - 127) < 20 && Math.abs(g - 173) < 20 && Math.abs(b - 205) < 20) {
-                        counts[0]++; // background
-                    }
-                    // Check if it's green text
-                    else if (g > Math.max(r, b) * 1.2 && g > 100) {
-                        counts[1]++; // green
-                    }
-                    // Check if it's red text
-                    else if (r > Math.max(g, b) * 1.2 && r > 100) {
-                        counts[2]++; // red
-                    }
-                }
-            }
-            
-            return counts;
+    public List<ColorCounts> analyzeColors(String emulatorNumber, ColorAnalyzer analyzer, List<DTOArea> areas, int stepSize) {
+        try (ScreenSnapshot snapshot = obtainSnapshot(emulatorNumber)) {
+            return snapshot.analyzeColors(analyzer, areas, stepSize);
         } catch (Exception e) {
             logger.error("Error analyzing region colors", e);
-            return new int[]{0, 0, 0};
+            return areas.stream().map(area -> ColorCounts.empty()).toList();
         }
     }
 
     public void launchEmulator(String emulatorNumber) {
         checkEmulatorInitialized();
         emulator.launchEmulator(emulatorNumber);
+        EmulatorStatusService.getServices().invalidate(emulatorNumber);
     }
 
     /**
@@ -520,15 +674,18 @@ public class EmulatorManager {
     public void closeEmulator(String emulatorNumber) {
         checkEmulatorInitialized();
         emulator.closeEmulator(emulatorNumber);
+        EmulatorStatusService.getServices().invalidate(emulatorNumber);
     }
 
     public void launchApp(String emulatorNumber, String packageName) {
         checkEmulatorInitialized();
+        invalidateFrame(emulatorNumber);
         emulator.launchApp(emulatorNumber, packageName);
     }
 
     public void sendGameToBackground(String emulatorNumber) {
         checkEmulatorInitialized();
+        invalidateFrame(emulatorNumber);
         emulator.sendGameToBackground(emulatorNumber);
     }
     
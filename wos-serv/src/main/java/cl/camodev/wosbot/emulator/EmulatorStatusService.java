@@ -0,0 +1,197 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import cl.camodev.wosbot.ot.DTOEmulatorStatus;
+import cl.camodev.wosbot.serv.IEmulatorStatusListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Singleton service that keeps the running state of every emulator instance.
+ * <p>
+ * Instead of starting a console process for each {@code isRunning} check, it runs
+ * the vendor's list command once per interval for all instances, caches the result
+ * and notifies listeners when an instance changes. {@link Emulator#isRunning(String)}
+ * reads this cache and only falls back to a direct query while no fresh list is
+ * available or the instance was invalidated after a launch/close. An instance that
+ * is missing from a fresh list is reported as not running.
+ */
+public class EmulatorStatusService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmulatorStatusService.class);
+
+    private static EmulatorStatusService instance;
+
+    // Poll interval for the vendor list command
+    private static final long POLL_INTERVAL_MS = 2000;
+
+    // A list older than this many intervals is not trusted anymore
+    private static final int MAX_STALE_INTERVALS = 3;
+
+    private final ConcurrentHashMap<String, DTOEmulatorStatus> statuses = new ConcurrentHashMap<>();
+    // Instances launched or closed since the last list, answered by a direct query until it is refreshed
+    private final Set<String> invalidated = ConcurrentHashMap.newKeySet();
+    private final List<IEmulatorStatusListener> listeners = new ArrayList<>();
+    private final ScheduledExecutorService pollScheduler;
+
+    private volatile Emulator emulator;
+    private volatile long lastSuccessfulPoll;
+    private ScheduledFuture<?> pollTask;
+
+    private EmulatorStatusService() {
+        this.pollScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "EmulatorStatusPoller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized EmulatorStatusService getServices() {
+        if (instance == null) {
+            instance = new EmulatorStatusService();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts polling the given emulator, replacing any previously polled one.
+     */
+    public synchronized void start(Emulator emulator) {
+        stop();
+        this.emulator = emulator;
+        pollTask = pollScheduler.scheduleWithFixedDelay(this::poll, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        logger.info("Emulator status polling started every {} ms", POLL_INTERVAL_MS);
+    }
+
+    /**
+     * Stops polling and clears the cached statuses.
+     */
+    public synchronized void stop() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+        }
+        emulator = null;
+        lastSuccessfulPoll = 0;
+        statuses.clear();
+        invalidated.clear();
+    }
+
+    public synchronized void addEmulatorStatusListener(IEmulatorStatusListener listener) {
+        if (listener != null && !listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    public synchronized void removeEmulatorStatusListener(IEmulatorStatusListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the cached running state of an instance of the given emulator.
+     *
+     * @return the cached state, false if a fresh list does not contain the instance, or
+     *         null if there is no fresh list for this emulator or the instance was
+     *         invalidated, and the caller has to query the instance directly
+     */
+    public Boolean getCachedRunning(Emulator owner, String emulatorNumber) {
+        if (owner != emulator || System.currentTimeMillis() - lastSuccessfulPoll > POLL_INTERVAL_MS * MAX_STALE_INTERVALS) {
+            return null;
+        }
+        if (invalidated.contains(emulatorNumber)) {
+            return null;
+        }
+        DTOEmulatorStatus status = statuses.get(emulatorNumber);
+        return status != null && status.isRunning();
+    }
+
+    /**
+     * @return the last known status of an instance, or null if unknown
+     */
+    public DTOEmulatorStatus getStatus(String emulatorNumber) {
+        return statuses.get(emulatorNumber);
+    }
+
+    /**
+     * @return a copy of the last known status of every instance
+     */
+    public Map<String, DTOEmulatorStatus> getStatuses() {
+        return Collections.unmodifiableMap(new ConcurrentHashMap<>(statuses));
+    }
+
+    /**
+     * Forgets the cached state of an instance that is being launched or closed and
+     * schedules an immediate poll, so no stale state is served meanwhile.
+     */
+    public void invalidate(String emulatorNumber) {
+        invalidated.add(emulatorNumber);
+        statuses.remove(emulatorNumber);
+        if (emulator != null) {
+            pollScheduler.execute(this::poll);
+        }
+    }
+
+    private void poll() {
+        Emulator target = emulator;
+        if (target == null) {
+            return;
+        }
+
+        // Invalidations arriving while the command runs are not covered by its output
+        Set<String> coveredInvalidations = new HashSet<>(invalidated);
+        Map<String, DTOEmulatorStatus> current;
+        try {
+            current = target.queryInstanceStatuses();
+        } catch (Exception e) {
+            logger.warn("Could not list emulator instances: {}", e.getMessage());
+            return;
+        }
+        if (target != emulator) {
+            // Emulator was replaced while the command was running
+            return;
+        }
+
+        for (DTOEmulatorStatus status : current.values()) {
+            DTOEmulatorStatus previous = statuses.put(status.getEmulatorNumber(), status);
+            if (!status.equals(previous)) {
+                notifyStatusChange(previous, status);
+            }
+        }
+        for (String emulatorNumber : statuses.keySet()) {
+            if (!current.containsKey(emulatorNumber)) {
+                DTOEmulatorStatus previous = statuses.remove(emulatorNumber);
+                if (previous != null && previous.isRunning()) {
+                    notifyStatusChange(previous, new DTOEmulatorStatus(emulatorNumber, false, -1));
+                }
+            }
+        }
+        invalidated.removeAll(coveredInvalidations);
+        lastSuccessfulPoll = System.currentTimeMillis();
+    }
+
+    private void notifyStatusChange(DTOEmulatorStatus previous, DTOEmulatorStatus current) {
+        logger.debug("Emulator status changed: {} -> {}", previous, current);
+        List<IEmulatorStatusListener> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(listeners);
+        }
+        for (IEmulatorStatusListener listener : snapshot) {
+            try {
+                listener.onEmulatorStatusChanged(previous, current);
+            } catch (Exception e) {
+                logger.error("Error notifying emulator status listener", e);
+            }
+        }
+    }
+}
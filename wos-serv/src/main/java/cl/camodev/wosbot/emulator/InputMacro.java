@@ -0,0 +1,145 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * A fixed sequence of taps, swipes, key events and waits compiled into shell
+ * commands that the device runs in one go.
+ * <p>
+ * Use it for navigation chains that do not need to look at the screen between
+ * steps; each step would otherwise cost a host-device round trip:
+ * <pre>
+ * emuManager.executeMacro(EMULATOR_NUMBER, InputMacro.builder()
+ *         .tapRandom(SIDE_MENU_AREA_START, SIDE_MENU_AREA_END).sleep(1000)
+ *         .tap(CITY_TAB_BUTTON).sleep(500)
+ *         .swipe(SCROLL_START_POINT, SCROLL_END_POINT).sleep(1300)
+ *         .build());
+ * </pre>
+ * Random tap positions are resolved when the step is added, so a built macro
+ * always replays the same coordinates.
+ */
+public class InputMacro {
+
+    private final List<String> commands;
+    private final long totalSleepMs;
+
+    private InputMacro(Builder builder) {
+        this.commands = Collections.unmodifiableList(new ArrayList<>(builder.commands));
+        this.totalSleepMs = builder.totalSleepMs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return Shell commands in execution order
+     */
+    public List<String> getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return Sum of all waits in the macro, in milliseconds
+     */
+    public long getTotalSleepMs() {
+        return totalSleepMs;
+    }
+
+    /**
+     * @return The whole macro as a single shell script line
+     */
+    public String toScript() {
+        return String.join("; ", commands);
+    }
+
+    @Override
+    public String toString() {
+        return "InputMacro [" + toScript() + "]";
+    }
+
+    public static class Builder {
+        private final List<String> commands = new ArrayList<>();
+        private final Random random = new Random();
+        private long totalSleepMs;
+
+        private Builder() {
+        }
+
+        public Builder tap(DTOPoint point) {
+            commands.add("input tap " + point.getX() + " " + point.getY());
+            return this;
+        }
+
+        /**
+         * Taps once at a random point within the rectangle defined by the two corners.
+         */
+        public Builder tapRandom(DTOPoint point1, DTOPoint point2) {
+            return tapRandom(point1, point2, 1, 0);
+        }
+
+        /**
+         * Taps several times at random points within the rectangle, waiting {@code delayMs} between taps.
+         */
+        public Builder tapRandom(DTOPoint point1, DTOPoint point2, int tapCount, int delayMs) {
+            int minX = Math.min(point1.getX(), point2.getX());
+            int maxX = Math.max(point1.getX(), point2.getX());
+            int minY = Math.min(point1.getY(), point2.getY());
+            int maxY = Math.max(point1.getY(), point2.getY());
+
+            for (int i = 0; i < tapCount; i++) {
+                if (i > 0) {
+                    sleep(delayMs);
+                }
+                tap(new DTOPoint(minX + random.nextInt(maxX - minX + 1), minY + random.nextInt(maxY - minY + 1)));
+            }
+            return this;
+        }
+
+        public Builder swipe(DTOPoint start, DTOPoint end) {
+            commands.add(String.format("input swipe %d %d %d %d", start.getX(), start.getY(), end.getX(), end.getY()));
+            return this;
+        }
+
+        public Builder swipe(DTOPoint start, DTOPoint end, int durationMs) {
+            commands.add(String.format("input swipe %d %d %d %d %d", start.getX(), start.getY(), end.getX(), end.getY(), durationMs));
+            return this;
+        }
+
+        /**
+         * Sends a key event, e.g. {@code KEYCODE_BACK}.
+         */
+        public Builder keyEvent(String keyCode) {
+            commands.add("input keyevent " + keyCode);
+            return this;
+        }
+
+        public Builder back() {
+            return keyEvent("KEYCODE_BACK");
+        }
+
+        /**
+         * Waits on the device before the next step.
+         */
+        public Builder sleep(long millis) {
+            if (millis > 0) {
+                commands.add(String.format(Locale.ROOT, "sleep %.3f", millis / 1000.0));
+                totalSleepMs += millis;
+            }
+            return this;
+        }
+
+        public InputMacro build() {
+            if (commands.isEmpty()) {
+                throw new IllegalStateException("Macro has no steps.");
+            }
+            return new InputMacro(this);
+        }
+    }
+}
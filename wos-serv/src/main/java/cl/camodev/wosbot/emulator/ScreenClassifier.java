@@ -0,0 +1,127 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cl.camodev.utiles.image.ScreenFingerprint;
+import cl.camodev.wosbot.console.enumerable.EnumScreen;
+
+/**
+ * Recognises the current screen by comparing its {@link ScreenFingerprint}
+ * with a table of fingerprints learned from screens that template searches
+ * have confirmed.
+ * <p>
+ * A screen is only reported when its nearest sample is close enough and
+ * clearly closer than the samples of any other learned screen; otherwise the result is
+ * {@link EnumScreen#UNKNOWN} and callers fall back to template searches, which
+ * in turn teach the classifier through {@link #learn}.
+ * <p>
+ * The centre and reconnect probes must also match the nearest sample on their
+ * own, so a recognised screen is one without a dialog or reconnect prompt over it.
+ */
+public class ScreenClassifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenClassifier.class);
+
+    // Samples kept per screen, most recent first
+    private static final int MAX_SAMPLES_PER_SCREEN = 8;
+
+    // Differing bits (out of ScreenFingerprint.MAX_DISTANCE) accepted for a match
+    private static final int MAX_MATCH_DISTANCE = 48;
+
+    // Differing bits accepted on each overlay probe alone (centre and reconnect band).
+    // Overlays only show there, so a popup, a dialog or the reconnect prompt over a
+    // learned screen must not be hidden by the other probes
+    private static final int MAX_OVERLAY_DISTANCE = 8;
+
+    // How much closer the best screen must be than the second best one
+    private static final int MIN_MARGIN = 24;
+
+    // A sample this close to an existing one adds nothing to the table
+    private static final int DUPLICATE_DISTANCE = 4;
+
+    private final Map<EnumScreen, Deque<ScreenFingerprint>> samples = new EnumMap<>(EnumScreen.class);
+    private final LongAdder recognised = new LongAdder();
+    private final LongAdder unrecognised = new LongAdder();
+
+    /**
+     * @return the recognised screen, or {@link EnumScreen#UNKNOWN} when confidence is low
+     */
+    public synchronized EnumScreen classify(ScreenFingerprint fingerprint) {
+        EnumScreen best = EnumScreen.UNKNOWN;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestOverlayDistance = Integer.MAX_VALUE;
+        int secondDistance = Integer.MAX_VALUE;
+
+        for (Map.Entry<EnumScreen, Deque<ScreenFingerprint>> entry : samples.entrySet()) {
+            int distance = Integer.MAX_VALUE;
+            int overlayDistance = Integer.MAX_VALUE;
+            for (ScreenFingerprint sample : entry.getValue()) {
+                int sampleDistance = sample.distance(fingerprint);
+                if (sampleDistance < distance) {
+                    distance = sampleDistance;
+                    overlayDistance = Math.max(sample.probeDistance(fingerprint, ScreenFingerprint.CENTRE_PROBE),
+                            sample.probeDistance(fingerprint, ScreenFingerprint.RECONNECT_PROBE));
+                }
+            }
+            if (distance < bestDistance) {
+                secondDistance = bestDistance;
+                bestDistance = distance;
+                bestOverlayDistance = overlayDistance;
+                best = entry.getKey();
+            } else if (distance < secondDistance) {
+                secondDistance = distance;
+            }
+        }
+
+        // With a single learned screen there is nothing to tell it apart from
+        if (secondDistance == Integer.MAX_VALUE || bestDistance > MAX_MATCH_DISTANCE
+                || bestOverlayDistance > MAX_OVERLAY_DISTANCE || secondDistance - bestDistance < MIN_MARGIN) {
+            unrecognised.increment();
+            return EnumScreen.UNKNOWN;
+        }
+        recognised.increment();
+        return best;
+    }
+
+    /**
+     * Adds a fingerprint of a screen confirmed by other means.
+     */
+    public synchronized void learn(EnumScreen screen, ScreenFingerprint fingerprint) {
+        if (screen == EnumScreen.UNKNOWN) {
+            return;
+        }
+        Deque<ScreenFingerprint> screenSamples = samples.computeIfAbsent(screen, s -> new ArrayDeque<>());
+        for (ScreenFingerprint sample : screenSamples) {
+            if (sample.distance(fingerprint) <= DUPLICATE_DISTANCE) {
+                return;
+            }
+        }
+        screenSamples.addFirst(fingerprint);
+        if (screenSamples.size() > MAX_SAMPLES_PER_SCREEN) {
+            screenSamples.removeLast();
+        }
+        logger.debug("Learned fingerprint for screen {} ({} samples)", screen, screenSamples.size());
+    }
+
+    /**
+     * Forgets every learned sample, e.g. after a game update changed the UI.
+     */
+    public synchronized void clear() {
+        samples.clear();
+    }
+
+    public long getRecognisedCount() {
+        return recognised.sum();
+    }
+
+    public long getUnrecognisedCount() {
+        return unrecognised.sum();
+    }
+}
@@ -0,0 +1,400 @@
+package cl.camodev.wosbot.emulator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import cl.camodev.utiles.ImageSearchUtil;
+import cl.camodev.utiles.UtilOCR;
+import cl.camodev.utiles.image.ColorAnalyzer;
+import cl.camodev.utiles.image.ColorCounts;
+import cl.camodev.utiles.image.RawFrame;
+import cl.camodev.utiles.image.ScreenFingerprint;
+import cl.camodev.wosbot.console.enumerable.EnumScreen;
+import cl.camodev.wosbot.console.enumerable.EnumTemplates;
+import cl.camodev.wosbot.console.enumerable.GameVersion;
+import cl.camodev.wosbot.console.enumerable.TemplateSearchDefaults;
+import cl.camodev.wosbot.ot.DTOArea;
+import cl.camodev.wosbot.ot.DTOImageSearchResult;
+import cl.camodev.wosbot.ot.DTOOcrRegion;
+import cl.camodev.wosbot.ot.DTOPoint;
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+import net.sourceforge.tess4j.TesseractException;
+
+/**
+ * A single captured frame of an emulator screen that any number of template
+ * searches, OCR reads and colour checks can be evaluated against.
+ * <p>
+ * Obtain one with {@link EmulatorManager#captureSnapshot(String)} and close it
+ * once all checks are done:
+ * <pre>
+ * try (ScreenSnapshot snapshot = emuManager.captureSnapshot(EMULATOR_NUMBER)) {
+ *     DTOImageSearchResult home = snapshot.searchTemplate(EnumTemplates.GAME_HOME_FURNACE, 90);
+ *     DTOImageSearchResult world = snapshot.searchTemplate(EnumTemplates.GAME_HOME_WORLD, 90);
+ * }
+ * </pre>
+ * The snapshot never refreshes itself: it always describes the screen at
+ * {@link #getCaptureTimeMillis()}.
+ */
+public class ScreenSnapshot implements AutoCloseable {
+
+    private final EmulatorManager manager;
+    private final String emulatorNumber;
+    private final RawFrame frame;
+    // Holders of the frame: the caller that created it, plus the freshness window
+    // and every caller reading it while it is shared. The last one releases it.
+    private final AtomicInteger references = new AtomicInteger(1);
+    private ScreenFingerprint fingerprint;
+
+    ScreenSnapshot(EmulatorManager manager, String emulatorNumber, RawFrame frame) {
+        this.manager = manager;
+        this.emulatorNumber = emulatorNumber;
+        this.frame = frame;
+    }
+
+    public String getEmulatorNumber() {
+        return emulatorNumber;
+    }
+
+    public RawFrame getFrame() {
+        return frame;
+    }
+
+    public long getCaptureTimeMillis() {
+        return frame.getCaptureTimeMillis();
+    }
+
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - frame.getCaptureTimeMillis();
+    }
+
+    /**
+     * Returns the fingerprint of the snapshot, computing it on first use.
+     */
+    public synchronized ScreenFingerprint getFingerprint() {
+        if (fingerprint == null) {
+            fingerprint = ScreenFingerprint.of(frame);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Recognises the screen from its fingerprint, without any template search.
+     * @return The screen, or {@link EnumScreen#UNKNOWN} when the classifier is not confident
+     */
+    public EnumScreen classifyScreen() {
+        return manager.getScreenClassifier().classify(getFingerprint());
+    }
+
+    /**
+     * Teaches the classifier that this snapshot shows the given screen, once
+     * template searches have confirmed it.
+     */
+    public void learnScreen(EnumScreen screen) {
+        manager.getScreenClassifier().learn(screen, getFingerprint());
+    }
+
+    /**
+     * Searches for an image on the specified region of the snapshot.
+     */
+    public DTOImageSearchResult searchTemplate(EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
+        return searchTemplate(templatePath, topLeftCorner, bottomRightCorner, threshold, templatePath.getSearchDefaults().isPyramid());
+    }
+
+    /**
+     * Searches for an image on the specified region of the snapshot, overriding the pyramid mode of the template.
+     */
+    public DTOImageSearchResult searchTemplate(EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, boolean pyramid) {
+        String bestTemplatePath = manager.getBestTemplatePath(templatePath.getTemplate());
+        try {
+            ImageSearchUtil.setProfileName(manager.getProfileNameForEmulator(emulatorNumber));
+            return ImageSearchUtil.searchTemplate(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, pyramid);
+        } finally {
+            ImageSearchUtil.clearProfileName();
+        }
+    }
+
+    /**
+     * Searches for an image on the default region of the template, or the entire snapshot if it has none.
+     */
+    public DTOImageSearchResult searchTemplate(EnumTemplates templatePath, double threshold) {
+        DTOArea area = templatePath.getSearchDefaults().getArea();
+        return searchTemplate(templatePath, area.topLeft(), area.bottomRight(), threshold);
+    }
+
+    /**
+     * Searches for an image on the default region of the template, overriding its pyramid mode.
+     */
+    public DTOImageSearchResult searchTemplate(EnumTemplates templatePath, double threshold, boolean pyramid) {
+        DTOArea area = templatePath.getSearchDefaults().getArea();
+        return searchTemplate(templatePath, area.topLeft(), area.bottomRight(), threshold, pyramid);
+    }
+
+    /**
+     * Searches for an image using the default region, matching mode and threshold of the template.
+     */
+    public DTOImageSearchResult searchTemplate(EnumTemplates templatePath) {
+        TemplateSearchDefaults defaults = templatePath.getSearchDefaults();
+        DTOArea area = defaults.getArea();
+        if (defaults.isGrayscale()) {
+            return searchTemplateGrayscale(templatePath, area.topLeft(), area.bottomRight(), defaults.getThreshold());
+        }
+        return searchTemplate(templatePath, area.topLeft(), area.bottomRight(), defaults.getThreshold());
+    }
+
+    /**
+     * Searches for an image on the specified region of the snapshot using grayscale matching.
+     */
+    public DTOImageSearchResult searchTemplateGrayscale(EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
+        return searchTemplateGrayscale(templatePath, topLeftCorner, bottomRightCorner, threshold, templatePath.getSearchDefaults().isPyramid());
+    }
+
+    /**
+     * Searches for an image on the specified region of the snapshot using grayscale matching, overriding the pyramid mode of the template.
+     */
+    public DTOImageSearchResult searchTemplateGrayscale(EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, boolean pyramid) {
+        String bestTemplatePath = manager.getBestTemplatePath(templatePath.getTemplate());
+        try {
+            ImageSearchUtil.setProfileName(manager.getProfileNameForEmulator(emulatorNumber));
+            return ImageSearchUtil.searchTemplateGrayscale(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, pyramid);
+        } finally {
+            ImageSearchUtil.clearProfileName();
+        }
+    }
+
+    /**
+     * Searches for an image on the default region of the template using grayscale matching.
+     */
+    public DTOImageSearchResult searchTemplateGrayscale(EnumTemplates templatePath, double threshold) {
+        DTOArea area = templatePath.getSearchDefaults().getArea();
+        return searchTemplateGrayscale(templatePath, area.topLeft(), area.bottomRight(), threshold);
+    }
+
+    /**
+     * Searches for multiple instances of an image on the specified region of the snapshot.
+     */
+    public List<DTOImageSearchResult> searchTemplates(EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, int maxResults) {
+        String bestTemplatePath = manager.getBestTemplatePath(templatePath.getTemplate());
+        try {
+            ImageSearchUtil.setProfileName(manager.getProfileNameForEmulator(emulatorNumber));
+            return ImageSearchUtil.searchTemplateMultiple(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults,
+                    templatePath.getSearchDefaults().getNmsRadius());
+        } finally {
+            ImageSearchUtil.clearProfileName();
+        }
+    }
+
+    /**
+     * Searches for multiple instances of an image on the default region of the template.
+     */
+    public List<DTOImageSearchResult> searchTemplates(EnumTemplates templatePath, double threshold, int maxResults) {
+        DTOArea area = templatePath.getSearchDefaults().getArea();
+        return searchTemplates(templatePath, area.topLeft(), area.bottomRight(), threshold, maxResults);
+    }
+
+    /**
+     * Searches for multiple instances of an image using the default region, matching mode and threshold of the template.
+     */
+    public List<DTOImageSearchResult> searchTemplates(EnumTemplates templatePath, int maxResults) {
+        TemplateSearchDefaults defaults = templatePath.getSearchDefaults();
+        DTOArea area = defaults.getArea();
+        if (defaults.isGrayscale()) {
+            return searchTemplatesGrayscale(templatePath, area.topLeft(), area.bottomRight(), defaults.getThreshold(), maxResults);
+        }
+        return searchTemplates(templatePath, area.topLeft(), area.bottomRight(), defaults.getThreshold(), maxResults);
+    }
+
+    /**
+     * Searches for multiple instances of an image on the specified region of the snapshot using grayscale matching.
+     */
+    public List<DTOImageSearchResult> searchTemplatesGrayscale(EnumTemplates templatePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, int maxResults) {
+        String bestTemplatePath = manager.getBestTemplatePath(templatePath.getTemplate());
+        try {
+            ImageSearchUtil.setProfileName(manager.getProfileNameForEmulator(emulatorNumber));
+            return ImageSearchUtil.searchTemplateGrayscaleMultiple(frame, bestTemplatePath, topLeftCorner, bottomRightCorner, threshold, maxResults,
+                    templatePath.getSearchDefaults().getNmsRadius());
+        } finally {
+            ImageSearchUtil.clearProfileName();
+        }
+    }
+
+    /**
+     * Searches for multiple instances of an image on the default region of the template using grayscale matching.
+     */
+    public List<DTOImageSearchResult> searchTemplatesGrayscale(EnumTemplates templatePath, double threshold, int maxResults) {
+        DTOArea area = templatePath.getSearchDefaults().getArea();
+        return searchTemplatesGrayscale(templatePath, area.topLeft(), area.bottomRight(), threshold, maxResults);
+    }
+
+    /**
+     * Searches several templates on the specified region of the snapshot in one pass,
+     * matching them in parallel with the matching mode and suppression radius of each template.
+     * @return Results per template, in the iteration order of {@code templates}
+     */
+    public Map<EnumTemplates, List<DTOImageSearchResult>> searchAnyOf(Collection<EnumTemplates> templates, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold, int maxResults) {
+        return searchAnyOf(templates, template -> new DTOArea(topLeftCorner, bottomRightCorner), threshold, maxResults);
+    }
+
+    /**
+     * Searches several templates in one pass, matching each of them in parallel on its own
+     * default region with its own matching mode and suppression radius.
+     * @return Results per template, in the iteration order of {@code templates}
+     */
+    public Map<EnumTemplates, List<DTOImageSearchResult>> searchAnyOf(Collection<EnumTemplates> templates, double threshold, int maxResults) {
+        return searchAnyOf(templates, template -> template.getSearchDefaults().getArea(), threshold, maxResults);
+    }
+
+    private Map<EnumTemplates, List<DTOImageSearchResult>> searchAnyOf(Collection<EnumTemplates> templates, Function<EnumTemplates, DTOArea> areaOf, double threshold, int maxResults) {
+        // Keyed by template rather than by file: aliases sharing a file still get their own entry
+        Map<EnumTemplates, ImageSearchUtil.TemplateQuery> queries = new LinkedHashMap<>();
+        for (EnumTemplates template : templates) {
+            TemplateSearchDefaults defaults = template.getSearchDefaults();
+            DTOArea area = areaOf.apply(template);
+            queries.put(template, new ImageSearchUtil.TemplateQuery(manager.getBestTemplatePath(template.getTemplate()),
+                    area.topLeft(), area.bottomRight(), defaults.isGrayscale(), defaults.getNmsRadius(), defaults.isPyramid()));
+        }
+
+        List<List<DTOImageSearchResult>> found;
+        try {
+            ImageSearchUtil.setProfileName(manager.getProfileNameForEmulator(emulatorNumber));
+            found = ImageSearchUtil.searchTemplatesParallel(frame, new ArrayList<>(queries.values()), threshold, maxResults);
+        } finally {
+            ImageSearchUtil.clearProfileName();
+        }
+
+        Map<EnumTemplates, List<DTOImageSearchResult>> results = new LinkedHashMap<>();
+        int index = 0;
+        for (EnumTemplates template : queries.keySet()) {
+            results.put(template, found.get(index++));
+        }
+        return results;
+    }
+
+    /**
+     * Searches several templates on the specified region of the snapshot and keeps the
+     * single highest scoring match.
+     * @return The best template and its match, or null if none of them was found
+     */
+    public Map.Entry<EnumTemplates, DTOImageSearchResult> searchBestOf(Collection<EnumTemplates> templates, DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double threshold) {
+        Map.Entry<EnumTemplates, DTOImageSearchResult> best = null;
+        for (Map.Entry<EnumTemplates, List<DTOImageSearchResult>> entry : searchAnyOf(templates, topLeftCorner, bottomRightCorner, threshold, 1).entrySet()) {
+            for (DTOImageSearchResult result : entry.getValue()) {
+                if (result.isFound() && (best == null || result.getMatchPercentage() > best.getValue().getMatchPercentage())) {
+                    best = Map.entry(entry.getKey(), result);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Hashes the pixels of a region of the snapshot, to detect whether it changed between captures.
+     */
+    public long regionHash(DTOPoint p1, DTOPoint p2) {
+        return frame.regionHash(Math.min(p1.getX(), p2.getX()), Math.min(p1.getY(), p2.getY()),
+                Math.abs(p1.getX() - p2.getX()), Math.abs(p1.getY() - p2.getY()));
+    }
+
+    /**
+     * Executes OCR on a region of the snapshot.
+     */
+    public String ocrRegionText(DTOPoint p1, DTOPoint p2) throws TesseractException {
+        String language = (EmulatorManager.GAME == GameVersion.CHINA) ? "eng+chi_sim" : "eng";
+        return UtilOCR.ocrFromRegion(frame, p1, p2, language);
+    }
+
+    /**
+     * Executes OCR on several regions of the snapshot in parallel.
+     * @return Recognized text by region name, null for the regions that could not be read
+     */
+    public Map<String, String> ocrRegionsText(List<DTOOcrRegion> regions) {
+        String language = (EmulatorManager.GAME == GameVersion.CHINA) ? "eng+chi_sim" : "eng";
+        return UtilOCR.ocrFromRegions(frame, regions, language);
+    }
+
+    /**
+     * Reads a counter or timer made of {@code allowedChars} (digits, '/', ':', '.' and ',')
+     * from a region of the snapshot, using the learned glyphs before falling back to Tesseract.
+     */
+    public String ocrDigitsText(DTOPoint p1, DTOPoint p2, String allowedChars) throws TesseractException {
+        String language = (EmulatorManager.GAME == GameVersion.CHINA) ? "eng+chi_sim" : "eng";
+        return UtilOCR.ocrDigitsFromRegion(frame, p1, p2, language, allowedChars);
+    }
+
+    /**
+     * Reads a counter or timer from a region of the snapshot, using the learned glyphs
+     * before falling back to Tesseract with the given settings. The settings whitelist
+     * gives the characters the region may hold.
+     */
+    public String ocrDigitsText(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws TesseractException {
+        return UtilOCR.ocrDigitsFromRegion(frame, p1, p2, settings);
+    }
+
+    /**
+     * Executes OCR on a region of the snapshot with custom Tesseract settings.
+     */
+    public String ocrRegionText(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws TesseractException {
+        return UtilOCR.ocrFromRegion(frame, p1, p2, settings);
+    }
+
+    /**
+     * Counts the pixels of a region of the snapshot that belong to each colour class of the analyzer.
+     * @param area Region to analyze, both corners included
+     * @param stepSize Step size for scanning (e.g., 2 to check every other pixel)
+     */
+    public ColorCounts analyzeColors(ColorAnalyzer analyzer, DTOArea area, int stepSize) {
+        return analyzer.analyze(frame, area, stepSize);
+    }
+
+    /**
+     * Counts the pixels of several regions of the snapshot that belong to each colour class of the analyzer.
+     * @return One result per region, in the same order
+     */
+    public List<ColorCounts> analyzeColors(ColorAnalyzer analyzer, List<DTOArea> areas, int stepSize) {
+        return analyzer.analyze(frame, areas, stepSize);
+    }
+
+    /**
+     * Drops the caller's reference to the snapshot. The native memory of the frame
+     * is released once no caller and no freshness window holds it anymore. Call it
+     * once per snapshot obtained.
+     */
+    @Override
+    public void close() {
+        releaseReference();
+    }
+
+    /**
+     * Adds a reference for a new reader of a shared snapshot.
+     *
+     * @return false if the frame was already released, in which case the snapshot must not be used
+     */
+    boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count <= 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * Drops the reference of the freshness window, when the manager replaces or
+     * invalidates a shared snapshot. Readers still holding it keep the frame alive.
+     */
+    void discard() {
+        releaseReference();
+    }
+
+    private void releaseReference() {
+        if (references.decrementAndGet() == 0) {
+            frame.release();
+        }
+    }
+}
@@ -4,8 +4,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import cl.camodev.wosbot.emulator.Emulator;
+import cl.camodev.wosbot.ot.DTOEmulatorStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,7 +43,7 @@ public class LDPlayerEmulator extends Emulator {
     }
 
     @Override
-    public boolean isRunning(String emulatorNumber) {
+    protected boolean queryRunning(String emulatorNumber) {
         try {
             String[] command = { consolePath + File.separator + "ldconsole.exe", "isrunning", "--index", emulatorNumber };
             ProcessBuilder pb = new ProcessBuilder(command);
@@ -58,6 +62,27 @@ public class LDPlayerEmulator extends Emulator {
         return false;
     }
 
+    @Override
+    protected Map<String, DTOEmulatorStatus> queryInstanceStatuses() throws IOException {
+        // list2 columns: index,title,top_hwnd,bind_hwnd,android_started,pid,pid_of_vbox
+        List<String> lines = runConsoleCommand(consolePath + File.separator + "ldconsole.exe", "list2");
+        Map<String, DTOEmulatorStatus> statuses = new HashMap<>();
+        for (String line : lines) {
+            String[] columns = line.trim().split(",");
+            if (columns.length < 6) {
+                continue;
+            }
+            try {
+                String index = String.valueOf(Integer.parseInt(columns[0].trim()));
+                long pid = Long.parseLong(columns[5].trim());
+                statuses.put(index, new DTOEmulatorStatus(index, pid > 0, pid > 0 ? pid : -1));
+            } catch (NumberFormatException e) {
+                logger.debug("Skipping unexpected ldconsole list2 line: {}", line);
+            }
+        }
+        return statuses;
+    }
+
     private void executeCommand(String[] command) {
         try {
             ProcessBuilder pb = new ProcessBuilder(command);
@@ -4,8 +4,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import cl.camodev.wosbot.emulator.Emulator;
+import cl.camodev.wosbot.ot.DTOEmulatorStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,7 +42,7 @@ public class MEmuEmulator extends Emulator {
 	}
 
 	@Override
-	public boolean isRunning(String emulatorNumber) {
+	protected boolean queryRunning(String emulatorNumber) {
 		try {
 			String[] command = { consolePath + File.separator + "memuc", "isvmrunning", "-i", emulatorNumber };
 			ProcessBuilder pb = new ProcessBuilder(command);
@@ -61,6 +65,27 @@ public class MEmuEmulator extends Emulator {
 		return false;
 	}
 
+	@Override
+	protected Map<String, DTOEmulatorStatus> queryInstanceStatuses() throws IOException {
+		// listvms columns: index,title,window handle,addition state,pid
+		List<String> lines = runConsoleCommand(consolePath + File.separator + "memuc", "listvms");
+		Map<String, DTOEmulatorStatus> statuses = new HashMap<>();
+		for (String line : lines) {
+			String[] columns = line.trim().split(",");
+			if (columns.length < 5) {
+				continue;
+			}
+			try {
+				String index = String.valueOf(Integer.parseInt(columns[0].trim()));
+				long pid = Long.parseLong(columns[4].trim());
+				statuses.put(index, new DTOEmulatorStatus(index, pid > 0, pid > 0 ? pid : -1));
+			} catch (NumberFormatException e) {
+				logger.debug("Skipping unexpected memuc listvms line: {}", line);
+			}
+		}
+		return statuses;
+	}
+
 	private void executeCommand(String[] command) {
 		try {
 			ProcessBuilder pb = new ProcessBuilder(command);
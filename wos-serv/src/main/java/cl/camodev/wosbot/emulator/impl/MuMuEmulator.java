@@ -4,13 +4,23 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import cl.camodev.wosbot.emulator.Emulator;
+import cl.camodev.wosbot.ot.DTOEmulatorStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class MuMuEmulator extends Emulator {
 	private static final Logger logger = LoggerFactory.getLogger(MuMuEmulator.class);
+	private static final Pattern INSTANCE_OBJECT = Pattern.compile("\\{[^{}]*\"index\"[^{}]*\\}");
+	private static final Pattern INDEX_FIELD = Pattern.compile("\"index\"\\s*:\\s*\"?(\\d+)\"?");
+	private static final Pattern ANDROID_STARTED_FIELD = Pattern.compile("\"is_android_started\"\\s*:\\s*(true|false)");
+	private static final Pattern PID_FIELD = Pattern.compile("\"pid\"\\s*:\\s*(\\d+)");
 
 	public MuMuEmulator(String consolePath) {
 		super(consolePath);
@@ -38,7 +48,7 @@ public class MuMuEmulator extends Emulator {
 	}
 
 	@Override
-	public boolean isRunning(String emulatorNumber) {
+	protected boolean queryRunning(String emulatorNumber) {
 		try {
 			String[] command = { consolePath + File.separator + "MuMuManager.exe", "api", "-v", emulatorNumber, "player_state" };
 			ProcessBuilder pb = new ProcessBuilder(command);
@@ -61,6 +71,30 @@ public class MuMuEmulator extends Emulator {
 		return false;
 	}
 
+	@Override
+	protected Map<String, DTOEmulatorStatus> queryInstanceStatuses() throws IOException {
+		// "info -v all" prints one flat JSON object per instance (wrapped in an outer object when there are several)
+		List<String> lines = runConsoleCommand(consolePath + File.separator + "MuMuManager.exe", "info", "-v", "all");
+		Map<String, DTOEmulatorStatus> statuses = new HashMap<>();
+		Matcher instance = INSTANCE_OBJECT.matcher(String.join("", lines));
+		while (instance.find()) {
+			String json = instance.group();
+			Matcher index = INDEX_FIELD.matcher(json);
+			if (!index.find()) {
+				continue;
+			}
+			Matcher started = ANDROID_STARTED_FIELD.matcher(json);
+			Matcher pid = PID_FIELD.matcher(json);
+			boolean running = started.find() && Boolean.parseBoolean(started.group(1));
+			long processId = running && pid.find() ? Long.parseLong(pid.group(1)) : -1;
+			statuses.put(index.group(1), new DTOEmulatorStatus(index.group(1), running, processId));
+		}
+		if (statuses.isEmpty() && !lines.isEmpty()) {
+			throw new IOException("Unexpected MuMuManager info output");
+		}
+		return statuses;
+	}
+
 	private void executeCommand(String[] command) {
 		try {
 			ProcessBuilder pb = new ProcessBuilder(command);
@@ -0,0 +1,21 @@
+package cl.camodev.wosbot.ex;
+
+/**
+ * Input commands were written to the device shell but their completion could not be
+ * confirmed. Part of them may already have run on the device, so the action must not
+ * be replayed.
+ */
+public class InputNotAcknowledgedException extends ADBConnectionException {
+    /**
+     *
+     */
+    private static final long serialVersionUID = 1L;
+
+    public InputNotAcknowledgedException(String message) {
+        super(message);
+    }
+
+    public InputNotAcknowledgedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
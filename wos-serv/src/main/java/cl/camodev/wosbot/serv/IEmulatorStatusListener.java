@@ -0,0 +1,17 @@
+package cl.camodev.wosbot.serv;
+
+import cl.camodev.wosbot.ot.DTOEmulatorStatus;
+
+/**
+ * Interface for listening to emulator instance status changes.
+ */
+public interface IEmulatorStatusListener {
+
+    /**
+     * Called when an emulator instance starts, stops or changes process.
+     *
+     * @param previous the last known status, or null if the instance was not known yet
+     * @param current the new status
+     */
+    void onEmulatorStatusChanged(DTOEmulatorStatus previous, DTOEmulatorStatus current);
+}
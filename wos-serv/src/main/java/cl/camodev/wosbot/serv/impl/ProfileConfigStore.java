@@ -0,0 +1,123 @@
+package cl.camodev.wosbot.serv.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cl.camodev.wosbot.almac.repo.IProfileRepository;
+import cl.camodev.wosbot.almac.repo.ProfileRepository;
+import cl.camodev.wosbot.ot.DTOProfiles;
+import cl.camodev.wosbot.serv.IProfileDataChangeListener;
+
+/**
+ * Singleton in-memory store of profiles with their configurations.
+ * <p>
+ * Tasks read their profile from here before every execution instead of querying
+ * the database. A profile is loaded once and served from memory until
+ * {@link ServProfiles} reports that it was added, saved or deleted; every such
+ * change bumps a version counter and drops the cached entry, so the next read
+ * loads the edited configuration.
+ * <p>
+ * Every read returns its own copy of the cached profile, so a task that adjusts
+ * its configuration in memory does not leak the change to the other tasks.
+ * Persistent changes go through {@link ServProfiles}, which invalidates the store.
+ */
+public class ProfileConfigStore implements IProfileDataChangeListener {
+
+    private static ProfileConfigStore instance;
+
+    private final IProfileRepository profileRepository;
+
+    // Cached profiles by profile ID, each tagged with the version it was loaded at
+    private final ConcurrentHashMap<Long, Entry> profiles = new ConcurrentHashMap<>();
+
+    // Incremented on every invalidation
+    private final AtomicLong version = new AtomicLong();
+
+    private ProfileConfigStore() {
+        this.profileRepository = ProfileRepository.getRepository();
+    }
+
+    public static synchronized ProfileConfigStore getServices() {
+        if (instance == null) {
+            instance = new ProfileConfigStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a copy of the profile with its configurations, loading it from the
+     * database only if it is not cached or was changed since it was loaded. Use
+     * {@link #getVersion} to tell whether the configuration changed.
+     *
+     * @return the profile, or null if it does not exist
+     */
+    public DTOProfiles getProfile(Long profileId) {
+        if (profileId == null) {
+            return null;
+        }
+        Entry cached = profiles.get(profileId);
+        if (cached != null) {
+            return cached.profile.copy();
+        }
+
+        long loadVersion = version.get();
+        DTOProfiles loaded = profileRepository.getProfileWithConfigsById(profileId);
+        if (loaded == null) {
+            return null;
+        }
+        // Parse the configurations once per version instead of on the first lookup of every task
+        loaded.getConfigSnapshot();
+        // Do not cache a profile that was invalidated while it was being loaded
+        Entry stored = profiles.compute(profileId, (id, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return version.get() == loadVersion ? new Entry(loadVersion, loaded) : null;
+        });
+        return stored != null ? stored.profile.copy() : loaded;
+    }
+
+    /**
+     * @return the version the cached profile was loaded at, or -1 if it is not cached.
+     *         A different value than a previous call means the configuration changed.
+     */
+    public long getVersion(Long profileId) {
+        Entry cached = profileId != null ? profiles.get(profileId) : null;
+        return cached != null ? cached.version : -1;
+    }
+
+    /**
+     * Drops the cached copy of a profile.
+     */
+    public void invalidate(Long profileId) {
+        version.incrementAndGet();
+        profiles.remove(profileId);
+    }
+
+    /**
+     * Drops every cached profile.
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        profiles.clear();
+    }
+
+    @Override
+    public void onProfileDataChanged(DTOProfiles profile) {
+        if (profile == null || profile.getId() == null) {
+            invalidateAll();
+        } else {
+            invalidate(profile.getId());
+        }
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final DTOProfiles profile;
+
+        private Entry(long version, DTOProfiles profile) {
+            this.version = version;
+            this.profile = profile;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cl.camodev.wosbot.serv.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import cl.camodev.utiles.ImageSearchUtil;
+import cl.camodev.utiles.metrics.HotPathMetrics;
+import cl.camodev.utiles.metrics.LatencyRecorder;
+import cl.camodev.utiles.metrics.TemplateSearchStats;
+import cl.camodev.utiles.ocr.OcrResultCache;
+import cl.camodev.utiles.ocr.TesseractPool;
+
+/**
+ * Gives the HMI access to the hot path metrics recorded by the bot.
+ */
+public class ServMetrics {
+
+	private static final Path METRICS_FOLDER = Paths.get("log");
+	private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+	private static ServMetrics instance;
+
+	private ServMetrics() {
+
+	}
+
+	public static ServMetrics getServices() {
+		if (instance == null) {
+			instance = new ServMetrics();
+		}
+		return instance;
+	}
+
+	public Map<String, LatencyRecorder.Snapshot> getLatencies() {
+		return HotPathMetrics.getLatencies();
+	}
+
+	public List<TemplateSearchStats.Snapshot> getTemplateStats() {
+		return HotPathMetrics.getTemplateStats();
+	}
+
+	/**
+	 * @return the metrics report followed by the template cache, OCR engine and OCR cache statistics
+	 */
+	public String getReport() {
+		return HotPathMetrics.report() + System.lineSeparator() + ImageSearchUtil.getCacheStats() + System.lineSeparator()
+				+ TesseractPool.getStats() + System.lineSeparator() + OcrResultCache.getStats() + System.lineSeparator();
+	}
+
+	/**
+	 * Writes the current report to a new timestamped file in the logs folder.
+	 * @return Path of the written file
+	 */
+	public Path dumpToFile() throws IOException {
+		Files.createDirectories(METRICS_FOLDER);
+		Path file = METRICS_FOLDER.resolve("metrics-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".txt");
+		Files.writeString(file, getReport(), StandardCharsets.UTF_8);
+		return file;
+	}
+
+	public void reset() {
+		HotPathMetrics.reset();
+	}
+}
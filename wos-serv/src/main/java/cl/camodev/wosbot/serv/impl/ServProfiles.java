@@ -13,6 +13,7 @@ import cl.camodev.wosbot.almac.repo.IProfileRepository;
 import cl.camodev.wosbot.almac.repo.ProfileRepository;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 import cl.camodev.wosbot.console.enumerable.TpConfigEnum;
+import cl.camodev.wosbot.ot.DTOConfig;
 import cl.camodev.wosbot.ot.DTOProfileStatus;
 import cl.camodev.wosbot.ot.DTOProfiles;
 import cl.camodev.wosbot.serv.IProfileDataChangeListener;
@@ -189,12 +190,15 @@ public class ServProfiles implements IServProfile {
 
 			for (DTOProfiles profile : allProfiles) {
 				try {
-					// Copy all configurations from template profile
-					profile.getConfigs().clear();
-					profile.getConfigs().addAll(templateProfile.getConfigs());
+					// Copy all configurations from template profile into a new DTO of this profile
+					DTOProfiles updatedProfile = new DTOProfiles(profile.getId(), profile.getName(), profile.getEmulatorNumber(),
+							profile.getEnabled(), profile.getPriority(), profile.getReconnectionTime());
+					updatedProfile.setConfigs(templateProfile.getConfigs().stream()
+							.map(config -> new DTOConfig(profile.getId(), config.getConfigurationName(), config.getValue()))
+							.collect(Collectors.toList()));
 					
 					// Save the updated profile
-					boolean saved = saveProfile(profile);
+					boolean saved = saveProfile(updatedProfile);
 					if (!saved) {
 						allSuccessful = false;
 						logger.warn("Failed to save profile: {}", profile.getName());
@@ -238,6 +242,8 @@ public class ServProfiles implements IServProfile {
 	}
 
 	private void notifyProfileDataChange(DTOProfiles profile) {
+		// Drop cached configurations before anyone reacts to the change
+		ProfileConfigStore.getServices().onProfileDataChanged(profile);
 		if (dataChangeListeners != null) {
 			for (IProfileDataChangeListener listener : dataChangeListeners) {
 				listener.onProfileDataChanged(profile);
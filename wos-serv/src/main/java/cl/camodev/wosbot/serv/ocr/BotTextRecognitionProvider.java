@@ -1,10 +1,15 @@
 package cl.camodev.wosbot.serv.ocr;
 
+import cl.camodev.wosbot.ot.DTOOcrRegion;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
 import cl.camodev.wosbot.emulator.EmulatorManager;
+import cl.camodev.wosbot.emulator.ScreenSnapshot;
+import cl.camodev.utiles.ocr.OcrEngine;
 import cl.camodev.utiles.ocr.TextRecognitionProvider;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import net.sourceforge.tess4j.TesseractException;
 
 /**
@@ -40,4 +45,65 @@ public class BotTextRecognitionProvider implements TextRecognitionProvider {
         }
     }
 
+    /**
+     * Reads with the learned glyphs when the engine and the settings whitelist allow it,
+     * with Tesseract otherwise.
+     */
+    @Override
+    public String ocrRegion(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings, OcrEngine engine) throws IOException, TesseractException {
+        if (engine.usesGlyphs(settings)) {
+            return emulatorManager.ocrDigitsText(emulatorNumber, p1, p2, settings);
+        }
+        return ocrRegion(p1, p2, settings);
+    }
+
+    /**
+     * Hashes the region on the current capture of the emulator screen.
+     */
+    @Override
+    public Long regionSignature(DTOPoint p1, DTOPoint p2) throws IOException {
+        return emulatorManager.regionHash(emulatorNumber, p1, p2);
+    }
+
+    /**
+     * Reads and hashes the region on the same capture of the emulator screen.
+     */
+    @Override
+    public SignedText ocrRegionWithSignature(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException {
+        try (ScreenSnapshot snapshot = emulatorManager.obtainSnapshot(emulatorNumber)) {
+            String text = settings != null ? snapshot.ocrRegionText(p1, p2, settings) : snapshot.ocrRegionText(p1, p2);
+            return new SignedText(text, snapshot.regionHash(p1, p2));
+        }
+    }
+
+    /**
+     * Reads, with the learned glyphs when the engine and the settings whitelist allow it,
+     * and hashes the region on the same capture of the emulator screen.
+     */
+    @Override
+    public SignedText ocrRegionWithSignature(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings, OcrEngine engine) throws IOException, TesseractException {
+        if (!engine.usesGlyphs(settings)) {
+            return ocrRegionWithSignature(p1, p2, settings);
+        }
+        try (ScreenSnapshot snapshot = emulatorManager.obtainSnapshot(emulatorNumber)) {
+            return new SignedText(snapshot.ocrDigitsText(p1, p2, settings), snapshot.regionHash(p1, p2));
+        }
+    }
+
+    /**
+     * Region hashes come from the frame kept by the freshness window while it lasts.
+     */
+    @Override
+    public long signatureRefreshMillis() {
+        return emulatorManager.getFrameFreshnessWindow();
+    }
+
+    /**
+     * Reads every region from a single capture of the emulator screen.
+     */
+    @Override
+    public Map<String, String> ocrRegions(List<DTOOcrRegion> regions) throws IOException {
+        return emulatorManager.ocrRegionsText(emulatorNumber, regions);
+    }
+
 }
\ No newline at end of file
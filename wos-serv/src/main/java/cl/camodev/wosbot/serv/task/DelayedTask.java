@@ -1,29 +1,37 @@
 package cl.camodev.wosbot.serv.task;
 
 import cl.camodev.utiles.UtilTime;
+import cl.camodev.utiles.metrics.HotPathMetrics;
 import cl.camodev.utiles.number.NumberConverters;
 import cl.camodev.utiles.number.NumberValidators;
+import cl.camodev.utiles.ocr.OcrEngine;
 import cl.camodev.utiles.ocr.TextRecognitionRetrier;
+import cl.camodev.wosbot.console.enumerable.EnumScreen;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.EnumTpMessageSeverity;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.emulator.EmulatorManager;
+import cl.camodev.wosbot.emulator.InputMacro;
+import cl.camodev.wosbot.emulator.ScreenSnapshot;
 import cl.camodev.wosbot.ex.HomeNotFoundException;
 import cl.camodev.wosbot.ex.ProfileInReconnectStateException;
 import cl.camodev.wosbot.logging.ProfileLogger;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
+import cl.camodev.wosbot.ot.DTOOcrRegion;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOProfiles;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
+import cl.camodev.wosbot.serv.impl.ProfileConfigStore;
 import cl.camodev.wosbot.serv.impl.ServLogs;
 import cl.camodev.wosbot.serv.impl.ServScheduler;
 import cl.camodev.wosbot.serv.impl.StaminaService;
 import cl.camodev.wosbot.serv.ocr.BotTextRecognitionProvider;
 import cl.camodev.wosbot.serv.task.impl.InitializeTask;
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 
-import cl.camodev.wosbot.almac.repo.ProfileRepository;
 import net.sourceforge.tess4j.TesseractException;
 
 import java.io.IOException;
@@ -64,8 +72,9 @@ public abstract class DelayedTask implements Runnable, Delayed {
         this.tpTask = tpTask;
         this.logger = new ProfileLogger(this.getClass(), profile);
         this.provider = new BotTextRecognitionProvider(emuManager, EMULATOR_NUMBER);
-        this.integerHelper = new TextRecognitionRetrier<>(provider);
-        this.durationHelper = new TextRecognitionRetrier<>(provider);
+        // Numbers and timers go through the learned glyphs when their whitelist allows it
+        this.integerHelper = new TextRecognitionRetrier<>(provider, OcrEngine.GLYPHS);
+        this.durationHelper = new TextRecognitionRetrier<>(provider, OcrEngine.GLYPHS);
     }
 
     protected Object getDistinctKey() {
@@ -83,11 +92,20 @@ public abstract class DelayedTask implements Runnable, Delayed {
 
     @Override
     public void run() {
-        // Before executing, refresh the profile from the database to ensure current
-        // configurations
+        long start = System.nanoTime();
+        try {
+            runTask();
+        } finally {
+            HotPathMetrics.recordLatency(HotPathMetrics.TASK + ":" + taskName, start);
+        }
+    }
+
+    private void runTask() {
+        // Before executing, pick up the current configurations; the store only hits
+        // the database when the profile was edited since it was last loaded
         try {
             if (profile != null && profile.getId() != null) {
-                DTOProfiles updated = ProfileRepository.getRepository().getProfileWithConfigsById(profile.getId());
+                DTOProfiles updated = ProfileConfigStore.getServices().getProfile(profile.getId());
                 if (updated != null) {
                     this.profile = updated;
                 }
@@ -132,10 +150,41 @@ public abstract class DelayedTask implements Runnable, Delayed {
         logDebug("Verifying screen location. Required: " + requiredLocation);
 
         for (int attempt = 1; attempt <= 10; attempt++) {
-            DTOImageSearchResult home = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_FURNACE, 90);
-            DTOImageSearchResult world = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_WORLD, 90);
-            DTOImageSearchResult reconnect = emuManager.searchTemplate(EMULATOR_NUMBER,
-                    EnumTemplates.GAME_HOME_RECONNECT, 90);
+            DTOImageSearchResult home = null;
+            DTOImageSearchResult world = null;
+            DTOImageSearchResult reconnect = new DTOImageSearchResult(false, null, 0.0);
+            // Evaluate the location checks against a single capture
+            try (ScreenSnapshot snapshot = emuManager.captureSnapshot(EMULATOR_NUMBER)) {
+                // The fingerprint picks the one location template to confirm. A recognised screen
+                // has no reconnect prompt over it, so the reconnect search is skipped too
+                EnumScreen screen = snapshot.classifyScreen();
+                if (screen == EnumScreen.HOME) {
+                    home = snapshot.searchTemplate(EnumTemplates.GAME_HOME_FURNACE, 90);
+                } else if (screen == EnumScreen.WORLD) {
+                    world = snapshot.searchTemplate(EnumTemplates.GAME_HOME_WORLD, 90);
+                }
+
+                if ((home != null && home.isFound()) || (world != null && world.isFound())) {
+                    logDebug("Screen recognised from fingerprint as " + screen + " and confirmed.");
+                } else {
+                    reconnect = snapshot.searchTemplate(EnumTemplates.GAME_HOME_RECONNECT, 90);
+                    if (!reconnect.isFound()) {
+                        if (home == null) {
+                            home = snapshot.searchTemplate(EnumTemplates.GAME_HOME_FURNACE, 90);
+                        }
+                        if (world == null) {
+                            world = snapshot.searchTemplate(EnumTemplates.GAME_HOME_WORLD, 90);
+                        }
+                    }
+                    learnLocation(snapshot, home, world, reconnect);
+                }
+            }
+            if (home == null) {
+                home = new DTOImageSearchResult(false, null, 0.0);
+            }
+            if (world == null) {
+                world = new DTOImageSearchResult(false, null, 0.0);
+            }
 
             if (reconnect.isFound()) {
                 throw new ProfileInReconnectStateException(
@@ -187,6 +236,21 @@ public abstract class DelayedTask implements Runnable, Delayed {
         throw new HomeNotFoundException("Home not found after 10 attempts");
     }
 
+    /**
+     * Teaches the screen classifier what the home/world/reconnect checks found on a snapshot.
+     * Home and world are null when they were not searched.
+     */
+    protected void learnLocation(ScreenSnapshot snapshot, DTOImageSearchResult home, DTOImageSearchResult world,
+            DTOImageSearchResult reconnect) {
+        if (reconnect.isFound()) {
+            snapshot.learnScreen(EnumScreen.RECONNECT);
+        } else if (home != null && home.isFound() && (world == null || !world.isFound())) {
+            snapshot.learnScreen(EnumScreen.HOME);
+        } else if (world != null && world.isFound() && (home == null || !home.isFound())) {
+            snapshot.learnScreen(EnumScreen.WORLD);
+        }
+    }
+
     protected void ensureOnIntelScreen() {
         sleepTask(500);
         logInfo("Ensuring we are on the intel screen.");
@@ -240,15 +304,18 @@ public abstract class DelayedTask implements Runnable, Delayed {
     private boolean isIntelScreenActive() {
         // Make two attempts at detection
         for (int attempt = 0; attempt < 2; attempt++) {
-            // Try image recognition first (faster)
-            DTOImageSearchResult intelScreen1 = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.INTEL_SCREEN_1,
-                    90);
-            DTOImageSearchResult intelScreen2 = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.INTEL_SCREEN_2,
-                    90);
-
-            if (intelScreen1.isFound() || intelScreen2.isFound()) {
-                logDebug("Intel screen confirmed via image template (attempt " + (attempt + 1) + ")");
-                return true;
+            // Try image recognition first (faster than OCR). The fingerprint alone is not
+            // trusted here: the intel screen is always confirmed by one of its templates
+            try (ScreenSnapshot snapshot = emuManager.captureSnapshot(EMULATOR_NUMBER)) {
+                boolean found = snapshot.searchTemplate(EnumTemplates.INTEL_SCREEN_1, 90).isFound()
+                        || snapshot.searchTemplate(EnumTemplates.INTEL_SCREEN_2, 90).isFound();
+
+                if (found) {
+                    // Teach the classifier so that it keeps the intel screen apart from home and world
+                    snapshot.learnScreen(EnumScreen.INTEL);
+                    logDebug("Intel screen confirmed via image template (attempt " + (attempt + 1) + ")");
+                    return true;
+                }
             }
 
             // Fallback to OCR check
@@ -292,9 +359,10 @@ public abstract class DelayedTask implements Runnable, Delayed {
 
         try {
             // read stamina
-            String result = emuManager.ocrRegionText(EMULATOR_NUMBER, new DTOPoint(324, 255), new DTOPoint(477, 283),
+            String result = provider.ocrRegion(new DTOPoint(324, 255), new DTOPoint(477, 283),
                     DTOTesseractSettings.builder().setRemoveBackground(true).setTextColor(new Color(255, 255, 255))
-                            .build());
+                            .setAllowedChars("0123456789,./").build(),
+                    OcrEngine.GLYPHS);
             logDebug("Stamina OCR result: '" + result + "'");
             // parse stamina x,xxx/xxx or xxx/xxx or x.xxx/xxx
             Pattern pattern = Pattern.compile("([\\d,\\.]+)\\s*/\\s*([\\d,\\.]+)");
@@ -371,7 +439,8 @@ public abstract class DelayedTask implements Runnable, Delayed {
                 .build();
 
         try {
-            String timeStr = OCRWithRetries(new DTOPoint(521, 1141), new DTOPoint(608, 1162), 5, timeSettings);
+            String timeStr = OCRWithRetries(new DTOPoint(521, 1141), new DTOPoint(608, 1162), 5, timeSettings,
+                    OcrEngine.GLYPHS);
             if (timeStr != null && !timeStr.isEmpty()) {
                 travelTimeSeconds = UtilTime.parseTimeToSeconds(timeStr);
                 logInfo("Successfully parsed travel time: " + timeStr + " (" + travelTimeSeconds + "s)");
@@ -441,7 +510,7 @@ public abstract class DelayedTask implements Runnable, Delayed {
                 "Ti", 111,
                 "|", 121);
 
-        String ocr = settings != null ? OCRWithRetries(topLeft, bottomRight, 5, settings)
+        String ocr = settings != null ? OCRWithRetries(topLeft, bottomRight, 5, settings, OcrEngine.GLYPHS)
                 : OCRWithRetries(topLeft, bottomRight, 5);
 
         logDebug(ocr != null ? "OCR Result: '" + ocr + "'" : "OCR Result: null");
@@ -597,10 +666,20 @@ public abstract class DelayedTask implements Runnable, Delayed {
     }
 
     protected String OCRWithRetries(DTOPoint p1, DTOPoint p2, int maxRetries, DTOTesseractSettings settings) {
+        return OCRWithRetries(p1, p2, maxRetries, settings, OcrEngine.TESSERACT);
+    }
+
+    /**
+     * Reads a region with the given engine until a non-empty text is returned. Reads the
+     * engine cannot handle, such as glyph reads whose whitelist is outside the glyph
+     * alphabet, go to Tesseract.
+     */
+    protected String OCRWithRetries(DTOPoint p1, DTOPoint p2, int maxRetries, DTOTesseractSettings settings,
+            OcrEngine engine) {
         String result = null;
         for (int attempt = 0; attempt < maxRetries && (result == null || result.isEmpty()); attempt++) {
             try {
-                result = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2, settings);
+                result = provider.ocrRegion(p1, p2, settings, engine);
             } catch (IOException | TesseractException e) {
                 logWarning("OCR attempt " + attempt + " threw an exception: " + e.getMessage());
             }
@@ -610,6 +689,36 @@ public abstract class DelayedTask implements Runnable, Delayed {
         return result;
     }
 
+    /**
+     * Reads several regions from one capture per attempt. Attempts after the first one
+     * only read the regions that are still null or empty.
+     *
+     * @return Recognized text by region name, in the order of the regions
+     */
+    protected Map<String, String> OCRRegionsWithRetries(List<DTOOcrRegion> regions, int maxRetries) {
+        Map<String, String> results = new LinkedHashMap<>();
+        regions.forEach(region -> results.put(region.name(), null));
+        List<DTOOcrRegion> pending = regions;
+        for (int attempt = 0; attempt < maxRetries && !pending.isEmpty(); attempt++) {
+            try {
+                results.putAll(emuManager.ocrRegionsText(EMULATOR_NUMBER, pending));
+            } catch (IOException e) {
+                logWarning("OCR attempt " + attempt + " threw an exception: " + e.getMessage());
+            }
+            List<DTOOcrRegion> unread = new ArrayList<>();
+            for (DTOOcrRegion region : pending) {
+                String text = results.get(region.name());
+                if (text == null || text.isEmpty()) {
+                    unread.add(region);
+                }
+            }
+            pending = unread;
+            sleepTask(200);
+        }
+        logDebug("OCRRegionsWithRetries results: " + results);
+        return results;
+    }
+
     protected boolean checkMarchesAvailable() {
         // Open active marches panel
         emuManager.tapAtPoint(EMULATOR_NUMBER, new DTOPoint(2, 550));
@@ -870,6 +979,16 @@ public abstract class DelayedTask implements Runnable, Delayed {
         emuManager.executeSwipe(EMULATOR_NUMBER, start, end);
     }
 
+    /**
+     * Runs a fixed sequence of taps, swipes, key events and waits on the
+     * emulator in a single round trip.
+     *
+     * @param macro The macro to execute.
+     */
+    public void executeMacro(InputMacro macro) {
+        emuManager.executeMacro(EMULATOR_NUMBER, macro);
+    }
+
     /**
      * Taps the back button on the emulator.
      */
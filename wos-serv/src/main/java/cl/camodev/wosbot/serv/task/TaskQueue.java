@@ -3,9 +3,12 @@ package cl.camodev.wosbot.serv.task;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import cl.camodev.utiles.UtilTime;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
@@ -13,14 +16,17 @@ import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.EnumTpMessageSeverity;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.emulator.EmulatorManager;
+import cl.camodev.wosbot.emulator.EmulatorStatusService;
 import cl.camodev.wosbot.ex.ADBConnectionException;
 import cl.camodev.wosbot.ex.HomeNotFoundException;
 import cl.camodev.wosbot.ex.ProfileInReconnectStateException;
 import cl.camodev.wosbot.ex.StopExecutionException;
+import cl.camodev.wosbot.ot.DTOEmulatorStatus;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOProfileStatus;
 import cl.camodev.wosbot.ot.DTOProfiles;
 import cl.camodev.wosbot.ot.DTOTaskState;
+import cl.camodev.wosbot.serv.IEmulatorStatusListener;
 import cl.camodev.wosbot.serv.impl.ServLogs;
 import cl.camodev.wosbot.serv.impl.ServProfiles;
 import cl.camodev.wosbot.serv.impl.ServScheduler;
@@ -37,7 +43,8 @@ import org.slf4j.LoggerFactory;
 public class TaskQueue {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskQueue.class);
-    private static final long IDLE_WAIT_TIME = 999; // milliseconds to wait between task checking cycles
+    private static final long RETRY_WAIT_TIME = 1000; // milliseconds to wait before retrying a task that is still due
+    private static final long BACKGROUND_CHECK_INTERVAL = 60; // seconds between bear hunt / alliance help checks
 
     private final PriorityBlockingQueue<DelayedTask> taskQueue = new PriorityBlockingQueue<>();
     protected EmulatorManager emuManager = EmulatorManager.getInstance();
@@ -46,12 +53,20 @@ public class TaskQueue {
     private volatile boolean running = false;
     private volatile LocalDateTime paused = LocalDateTime.MIN;
     private volatile boolean needsReconnect = false;
+    private volatile boolean emulatorStopped = false;
 
     // Thread that will evaluate and execute tasks
     private Thread schedulerThread;
     private final DTOProfiles profile;
-    private int helpAlliesCount = 0;
-    private LocalDateTime delayUntil = LocalDateTime.MAX;
+    private LocalDateTime nextBackgroundCheck = LocalDateTime.now().plusSeconds(BACKGROUND_CHECK_INTERVAL);
+    private volatile LocalDateTime delayUntil = LocalDateTime.MAX;
+
+    // Wakes the scheduler thread when the queue or the pause state changes
+    private final ReentrantLock wakeLock = new ReentrantLock();
+    private final Condition wakeCondition = wakeLock.newCondition();
+    private boolean wakeRequested = false;
+    private volatile DTOProfileStatus lastStatus;
+    private final IEmulatorStatusListener emulatorStatusListener = this::onEmulatorStatusChanged;
 
     public TaskQueue(DTOProfiles profile) {
         this.profile = profile;
@@ -62,6 +77,7 @@ public class TaskQueue {
      */
     public void addTask(DelayedTask task) {
         taskQueue.offer(task);
+        wakeUp();
     }
 
     /**
@@ -82,6 +98,7 @@ public class TaskQueue {
         boolean removed = taskQueue.removeIf(task -> task.equals(prototype));
 
         if (removed) {
+            wakeUp();
             logInfoWithTask(prototype, "Removed task " + taskEnum.getName() + " from queue");
         } else {
             logInfo("Task " + taskEnum.getName() + " was not found in queue");
@@ -116,6 +133,7 @@ public class TaskQueue {
             return;
         }
         running = true;
+        EmulatorStatusService.getServices().addEmulatorStatusListener(emulatorStatusListener);
 
         schedulerThread = Thread.ofVirtual().unstarted(this::processTaskQueue);
         schedulerThread.setName("TaskQueue-" + profile.getName());
@@ -123,21 +141,24 @@ public class TaskQueue {
     }
 
     /**
-     * Main task processing loop
+     * Main task processing loop. Between tasks the thread blocks until the head
+     * task is due, the next background check or idle deadline is reached, or
+     * {@link #wakeUp()} is called by a queue or pause state change.
      */
     private void processTaskQueue() {
         boolean idlingTimeExceeded = false;
         acquireEmulatorSlot();
 
         while (running) {
-            long loopStartTime = System.currentTimeMillis();
-
             if (paused != LocalDateTime.MIN && paused != LocalDateTime.MAX) {
                 handlePausedState();
                 continue;
             } else if (paused == LocalDateTime.MAX && !emuManager.isRunning(profile.getEmulatorNumber())) {
                 logInfo("Emulator is not running, acquiring emulator slot now");
                 acquireEmulatorSlot();
+            } else if (emulatorStopped) {
+                emulatorStopped = false;
+                restartStoppedEmulator(idlingTimeExceeded);
             }
 
             boolean executedTask = false;
@@ -157,24 +178,103 @@ public class TaskQueue {
             runBackgroundChecks();
             idlingTimeExceeded = handleIdleTime(delayUntil, idlingTimeExceeded);
 
-            // Waits for the next task to be ready, displaying status information
+            // Waits for the next task to be ready; the UI computes the countdown from the published deadline
             if (!executedTask && paused == LocalDateTime.MIN) {
-                String nextTaskName = taskQueue.isEmpty() ? "None" : taskQueue.peek().getTaskName();
-                String timeFormatted = formatTimeUntil(delayUntil);
-                updateProfileStatus("Idling for " + timeFormatted + "\nNext task: " + nextTaskName);
-
-                // Sleep for remaining time to maintain consistent 1-second intervals
-                long elapsed = System.currentTimeMillis() - loopStartTime;
-                long sleepTime = Math.max(0, IDLE_WAIT_TIME - elapsed);
-                try {
-                    Thread.sleep(sleepTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                DelayedTask next = taskQueue.peek();
+                if (next == null) {
+                    updateProfileStatus("Idling\nNext task: None");
+                } else if (!idlingTimeExceeded) {
+                    updateProfileStatus(new DTOProfileStatus(profile.getId(), next.getScheduled(), next.getTaskName()));
                 }
+                awaitWakeUp(nextWakeUpTime(next, idlingTimeExceeded));
             }
         }
     }
 
+    /**
+     * Computes when the loop has to run again if nothing signals it before
+     */
+    private LocalDateTime nextWakeUpTime(DelayedTask next, boolean idlingTimeExceeded) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime wakeUp = nextBackgroundCheck;
+
+        if (next != null) {
+            long delayMillis = next.getDelay(TimeUnit.MILLISECONDS);
+            // A task that is still due was skipped or failed, do not retry it in a tight loop
+            LocalDateTime due = delayMillis > 0 ? now.plus(Duration.ofMillis(delayMillis))
+                    : now.plus(Duration.ofMillis(RETRY_WAIT_TIME));
+            wakeUp = earliest(wakeUp, due);
+        }
+        if (idlingTimeExceeded && delayUntil != LocalDateTime.MAX) {
+            // Emulator has to be re-acquired one minute before the next task
+            wakeUp = earliest(wakeUp, delayUntil.minusMinutes(1));
+        }
+        return wakeUp;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Blocks the scheduler thread until the deadline is reached or {@link #wakeUp()} is called
+     * 
+     * @param deadline Time to wake up at, {@link LocalDateTime#MAX} to wait for a signal only
+     */
+    private void awaitWakeUp(LocalDateTime deadline) {
+        wakeLock.lock();
+        try {
+            long nanos = deadline == LocalDateTime.MAX ? Long.MAX_VALUE
+                    : ChronoUnit.MILLIS.between(LocalDateTime.now(), deadline) * 1_000_000L;
+            while (running && !wakeRequested && nanos > 0) {
+                nanos = wakeCondition.awaitNanos(nanos);
+            }
+            wakeRequested = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            wakeLock.unlock();
+        }
+    }
+
+    /**
+     * Wakes the scheduler when the profile's emulator stops, so a crash is handled
+     * right away instead of when the next task fails on it
+     */
+    private void onEmulatorStatusChanged(DTOEmulatorStatus previous, DTOEmulatorStatus current) {
+        if (current.getEmulatorNumber().equals(profile.getEmulatorNumber())
+                && previous != null && previous.isRunning() && !current.isRunning()) {
+            emulatorStopped = true;
+            wakeUp();
+        }
+    }
+
+    /**
+     * Queues an initialization for an emulator that stopped while the profile was using it.
+     * Closures made by the idle handling are expected and left alone.
+     */
+    private void restartStoppedEmulator(boolean idlingTimeExceeded) {
+        if (idlingTimeExceeded || paused != LocalDateTime.MIN || emuManager.isRunning(profile.getEmulatorNumber())
+                || isTaskScheduled(TpDailyTaskEnum.INITIALIZE)) {
+            return;
+        }
+        logWarning("Emulator stopped unexpectedly, scheduling initialization");
+        addTask(new InitializeTask(profile, TpDailyTaskEnum.INITIALIZE));
+    }
+
+    /**
+     * Makes the scheduler thread re-evaluate the queue immediately
+     */
+    private void wakeUp() {
+        wakeLock.lock();
+        try {
+            wakeRequested = true;
+            wakeCondition.signalAll();
+        } finally {
+            wakeLock.unlock();
+        }
+    }
+
     /**
      * Executes a task and handles any exceptions
      * 
@@ -449,26 +549,12 @@ public class TaskQueue {
             }
             return;
         }
-        try {
+        if (!"PAUSED".equals(lastStatus == null ? null : lastStatus.getStatus())) {
             updateProfileStatus("PAUSED");
-            if (LocalDateTime.now().getSecond() % 10 == 0)
-                logInfo("Profile is paused");
-            Thread.sleep(1000); // Wait while paused
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            logInfo("Profile is paused");
         }
-    }
-
-    /**
-     * Formats the duration until the target time as HH:mm:ss
-     */
-    private String formatTimeUntil(LocalDateTime targetTime) {
-        Duration timeUntilNext = Duration.between(LocalDateTime.now(), targetTime);
-
-        long hours = timeUntilNext.toHours();
-        long minutes = timeUntilNext.toMinutesPart();
-        long seconds = timeUntilNext.toSecondsPart();
-        return String.format("%02d:%02d:%02d", hours, minutes, seconds);
+        // Wait until the pause ends or resume()/executeTaskNow() signals
+        awaitWakeUp(delayUntil);
     }
 
     /**
@@ -517,6 +603,13 @@ public class TaskQueue {
     }
 
     private void runBackgroundChecks() {
+        // Only check once per interval
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(nextBackgroundCheck)) {
+            return;
+        }
+        nextBackgroundCheck = now.plusSeconds(BACKGROUND_CHECK_INTERVAL);
+
         // Early check with detailed logging
         synchronized (emuManager) {
             boolean emulatorRunning = emuManager.isRunning(profile.getEmulatorNumber());
@@ -529,13 +622,6 @@ public class TaskQueue {
             }
         }
 
-        // Counter logic for periodic checks
-        helpAlliesCount++;
-        if (helpAlliesCount % 60 != 0) {
-            return; // Only check every 60 cycles
-        }
-        helpAlliesCount = 0;
-
         boolean runHelpAllies = profile.getConfig(EnumConfigurationKey.ALLIANCE_HELP_BOOL, Boolean.class);
 
         // Now do the actual work with synchronization
@@ -632,7 +718,18 @@ public class TaskQueue {
     }
 
     private void updateProfileStatus(String status) {
-        ServProfiles.getServices().notifyProfileStatusChange(new DTOProfileStatus(profile.getId(), status));
+        updateProfileStatus(new DTOProfileStatus(profile.getId(), status));
+    }
+
+    /**
+     * Notifies the status unless it is the same as the last one sent
+     */
+    private void updateProfileStatus(DTOProfileStatus status) {
+        if (status.equals(lastStatus)) {
+            return;
+        }
+        lastStatus = status;
+        ServProfiles.getServices().notifyProfileStatusChange(status);
     }
 
     /**
@@ -640,6 +737,8 @@ public class TaskQueue {
      */
     public void stop() {
         running = false; // Stop the main loop
+        EmulatorStatusService.getServices().removeEmulatorStatusListener(emulatorStatusListener);
+        wakeUp();
 
         if (schedulerThread != null) {
             schedulerThread.interrupt(); // Interrupt the thread to force an immediate exit
@@ -663,6 +762,7 @@ public class TaskQueue {
      */
     public void pause() {
         paused = LocalDateTime.now();
+        wakeUp();
         updateProfileStatus("PAUSE REQUESTED");
         logInfo("TaskQueue paused");
     }
@@ -672,6 +772,7 @@ public class TaskQueue {
      */
     public void resume() {
         paused = LocalDateTime.MIN;
+        wakeUp();
         updateProfileStatus("RESUMING");
         logInfo("TaskQueue resumed");
     }
@@ -709,6 +810,7 @@ public class TaskQueue {
             taskQueue.offer(prototype);
             logInfoWithTask(prototype, "Enqueued new immediate " + taskEnum);
         }
+        wakeUp();
 
         // Update task state
         DTOTaskState taskState = new DTOTaskState();
@@ -11,7 +11,9 @@ import cl.camodev.wosbot.serv.task.DelayedTask;
 import cl.camodev.wosbot.serv.task.EnumStartLocation;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -168,7 +170,7 @@ public class AllianceMobilizationTask extends DelayedTask {
     private AttemptStatus readAttemptsCounter() {
         for (int attempt = 1; attempt <= 3; attempt++) {
             try {
-                String ocrResult = emuManager.ocrRegionText(EMULATOR_NUMBER, ATTEMPTS_COUNTER_TOP_LEFT, ATTEMPTS_COUNTER_BOTTOM_RIGHT);
+                String ocrResult = emuManager.ocrDigitsText(EMULATOR_NUMBER, ATTEMPTS_COUNTER_TOP_LEFT, ATTEMPTS_COUNTER_BOTTOM_RIGHT, "0123456789/");
                 debugOCRArea("Attempts counter (attempt " + attempt + ")", ATTEMPTS_COUNTER_TOP_LEFT, ATTEMPTS_COUNTER_BOTTOM_RIGHT, ocrResult);
 
                 if (ocrResult == null || ocrResult.trim().isEmpty()) {
@@ -419,10 +421,13 @@ public class AllianceMobilizationTask extends DelayedTask {
             EnumTemplates.AM_USE_SPEEDUPS
         };
 
+        // Search every task type icon in one capture (max 5 matches each), in priority order
+        Map<EnumTemplates, List<DTOImageSearchResult>> matches = emuManager.searchAnyOf(EMULATOR_NUMBER,
+                Arrays.asList(taskTypeTemplates), 85, 5);
+
         // Search for task type icon near the bonus indicator (typically to the left)
         for (EnumTemplates template : taskTypeTemplates) {
-            // Search for multiple matches of the same template (max 5)
-            List<DTOImageSearchResult> results = emuManager.searchTemplates(EMULATOR_NUMBER, template, 85, 5);
+            List<DTOImageSearchResult> results = matches.get(template);
 
             if (results != null && !results.isEmpty()) {
                 // Check each match to find one near the bonus
@@ -3,11 +3,17 @@ package cl.camodev.wosbot.serv.task.impl;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 import cl.camodev.utiles.UtilTime;
+import cl.camodev.utiles.image.ColorAnalyzer;
+import cl.camodev.utiles.image.ColorClass;
+import cl.camodev.utiles.image.ColorCounts;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
+import cl.camodev.wosbot.ot.DTOArea;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOProfiles;
@@ -35,6 +41,14 @@ public class ArenaTask extends DelayedTask {
     private static final int MAX_GEM_REFRESHES = 5;
     private int gemRefreshCount = 0;
     private static final int[] ATTEMPT_PRICES = {100, 200, 400, 600, 800};
+    // Power text colours: green when the opponent is weaker than us, red when stronger
+    private static final String POWER_BACKGROUND = "background";
+    private static final String POWER_GREEN = "green";
+    private static final String POWER_RED = "red";
+    private static final ColorAnalyzer POWER_COLORS = new ColorAnalyzer()
+            .register(ColorClass.rgbNear(POWER_BACKGROUND, 127, 173, 205, 20))
+            .register(ColorClass.dominantChannel(POWER_GREEN, ColorClass.Channel.GREEN, 1.2, 100))
+            .register(ColorClass.dominantChannel(POWER_RED, ColorClass.Channel.RED, 1.2, 100));
 
     public ArenaTask(DTOProfiles profile, TpDailyTaskEnum tpTask) {
         super(profile, tpTask);
@@ -205,6 +219,25 @@ public class ArenaTask extends DelayedTask {
 		}
     }
 
+    /**
+     * Y coordinate of the challenge row of an opponent, from the top one (0).
+     */
+    private int opponentY(int index) {
+        return (firstRun ? 380 : 354) + (index * 128);
+    }
+
+    /**
+     * Counts the background, green and red pixels of the power text of the five opponents.
+     */
+    private List<ColorCounts> analyzePowerColors() {
+        List<DTOArea> powerAreas = new ArrayList<>(5);
+        for (int i = 0; i < 5; i++) {
+            int y = opponentY(i);
+            powerAreas.add(new DTOArea(new DTOPoint(185, y), new DTOPoint(215, y + 14)));
+        }
+        return emuManager.analyzeColors(EMULATOR_NUMBER, POWER_COLORS, powerAreas, 2);
+    }
+
     private boolean openChallengeList() {
 		DTOImageSearchResult challengeResult = emuManager.searchTemplate(EMULATOR_NUMBER,EnumTemplates.ARENA_CHALLENGE_BUTTON, 90);
         if (!challengeResult.isFound()) {
@@ -224,38 +257,25 @@ public class ArenaTask extends DelayedTask {
 		while (attempts > 0) {
             try {
                 boolean foundOpponent = false;
+                // Check the color distribution of every power text from a single capture
+                List<ColorCounts> powerColors = analyzePowerColors();
                 // Process each opponent from top to bottom
                 for (int i = 0; i < 5; i++) {
                     if (attempts <= 0) {
                         break; // No more attempts left
                     }
-                    // Calculate Y position for each opponent (starting from top)
-                    int y;
-                    if(firstRun) {
-                        y = 380 + (i * 128);
-                    } else {
-                        y = 354 + (i * 128);
-                    }
-                    
-                    // Check the color distribution in the power text area
+                    int y = opponentY(i);
                     logInfo("Analyzing power text color for opponent " + (i + 1) + " (position y=" + y + ")");
-                    
-                    // Define the area to scan (power text region)
-                    DTOPoint topLeft = new DTOPoint(185, y);   // Left and top of power text
-                    DTOPoint bottomRight = new DTOPoint(215, y + 14); // Right and bottom of power text
-
-                    // Analyze the region colors (returns [background, green, red] counts)
-                    int[] colorCounts = emuManager.analyzeRegionColors(EMULATOR_NUMBER, topLeft, bottomRight, 2);
 
-                    int backgroundPixels = colorCounts[0];
-                    int greenPixels = colorCounts[1];
-                    int redPixels = colorCounts[2];
+                    ColorCounts colorCounts = powerColors.get(i);
+                    int backgroundPixels = colorCounts.get(POWER_BACKGROUND);
+                    int greenPixels = colorCounts.get(POWER_GREEN);
+                    int redPixels = colorCounts.get(POWER_RED);
                     int totalColoredPixels = greenPixels + redPixels;
 
                     // Log detailed color distribution
-                    int totalPixels = ((bottomRight.getX() - topLeft.getX()) * (bottomRight.getY() - topLeft.getY())) / 4; // Accounting for step size of 2
                     logDebug(String.format("Color analysis - Background: %d, Green: %d, Red: %d (Total sampled: %d)", 
-                            backgroundPixels, greenPixels, redPixels, totalPixels));
+                            backgroundPixels, greenPixels, redPixels, colorCounts.getSampled()));
                     
                     // If we have a significant number of colored pixels and green is dominant
                     if (totalColoredPixels > 10 && greenPixels > redPixels * 1.5) {
@@ -272,6 +292,7 @@ public class ArenaTask extends DelayedTask {
                         attempts--;
                         if(!checkResult()) {
                             sleepTask(500);
+                            powerColors = analyzePowerColors(); // The list is shown again after the battle
                             continue; // If we lost, continue to next opponent
                         }
                         foundOpponent = true;
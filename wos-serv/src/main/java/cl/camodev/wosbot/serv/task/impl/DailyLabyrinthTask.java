@@ -3,6 +3,7 @@ package cl.camodev.wosbot.serv.task.impl;
 import cl.camodev.utiles.UtilTime;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
+import cl.camodev.wosbot.emulator.InputMacro;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOProfiles;
@@ -91,17 +92,12 @@ public class DailyLabyrinthTask extends DelayedTask {
     private boolean navigateToLabyrinthMenu() {
         logInfo("Navigating to the Labyrinth menu...");
 
-        // Open side menu
-        tapRandomPoint(SIDE_MENU_AREA_START, SIDE_MENU_AREA_END);
-        sleepTask(MENU_NAVIGATION_DELAY);
-
-        // Switch to city tab
-        tapPoint(CITY_TAB_BUTTON);
-        sleepTask(TAB_SWITCH_DELAY);
-
-        // Scroll down to find labyrinth
-        swipe(SCROLL_START_POINT, SCROLL_END_POINT);
-        sleepTask(SCROLL_DELAY);
+        // Open side menu, switch to city tab and scroll down to find labyrinth
+        executeMacro(InputMacro.builder()
+                .tapRandom(SIDE_MENU_AREA_START, SIDE_MENU_AREA_END).sleep(MENU_NAVIGATION_DELAY)
+                .tap(CITY_TAB_BUTTON).sleep(TAB_SWITCH_DELAY)
+                .swipe(SCROLL_START_POINT, SCROLL_END_POINT).sleep(SCROLL_DELAY)
+                .build());
 
         // Search for labyrinth in menu
         DTOImageSearchResult labyrinthResult = emuManager.searchTemplate(
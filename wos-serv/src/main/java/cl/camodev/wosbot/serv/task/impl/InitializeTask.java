@@ -1,8 +1,10 @@
 package cl.camodev.wosbot.serv.task.impl;
 
+import cl.camodev.wosbot.console.enumerable.EnumScreen;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.emulator.EmulatorManager;
+import cl.camodev.wosbot.emulator.ScreenSnapshot;
 import cl.camodev.wosbot.ex.ProfileInReconnectStateException;
 import cl.camodev.wosbot.ex.StopExecutionException;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
@@ -50,16 +52,42 @@ public class InitializeTask extends DelayedTask {
 			boolean homeScreen = false;
 			int attempts = 0;
 			while (attempts <= MAX_ATTEMPTS) {
-				DTOImageSearchResult home = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_FURNACE, 90);
-				DTOImageSearchResult world = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_WORLD, 90);
+				DTOImageSearchResult home = null;
+				DTOImageSearchResult world = null;
+				DTOImageSearchResult reconnect;
+				try (ScreenSnapshot snapshot = emuManager.captureSnapshot(EMULATOR_NUMBER)) {
+					// The fingerprint picks the one location template to confirm. A recognised screen
+					// has no reconnect prompt over it, so the reconnect search is skipped too
+					EnumScreen screen = snapshot.classifyScreen();
+					if (screen == EnumScreen.HOME) {
+						home = snapshot.searchTemplate(EnumTemplates.GAME_HOME_FURNACE, 90);
+					} else if (screen == EnumScreen.WORLD) {
+						world = snapshot.searchTemplate(EnumTemplates.GAME_HOME_WORLD, 90);
+					}
+					if ((home != null && home.isFound()) || (world != null && world.isFound())) {
+						homeScreen = true;
+						logInfo("Home screen recognised.");
+						break;
+					}
+
+					reconnect = snapshot.searchTemplate(EnumTemplates.GAME_HOME_RECONNECT, 90);
+					if (!reconnect.isFound()) {
+						if (home == null) {
+							home = snapshot.searchTemplate(EnumTemplates.GAME_HOME_FURNACE, 90);
+						}
+						if (world == null) {
+							world = snapshot.searchTemplate(EnumTemplates.GAME_HOME_WORLD, 90);
+						}
+					}
+					learnLocation(snapshot, home, world, reconnect);
+				}
 
-				if (home.isFound() || world.isFound()) {
+				if ((home != null && home.isFound()) || (world != null && world.isFound())) {
 					homeScreen = true;
 					logInfo("Home screen found.");
 					break;
 				}
 
-				DTOImageSearchResult reconnect = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.GAME_HOME_RECONNECT, 90);
 				if (reconnect.isFound()) {
 					throw new ProfileInReconnectStateException("Profile " + profile.getName() + " is in a reconnect state and cannot execute the task: " + taskName);
 				}
@@ -349,6 +349,7 @@ public class IntelligenceTask extends DelayedTask {
                             .setTextColor(new Color(255,255,255))
                             //.setDebug(true)
                             .setPageSegMode(DTOTesseractSettings.PageSegMode.SINGLE_LINE)
+                            .setAllowedChars("0123456789")
                             .build(),
                     text -> NumberValidators.matchesPattern(text, Pattern.compile(".*?(\\d+).*")),
                     text -> NumberConverters.regexToInt(text, Pattern.compile(".*?(\\d+).*"))
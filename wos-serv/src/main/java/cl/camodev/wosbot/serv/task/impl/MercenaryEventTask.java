@@ -9,6 +9,7 @@ import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
+import cl.camodev.wosbot.ot.DTOOcrRegion;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOProfiles;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
@@ -21,6 +22,8 @@ import java.awt.Color;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
 
 public class MercenaryEventTask extends DelayedTask {
     private final IDailyTaskRepository iDailyTaskRepository = DailyTaskRepository.getRepository();
@@ -146,10 +149,13 @@ public class MercenaryEventTask extends DelayedTask {
     private boolean selectMercenaryEventLevel() {
         // Check if level selection is needed
         try {
-            String textEasy = OCRWithRetries(new DTOPoint(112, 919), new DTOPoint(179, 953), 2);
-            String textNormal = OCRWithRetries(new DTOPoint(310, 919),
-                    new DTOPoint(410, 953), 2);
-            String textHard = OCRWithRetries(new DTOPoint(540, 919), new DTOPoint(609, 953), 2);
+            Map<String, String> levels = OCRRegionsWithRetries(List.of(
+                    new DTOOcrRegion("easy", new DTOPoint(112, 919), new DTOPoint(179, 953)),
+                    new DTOOcrRegion("normal", new DTOPoint(310, 919), new DTOPoint(410, 953)),
+                    new DTOOcrRegion("hard", new DTOPoint(540, 919), new DTOPoint(609, 953))), 2);
+            String textEasy = levels.get("easy");
+            String textNormal = levels.get("normal");
+            String textHard = levels.get("hard");
             logDebug("OCR Results - Easy: '" + textEasy + "', Normal: '" + textNormal + "', Hard: '" + textHard + "'");
             if ((textEasy != null && textEasy.toLowerCase().contains("easy"))
                     || (textNormal != null && textNormal.toLowerCase().contains("normal"))
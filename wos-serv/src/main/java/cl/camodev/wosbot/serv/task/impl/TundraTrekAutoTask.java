@@ -3,6 +3,7 @@ package cl.camodev.wosbot.serv.task.impl;
 import cl.camodev.wosbot.console.enumerable.TpDailyTaskEnum;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
 import cl.camodev.wosbot.console.enumerable.EnumConfigurationKey;
+import cl.camodev.wosbot.emulator.InputMacro;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOProfiles;
@@ -131,17 +132,12 @@ public class TundraTrekAutoTask extends DelayedTask {
 
     private boolean navigateToTundraMenu() {
         logInfo("Navigating to the Tundra menu...");
-        // Open side menu
-        tapRandomPoint(SIDE_MENU_AREA_START, SIDE_MENU_AREA_END);
-        sleepTask(1000);
-
-        // Switch to city tab
-        tapPoint(CITY_TAB_BUTTON);
-        sleepTask(500);
-
-        // Scroll down to bring Tundra menu item into view
-        swipe(SCROLL_START_POINT, SCROLL_END_POINT);
-        sleepTask(1300);
+        // Open side menu, switch to city tab and scroll down to bring Tundra menu item into view
+        executeMacro(InputMacro.builder()
+                .tapRandom(SIDE_MENU_AREA_START, SIDE_MENU_AREA_END).sleep(1000)
+                .tap(CITY_TAB_BUTTON).sleep(500)
+                .swipe(SCROLL_START_POINT, SCROLL_END_POINT).sleep(1300)
+                .build());
 
         // Use only the dedicated Tundra Trek icon (no fallback)
         DTOImageSearchResult tundraIcon = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.LEFT_MENU_TUNDRA_TREK_BUTTON, 90);
@@ -196,11 +192,11 @@ public class TundraTrekAutoTask extends DelayedTask {
                 DTOImageSearchResult skipBtn = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.TUNDRA_TREK_SKIP_BUTTON, 85);
                 if (skipBtn.isFound()) {
                     logInfo("Skip button found - clicking as Auto alternative.");
-                    tapPoint(skipBtn.getPoint());
-                    sleepTask(500);
-                    // Additional tab press after skip
-                    tapPoint(skipBtn.getPoint());
-                    sleepTask(3000); // Give UI time to rebuild after skip clicks
+                    // Additional tab press after skip, then give UI time to rebuild after skip clicks
+                    executeMacro(InputMacro.builder()
+                            .tap(skipBtn.getPoint()).sleep(500)
+                            .tap(skipBtn.getPoint()).sleep(3000)
+                            .build());
 
                     // Check if Auto button is now visible after skip clicks
                     DTOImageSearchResult autoRetryAfterSkip = emuManager.searchTemplate(EMULATOR_NUMBER, EnumTemplates.TUNDRA_TREK_AUTO_BUTTON, 85);
@@ -368,7 +364,7 @@ public class TundraTrekAutoTask extends DelayedTask {
                     DTOPoint p1 = new DTOPoint(TREK_COUNTER_TOP_LEFT.getX() + dx, TREK_COUNTER_TOP_LEFT.getY() + dy);
                     DTOPoint p2 = new DTOPoint(TREK_COUNTER_BOTTOM_RIGHT.getX() + dx, TREK_COUNTER_BOTTOM_RIGHT.getY() + dy);
                     try {
-                        raw = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2);
+                        raw = emuManager.ocrDigitsText(EMULATOR_NUMBER, p1, p2, "0123456789/");
                         norm = normalizeOcrText(raw);
                         remaining = parseRemaining(raw, norm, fraction, twoNumbersLoose);
                         if (attempts < 5 || attempts % 10 == 0) {
@@ -434,7 +430,7 @@ public class TundraTrekAutoTask extends DelayedTask {
             DTOPoint p1 = new DTOPoint(TREK_COUNTER_TOP_LEFT.getX() + dx, TREK_COUNTER_TOP_LEFT.getY() + dy);
             DTOPoint p2 = new DTOPoint(TREK_COUNTER_BOTTOM_RIGHT.getX() + dx, TREK_COUNTER_BOTTOM_RIGHT.getY() + dy);
             try {
-                raw = emuManager.ocrRegionText(EMULATOR_NUMBER, p1, p2);
+                raw = emuManager.ocrDigitsText(EMULATOR_NUMBER, p1, p2, "0123456789/");
                 norm = normalizeOcrText(raw);
                 Integer remaining = parseRemaining(raw, norm, fraction, twoNumbersLoose);
                 if (remaining != null) {
@@ -6,6 +6,8 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
@@ -16,6 +18,12 @@ import org.opencv.core.Rect;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 
+import cl.camodev.utiles.image.PeakFinder;
+import cl.camodev.utiles.image.PyramidMatcher;
+import cl.camodev.utiles.image.RawFrame;
+import cl.camodev.utiles.image.TemplatePack;
+import cl.camodev.utiles.image.TemplateLocationIndex;
+import cl.camodev.utiles.metrics.HotPathMetrics;
 import cl.camodev.wosbot.ot.DTOImageSearchResult;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.console.enumerable.EnumTemplates;
@@ -30,6 +38,9 @@ public class ImageSearchUtil {
 	// Cache for grayscale templates
 	private static final ConcurrentHashMap<String, Mat> grayscaleTemplateCache = new ConcurrentHashMap<>();
 
+	// Cache for half resolution templates used by pyramid matching, keyed like the location hints
+	private static final ConcurrentHashMap<String, Mat> pyramidTemplateCache = new ConcurrentHashMap<>();
+
 	// Custom thread pool for OpenCV operations
 	private static final ForkJoinPool openCVThreadPool = new ForkJoinPool(
 		Math.min(Runtime.getRuntime().availableProcessors(), 4)
@@ -38,12 +49,26 @@ public class ImageSearchUtil {
 	// Cache for template byte arrays
 	private static final ConcurrentHashMap<String, byte[]> templateBytesCache = new ConcurrentHashMap<>();
 
+	// Searches hold the read lock while they use cached templates, clearCache the write lock
+	// so it releases them only once the in-flight searches have drained
+	private static final ReentrantReadWriteLock templateUseLock = new ReentrantReadWriteLock();
+
+	// Pre-decoded templates produced at build time, null until opened or when the build did not pack them
+	private static volatile TemplatePack templatePack;
+
 	// Cache initialization status
 	private static volatile boolean cacheInitialized = false;
 
 	// Thread-local storage for profile name context
 	private static final ThreadLocal<String> currentProfileName = new ThreadLocal<>();
 
+	// Where single-match searches last found each template
+	private static final TemplateLocationIndex locationIndex = new TemplateLocationIndex();
+
+	// Native template Mats created (decoded, converted or downscaled) versus template lookups by searches
+	private static final LongAdder templateAllocations = new LongAdder();
+	private static final LongAdder templateLookups = new LongAdder();
+
 	/**
 	 * Set the current profile name for logging context.
 	 * This is used to prefix log messages with the profile name.
@@ -81,6 +106,8 @@ public class ImageSearchUtil {
 			templateCache.clear();
 			grayscaleTemplateCache.values().forEach(Mat::release);
 			grayscaleTemplateCache.clear();
+			pyramidTemplateCache.values().forEach(Mat::release);
+			pyramidTemplateCache.clear();
 			templateBytesCache.clear();
 		}));
 
@@ -95,9 +122,22 @@ public class ImageSearchUtil {
 		if (cacheInitialized) return;
 
 		openCVThreadPool.submit(() -> {
+			templateUseLock.readLock().lock();
 			try {
 				logger.info("Caching templates...");
 
+				// Wrap the build-time pack when present: no decoding nor conversion needed
+				if (openTemplatePack()) {
+					TemplatePack pack = templatePack;
+					for (String templatePath : pack.getTemplatePaths()) {
+						templateCache.putIfAbsent(templatePath, pack.colorTemplate(templatePath));
+						grayscaleTemplateCache.putIfAbsent(templatePath, pack.grayscaleTemplate(templatePath));
+					}
+					cacheInitialized = true;
+					logger.info(formatLogMessage("Template cache initialized from template pack with " + pack.getTemplatePaths().size() + " templates"));
+					return;
+				}
+
 				// Preload all templates from the enum (both color and grayscale)
 				for (EnumTemplates enumTemplate : EnumTemplates.values()) {
 					String templatePath = enumTemplate.getTemplate();
@@ -120,6 +160,8 @@ public class ImageSearchUtil {
 
 			} catch (Exception e) {
 				logger.error(formatLogMessage("Error initializing template cache: " + e.getMessage()));
+			} finally {
+				templateUseLock.readLock().unlock();
 			}
 		});
 	}
@@ -156,14 +198,42 @@ public class ImageSearchUtil {
 		return searchTemplateGrayscaleMultipleOptimized(image, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
 	}
 
+	/**
+	 * Maps the template pack from the classpath once.
+	 *
+	 * @return whether a pack is available
+	 */
+	private static synchronized boolean openTemplatePack() {
+		if (templatePack == null) {
+			try {
+				templatePack = TemplatePack.openFromClasspath();
+			} catch (IOException e) {
+				logger.warn(formatLogMessage("Could not open template pack, decoding templates instead: " + e.getMessage()));
+			}
+		}
+		return templatePack != null;
+	}
+
 	/**
 	 * Optimized method for loading and caching templates.
+	 * <p>
+	 * The returned Mat is the cached instance, shared by every search: matchTemplate
+	 * only reads it, so callers must neither modify nor release it. Its lifecycle is
+	 * handled by {@link #clearCache()} and the shutdown hook, so callers must hold the
+	 * read lock of {@code templateUseLock} while they use it.
 	 */
 	private static Mat loadTemplateOptimized(String templateResourcePath) {
 		// Try to get from cache first
 		Mat cachedTemplate = templateCache.get(templateResourcePath);
 		if (cachedTemplate != null && !cachedTemplate.empty()) {
-			return cachedTemplate.clone(); // Return a copy for thread safety
+			return cachedTemplate;
+		}
+
+		TemplatePack pack = templatePack;
+		if (pack != null && pack.contains(templateResourcePath)) {
+			Mat packed = pack.colorTemplate(templateResourcePath);
+			Mat existing = templateCache.putIfAbsent(templateResourcePath, packed);
+			return existing != null ? existing : packed;
 		}
 
 		try {
@@ -188,13 +258,12 @@ public class ImageSearchUtil {
 			// Decode template
 			MatOfByte templateMatOfByte = new MatOfByte(templateBytes);
 			Mat template = Imgcodecs.imdecode(templateMatOfByte, Imgcodecs.IMREAD_COLOR);
+			templateMatOfByte.release();
 
-			if (!template.empty()) {
-				// Save to cache (clone to avoid modifications)
-				templateCache.put(templateResourcePath, template.clone());
+			if (template.empty()) {
+				return template;
 			}
-
-			return template;
+			return cacheTemplate(templateCache, templateResourcePath, template);
 
 		} catch (Exception e) {
 			logger.error(formatLogMessage("Exception loading template: " + templateResourcePath), e);
@@ -203,13 +272,21 @@ public class ImageSearchUtil {
 	}
 	
 	/**
-	 * Optimized method for loading and caching grayscale templates.
+	 * Optimized method for loading and caching grayscale templates. Like
+	 * {@link #loadTemplateOptimized(String)}, the returned Mat is shared and owned by the cache.
 	 */
 	private static Mat loadTemplateGrayscale(String templateResourcePath) {
 		// Try to get from grayscale cache first
 		Mat cachedTemplate = grayscaleTemplateCache.get(templateResourcePath);
 		if (cachedTemplate != null && !cachedTemplate.empty()) {
-			return cachedTemplate.clone(); // Return a copy for thread safety
+			return cachedTemplate;
+		}
+
+		TemplatePack pack = templatePack;
+		if (pack != null && pack.contains(templateResourcePath)) {
+			Mat packed = pack.grayscaleTemplate(templateResourcePath);
+			Mat existing = grayscaleTemplateCache.putIfAbsent(templateResourcePath, packed);
+			return existing != null ? existing : packed;
 		}
 
 		try {
@@ -219,19 +296,14 @@ public class ImageSearchUtil {
 				return new Mat();
 			}
 			
-			// Convert to grayscale
+			// Convert to grayscale; the colour template stays in its own cache
 			Mat grayTemplate = new Mat();
 			Imgproc.cvtColor(colorTemplate, grayTemplate, Imgproc.COLOR_BGR2GRAY);
-			
-			// Save to grayscale cache
-			if (!grayTemplate.empty()) {
-				grayscaleTemplateCache.put(templateResourcePath, grayTemplate.clone());
+
+			if (grayTemplate.empty()) {
+				return grayTemplate;
 			}
-			
-			// Release color template as we don't need it anymore
-			colorTemplate.release();
-			
-			return grayTemplate;
+			return cacheTemplate(grayscaleTemplateCache, templateResourcePath, grayTemplate);
 		} catch (Exception e) {
 			logger.error(formatLogMessage("Exception loading grayscale template: " + templateResourcePath), e);
 			return new Mat();
@@ -245,6 +317,80 @@ public class ImageSearchUtil {
 			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
 
 		Mat imagenPrincipal = null;
+		try {
+			imagenPrincipal = decodeImage(image);
+			return searchBestMatch(imagenPrincipal, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, false, false);
+		} catch (Exception e) {
+			logger.error(formatLogMessage("Exception during optimized template search"), e);
+			return new DTOImageSearchResult(false, null, 0.0);
+		} finally {
+			if (imagenPrincipal != null) imagenPrincipal.release();
+		}
+	}
+
+	/**
+	 * Searches for a template within an already captured raw frame, skipping any image decoding.
+	 */
+	public static DTOImageSearchResult searchTemplate(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+		return searchTemplate(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, false);
+	}
+
+	/**
+	 * Searches for a template within an already captured raw frame, skipping any image decoding.
+	 *
+	 * @param pyramid whether to locate candidates at half resolution and only match
+	 *                small full resolution windows around them, searching the whole
+	 *                ROI only when none of them reaches the threshold
+	 */
+	public static DTOImageSearchResult searchTemplate(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, boolean pyramid) {
+		try {
+			return searchBestMatch(frame.getBgrMat(), templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, false, pyramid);
+		} catch (Exception e) {
+			logger.error(formatLogMessage("Exception during frame template search"), e);
+			return new DTOImageSearchResult(false, null, 0.0);
+		}
+	}
+
+	/**
+	 * Decodes an encoded image (PNG, JPG...) into a BGR Mat.
+	 */
+	private static Mat decodeImage(byte[] image) {
+		MatOfByte matOfByte = new MatOfByte(image);
+		Mat decoded = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
+		matOfByte.release();
+		return decoded;
+	}
+
+	/**
+	 * Core single-match search shared by every entry point. The caller keeps
+	 * ownership of {@code searchImage}; it is never modified nor released here.
+	 *
+	 * @param searchImage BGR image, or single channel image when {@code grayscale} is set
+	 * @param grayscale   whether to match against the grayscale version of the template
+	 * @param pyramid     whether to try a coarse-to-fine search before the full
+	 *                    resolution one over the whole ROI
+	 */
+	private static DTOImageSearchResult searchBestMatch(Mat searchImage, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, boolean grayscale, boolean pyramid) {
+		long start = System.nanoTime();
+		DTOImageSearchResult result;
+		templateUseLock.readLock().lock();
+		try {
+			result = findBestMatch(searchImage, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, grayscale, pyramid);
+		} finally {
+			templateUseLock.readLock().unlock();
+		}
+		HotPathMetrics.recordTemplateSearch(templateResourcePath, (grayscale ? "gray" : "color") + (pyramid ? "-pyramid" : ""),
+				start, result.isFound(), result.getMatchPercentage());
+		return result;
+	}
+
+	private static DTOImageSearchResult findBestMatch(Mat searchImage, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, boolean grayscale, boolean pyramid) {
+
+		String label = grayscale ? "Grayscale template " : "Template ";
 		Mat template = null;
 		Mat imagenROI = null;
 		Mat resultado = null;
@@ -261,38 +407,74 @@ public class ImageSearchUtil {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
 
-			// Decoding of main image (reusable)
-			MatOfByte matOfByte = new MatOfByte(image);
-			imagenPrincipal = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
-
-			if (imagenPrincipal.empty()) {
+			if (searchImage == null || searchImage.empty()) {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
 
 			// Load optimized template with cache
-			template = loadTemplateOptimized(templateResourcePath);
+			templateLookups.increment();
+			template = grayscale ? loadTemplateGrayscale(templateResourcePath) : loadTemplateOptimized(templateResourcePath);
 			if (template.empty()) {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
 
 			// ROI vs image validation
-			if (roiX + roiWidth > imagenPrincipal.cols() || roiY + roiHeight > imagenPrincipal.rows()) {
+			if (roiX + roiWidth > searchImage.cols() || roiY + roiHeight > searchImage.rows()) {
 				logger.error(formatLogMessage("ROI exceeds image dimensions"));
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
 
 			// Create ROI
 			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imagenROI = new Mat(imagenPrincipal, roi);
 
 			// Optimized size check
-			int resultCols = imagenROI.cols() - template.cols() + 1;
-			int resultRows = imagenROI.rows() - template.rows() + 1;
+			int resultCols = roi.width - template.cols() + 1;
+			int resultRows = roi.height - template.rows() + 1;
 			if (resultCols <= 0 || resultRows <= 0) {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
 
+			// Look around the spots where this template was found before; matchTemplate
+			// cost scales with the searched area, so a hit here skips the full ROI. Every
+			// window is scored and the best one answers, as the full search would among
+			// those spots; windows are few and small (see TemplateLocationIndex), so a
+			// miss adds little to the full search.
+			String hintKey = (grayscale ? "gray:" : "") + templateResourcePath;
+			List<Rect> hintWindows = locationIndex.windowsFor(hintKey, roi, template.cols(), template.rows());
+			DTOImageSearchResult bestHinted = null;
+			for (Rect window : hintWindows) {
+				DTOImageSearchResult hinted = matchInRegion(searchImage, template, window);
+				if (bestHinted == null || hinted.getMatchPercentage() > bestHinted.getMatchPercentage()) {
+					bestHinted = hinted;
+				}
+			}
+			if (bestHinted != null && bestHinted.getMatchPercentage() >= thresholdPercentage) {
+				locationIndex.countHintedHit(hintKey);
+				locationIndex.recordHit(hintKey, bestHinted.getPoint().getX(), bestHinted.getPoint().getY());
+				logger.info(formatLogMessage(label + templateResourcePath + " found near last location with match percentage: " + bestHinted.getMatchPercentage()));
+				return bestHinted;
+			}
+			if (hintWindows.isEmpty()) {
+				locationIndex.countUnhintedSearch();
+			} else {
+				locationIndex.countHintedMiss(hintKey);
+			}
+
+			if (pyramid && PyramidMatcher.isApplicable(template, roi)) {
+				Mat coarseTemplate = loadPyramidTemplate(hintKey, template);
+				DTOImageSearchResult coarseToFine = PyramidMatcher.match(searchImage, roi, template, coarseTemplate, thresholdPercentage);
+				if (coarseToFine.isFound()) {
+					logger.info(formatLogMessage(label + templateResourcePath + " found by pyramid search with match percentage: " + coarseToFine.getMatchPercentage()));
+					locationIndex.recordHit(hintKey, coarseToFine.getPoint().getX(), coarseToFine.getPoint().getY());
+					return coarseToFine;
+				}
+				// The full resolution peak may not be among the coarse candidates, so a
+				// coarse miss is confirmed by the full search before being reported
+				logger.debug(formatLogMessage(label + templateResourcePath + " pyramid match percentage " + coarseToFine.getMatchPercentage() + " below threshold, searching full ROI"));
+			}
+
 			// Template matching
+			imagenROI = new Mat(searchImage, roi);
 			resultado = new Mat(resultRows, resultCols, CvType.CV_32FC1);
 			Imgproc.matchTemplate(imagenROI, template, resultado, Imgproc.TM_CCOEFF_NORMED);
 
@@ -301,31 +483,73 @@ public class ImageSearchUtil {
 			double matchPercentage = mmr.maxVal * 100.0;
 
 			if (matchPercentage < thresholdPercentage) {
-				logger.warn(formatLogMessage("Template " + templateResourcePath + " match percentage " + matchPercentage + " below threshold " + thresholdPercentage));
+				logger.warn(formatLogMessage(label + templateResourcePath + " match percentage " + matchPercentage + " below threshold " + thresholdPercentage));
 				return new DTOImageSearchResult(false, null, matchPercentage);
 			}
 
-			logger.info(formatLogMessage("Template " + templateResourcePath + " found with match percentage: " + matchPercentage));
+			logger.info(formatLogMessage(label + templateResourcePath + " found with match percentage: " + matchPercentage));
 
 			// Calculate center coordinates
 			Point matchLoc = mmr.maxLoc;
 			double centerX = matchLoc.x + roi.x + (template.cols() / 2.0);
 			double centerY = matchLoc.y + roi.y + (template.rows() / 2.0);
+			locationIndex.recordHit(hintKey, (int) centerX, (int) centerY);
 
 			return new DTOImageSearchResult(true, new DTOPoint((int) centerX, (int) centerY), matchPercentage);
 
-		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception during optimized template search"), e);
-			return new DTOImageSearchResult(false, null, 0.0);
 		} finally {
-			// Explicit release of OpenCV memory
-			if (imagenPrincipal != null) imagenPrincipal.release();
-			if (template != null) template.release();
+			// Explicit release of OpenCV memory; the template belongs to the cache
 			if (imagenROI != null) imagenROI.release();
 			if (resultado != null) resultado.release();
 		}
 	}
 
+	/**
+	 * Gets the half resolution version of an already loaded template from the cache,
+	 * building it on first use. The returned Mat is shared and owned by the cache.
+	 */
+	private static Mat loadPyramidTemplate(String cacheKey, Mat template) {
+		return pyramidTemplateCache.computeIfAbsent(cacheKey, key -> {
+			templateAllocations.increment();
+			return PyramidMatcher.downscaleTemplate(template);
+		});
+	}
+
+	/**
+	 * Stores a freshly created template unless another thread cached one first, in
+	 * which case the new copy is released and the cached one returned.
+	 */
+	private static Mat cacheTemplate(ConcurrentHashMap<String, Mat> cache, String key, Mat template) {
+		templateAllocations.increment();
+		Mat existing = cache.putIfAbsent(key, template);
+		if (existing != null) {
+			template.release();
+			return existing;
+		}
+		return template;
+	}
+
+	/**
+	 * Matches a template inside a region that is known to be large enough for it.
+	 *
+	 * @return the best match in the region with its centre in image coordinates, flagged
+	 *         as found regardless of any threshold
+	 */
+	private static DTOImageSearchResult matchInRegion(Mat searchImage, Mat template, Rect region) {
+		Mat regionMat = new Mat(searchImage, region);
+		Mat result = new Mat();
+		try {
+			Imgproc.matchTemplate(regionMat, template, result, Imgproc.TM_CCOEFF_NORMED);
+			Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+			int centerX = (int) (mmr.maxLoc.x + region.x + (template.cols() / 2.0));
+			int centerY = (int) (mmr.maxLoc.y + region.y + (template.rows() / 2.0));
+			return new DTOImageSearchResult(true, new DTOPoint(centerX, centerY), mmr.maxVal * 100.0);
+		} finally {
+			regionMat.release();
+			result.release();
+		}
+	}
+
 	/**
 	 * Optimized version for multiple search with parallelization.
 	 */
@@ -344,12 +568,150 @@ public class ImageSearchUtil {
 			String templateResourcePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner,
 			double thresholdPercentage, int maxResults) {
 
-		List<DTOImageSearchResult> results = new ArrayList<>();
 		Mat mainImage = null;
+		try {
+			mainImage = decodeImage(image);
+			return searchAllMatches(mainImage, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, 0, false);
+		} catch (Exception e) {
+			logger.error(formatLogMessage("Exception during optimized multiple template search"), e);
+			return new ArrayList<>();
+		} finally {
+			if (mainImage != null) mainImage.release();
+		}
+	}
+
+	/**
+	 * Searches for multiple matches of a template within an already captured raw frame.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateMultiple(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults) {
+		return searchTemplateMultiple(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, 0);
+	}
+
+	/**
+	 * Searches for multiple matches of a template within an already captured raw frame.
+	 *
+	 * @param nmsRadius pixels suppressed around each match before looking for the next
+	 *                  one, or 0 to suppress an area the size of the template
+	 */
+	public static List<DTOImageSearchResult> searchTemplateMultiple(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults, int nmsRadius) {
+		try {
+			return searchAllMatches(frame.getBgrMat(), templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, nmsRadius, false);
+		} catch (Exception e) {
+			logger.error(formatLogMessage("Exception during frame multiple template search"), e);
+			return new ArrayList<>();
+		}
+	}
+
+	/**
+	 * One template of a {@link #searchTemplatesParallel} call, with the region and
+	 * matching mode it is searched with.
+	 *
+	 * @param nmsRadius pixels suppressed around each match, or 0 to suppress an area
+	 *                  the size of the template
+	 * @param pyramid   whether a single-match query tries a coarse-to-fine search first;
+	 *                  ignored when several matches are requested
+	 */
+	public record TemplateQuery(String templateResourcePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner,
+			boolean grayscale, int nmsRadius, boolean pyramid) {
+	}
+
+	/**
+	 * Searches several templates against the same raw frame, fanning the matches out
+	 * across the OpenCV thread pool. The frame is converted once and shared read-only
+	 * by every worker. Queries are matched independently, so two queries for the same
+	 * file both get their own result list.
+	 * <p>
+	 * With {@code maxResults} 1 every query runs the single-match search, including
+	 * its location hints and pyramid mode, so it finds what {@code searchTemplate} would.
+	 *
+	 * @return results per query, in the order of {@code queries}
+	 */
+	public static List<List<DTOImageSearchResult>> searchTemplatesParallel(RawFrame frame,
+			List<TemplateQuery> queries, double thresholdPercentage, int maxResults) {
+
+		List<List<DTOImageSearchResult>> results = new ArrayList<>(queries.size());
+		if (queries.isEmpty()) {
+			return results;
+		}
+
+		// Convert the frame on the calling thread, workers only read the shared Mats
+		boolean anyColor = queries.stream().anyMatch(query -> !query.grayscale());
+		boolean anyGray = queries.stream().anyMatch(TemplateQuery::grayscale);
+		Mat bgrImage = anyColor ? frame.getBgrMat() : null;
+		Mat grayImage = anyGray ? frame.getGrayMat() : null;
+		String profileName = currentProfileName.get();
+		List<CompletableFuture<List<DTOImageSearchResult>>> pending = new ArrayList<>(queries.size());
+
+		for (TemplateQuery query : queries) {
+			Mat searchImage = query.grayscale() ? grayImage : bgrImage;
+			pending.add(CompletableFuture.supplyAsync(() -> {
+				// Workers run on pool threads, carry the caller's logging context over
+				currentProfileName.set(profileName);
+				try {
+					return searchQuery(searchImage, query, thresholdPercentage, maxResults);
+				} catch (Exception e) {
+					logger.error(formatLogMessage("Exception during parallel template search for " + query.templateResourcePath()), e);
+					return new ArrayList<DTOImageSearchResult>();
+				} finally {
+					currentProfileName.remove();
+				}
+			}, openCVThreadPool));
+		}
+
+		for (CompletableFuture<List<DTOImageSearchResult>> future : pending) {
+			results.add(future.join());
+		}
+		return results;
+	}
+
+	private static List<DTOImageSearchResult> searchQuery(Mat searchImage, TemplateQuery query, double thresholdPercentage,
+			int maxResults) {
+		if (maxResults == 1) {
+			DTOImageSearchResult result = searchBestMatch(searchImage, query.templateResourcePath(), query.topLeftCorner(),
+					query.bottomRightCorner(), thresholdPercentage, query.grayscale(), query.pyramid());
+			List<DTOImageSearchResult> found = new ArrayList<>(1);
+			if (result.isFound()) {
+				found.add(result);
+			}
+			return found;
+		}
+		return searchAllMatches(searchImage, query.templateResourcePath(), query.topLeftCorner(), query.bottomRightCorner(),
+				thresholdPercentage, maxResults, query.nmsRadius(), query.grayscale());
+	}
+
+	/**
+	 * Core multiple-match search shared by every entry point. The caller keeps
+	 * ownership of {@code searchImage}; it is never modified nor released here.
+	 *
+	 * @param nmsRadius pixels suppressed around each match, or 0 to suppress an area
+	 *                  the size of the template
+	 */
+	private static List<DTOImageSearchResult> searchAllMatches(Mat searchImage, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults,
+			int nmsRadius, boolean grayscale) {
+		long start = System.nanoTime();
+		List<DTOImageSearchResult> results;
+		templateUseLock.readLock().lock();
+		try {
+			results = findAllMatches(searchImage, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, nmsRadius, grayscale);
+		} finally {
+			templateUseLock.readLock().unlock();
+		}
+		HotPathMetrics.recordTemplateSearch(templateResourcePath, grayscale ? "gray-multi" : "color-multi",
+				start, !results.isEmpty(), results.isEmpty() ? 0.0 : results.get(0).getMatchPercentage());
+		return results;
+	}
+
+	private static List<DTOImageSearchResult> findAllMatches(Mat searchImage, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults,
+			int nmsRadius, boolean grayscale) {
+
+		List<DTOImageSearchResult> results = new ArrayList<>();
 		Mat template = null;
 		Mat imageROI = null;
 		Mat matchResult = null;
-		Mat resultCopy = null;
 
 		try {
 			// Quick ROI validation
@@ -362,28 +724,25 @@ public class ImageSearchUtil {
 				return results;
 			}
 
-			// Optimized decoding
-			MatOfByte matOfByte = new MatOfByte(image);
-			mainImage = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
-
-			if (mainImage.empty()) {
+			if (searchImage == null || searchImage.empty()) {
 				return results;
 			}
 
 			// Load template with cache
-			template = loadTemplateOptimized(templateResourcePath);
+			templateLookups.increment();
+			template = grayscale ? loadTemplateGrayscale(templateResourcePath) : loadTemplateOptimized(templateResourcePath);
 			if (template.empty()) {
 				return results;
 			}
 
 			// Validations
-			if (roiX + roiWidth > mainImage.cols() || roiY + roiHeight > mainImage.rows()) {
+			if (roiX + roiWidth > searchImage.cols() || roiY + roiHeight > searchImage.rows()) {
 				return results;
 			}
 
 			// Create ROI
 			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imageROI = new Mat(mainImage, roi);
+			imageROI = new Mat(searchImage, roi);
 
 			int resultCols = imageROI.cols() - template.cols() + 1;
 			int resultRows = imageROI.rows() - template.rows() + 1;
@@ -395,54 +754,25 @@ public class ImageSearchUtil {
 			matchResult = new Mat(resultRows, resultCols, CvType.CV_32FC1);
 			Imgproc.matchTemplate(imageROI, template, matchResult, Imgproc.TM_CCOEFF_NORMED);
 
-			// Optimized search for multiple matches
-			double thresholdDecimal = thresholdPercentage / 100.0;
-			resultCopy = matchResult.clone();
-			int templateWidth = template.cols();
-			int templateHeight = template.rows();
-
-			// Pre-calculate for optimization
-			int halfTemplateWidth = templateWidth / 2;
-			int halfTemplateHeight = templateHeight / 2;
-
-			while (results.size() < maxResults || maxResults <= 0) {
-				Core.MinMaxLocResult mmr = Core.minMaxLoc(resultCopy);
-				double matchValue = mmr.maxVal;
-
-				if (matchValue < thresholdDecimal) {
-					break;
-				}
-
-				Point matchLoc = mmr.maxLoc;
-				double centerX = matchLoc.x + roi.x + halfTemplateWidth;
-				double centerY = matchLoc.y + roi.y + halfTemplateHeight;
-
-				results.add(new DTOImageSearchResult(true,
-					new DTOPoint((int) centerX, (int) centerY), matchValue * 100.0));
-
-				// Optimized suppression
-				int suppressX = Math.max(0, (int)matchLoc.x - halfTemplateWidth);
-				int suppressY = Math.max(0, (int)matchLoc.y - halfTemplateHeight);
-				int suppressWidth = Math.min(templateWidth, resultCopy.cols() - suppressX);
-				int suppressHeight = Math.min(templateHeight, resultCopy.rows() - suppressY);
-
-				if (suppressWidth > 0 && suppressHeight > 0) {
-					Rect suppressRect = new Rect(suppressX, suppressY, suppressWidth, suppressHeight);
-					Mat suppressArea = new Mat(resultCopy, suppressRect);
-					suppressArea.setTo(new org.opencv.core.Scalar(0));
-					suppressArea.release();
-				}
+			// Every match in one pass over the response map
+			int halfTemplateWidth = template.cols() / 2;
+			int halfTemplateHeight = template.rows() / 2;
+			int halfSuppressWidth = nmsRadius > 0 ? nmsRadius : halfTemplateWidth;
+			int halfSuppressHeight = nmsRadius > 0 ? nmsRadius : halfTemplateHeight;
+			int fullSuppressWidth = nmsRadius > 0 ? 2 * nmsRadius + 1 : template.cols();
+			int fullSuppressHeight = nmsRadius > 0 ? 2 * nmsRadius + 1 : template.rows();
+
+			for (PeakFinder.Peak peak : PeakFinder.findPeaks(matchResult, thresholdPercentage / 100.0,
+					halfSuppressWidth, halfSuppressHeight, fullSuppressWidth, fullSuppressHeight, maxResults)) {
+				int centerX = peak.x() + roi.x + halfTemplateWidth;
+				int centerY = peak.y() + roi.y + halfTemplateHeight;
+				results.add(new DTOImageSearchResult(true, new DTOPoint(centerX, centerY), peak.score() * 100.0));
 			}
 
-		} catch (Exception e) {
-			logger.error(formatLogMessage("Exception during optimized multiple template search"), e);
 		} finally {
-			// Explicit memory release
-			if (mainImage != null) mainImage.release();
-			if (template != null) template.release();
+			// Explicit memory release; the template belongs to the cache
 			if (imageROI != null) imageROI.release();
 			if (matchResult != null) matchResult.release();
-			if (resultCopy != null) resultCopy.release();
 		}
 
 		return results;
@@ -457,77 +787,21 @@ public class ImageSearchUtil {
 
 		Mat imagenPrincipal = null;
 		Mat imagenPrincipalGray = null;
-		Mat template = null;
-		Mat imagenROI = null;
-		Mat resultado = null;
 
 		try {
-			// Quick ROI validation
-			int roiX = topLeftCorner.getX();
-			int roiY = topLeftCorner.getY();
-			int roiWidth = bottomRightCorner.getX() - topLeftCorner.getX();
-			int roiHeight = bottomRightCorner.getY() - topLeftCorner.getY();
-
-			if (roiWidth <= 0 || roiHeight <= 0) {
-				logger.error(formatLogMessage("Invalid ROI dimensions"));
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
 			// Decoding of main image (reusable)
-			MatOfByte matOfByte = new MatOfByte(image);
-			imagenPrincipal = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
-
+			imagenPrincipal = decodeImage(image);
 			if (imagenPrincipal.empty()) {
 				return new DTOImageSearchResult(false, null, 0.0);
 			}
-			
+
 			// Convert main image to grayscale
 			imagenPrincipalGray = new Mat();
 			Imgproc.cvtColor(imagenPrincipal, imagenPrincipalGray, Imgproc.COLOR_BGR2GRAY);
 			imagenPrincipal.release();
 			imagenPrincipal = null;
 
-			// Load optimized grayscale template with cache
-			template = loadTemplateGrayscale(templateResourcePath);
-			if (template.empty()) {
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// ROI vs image validation
-			if (roiX + roiWidth > imagenPrincipalGray.cols() || roiY + roiHeight > imagenPrincipalGray.rows()) {
-				logger.error(formatLogMessage("ROI exceeds image dimensions"));
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// Create ROI
-			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imagenROI = new Mat(imagenPrincipalGray, roi);
-
-			// Optimized size check
-			int resultCols = imagenROI.cols() - template.cols() + 1;
-			int resultRows = imagenROI.rows() - template.rows() + 1;
-			if (resultCols <= 0 || resultRows <= 0) {
-				return new DTOImageSearchResult(false, null, 0.0);
-			}
-
-			// Template matching
-			resultado = new Mat(resultRows, resultCols, CvType.CV_32FC1);
-			Imgproc.matchTemplate(imagenROI, template, resultado, Imgproc.TM_CCOEFF_NORMED);
-
-			// Search for the best match
-			Core.MinMaxLocResult mmr = Core.minMaxLoc(resultado);
-			double matchPercentage = mmr.maxVal * 100.0;
-
-			if (matchPercentage < thresholdPercentage) {
-				logger.warn(formatLogMessage("Grayscale template " + templateResourcePath + " match percentage " + matchPercentage + " below threshold " + thresholdPercentage));
-				return new DTOImageSearchResult(false, null, matchPercentage);
-			}
-
-			// Calculate center point of the match (taking ROI into account)
-			int centerX = (int) (mmr.maxLoc.x + (double) template.cols() / 2 + roiX);
-			int centerY = (int) (mmr.maxLoc.y + (double) template.rows() / 2 + roiY);
-
-			return new DTOImageSearchResult(true, new DTOPoint(centerX, centerY), matchPercentage);
+			return searchBestMatch(imagenPrincipalGray, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, true, false);
 
 		} catch (Exception e) {
 			logger.error(formatLogMessage("Exception during grayscale template search"), e);
@@ -536,12 +810,34 @@ public class ImageSearchUtil {
 			// Explicit memory release for all Mat objects
 			if (imagenPrincipal != null) imagenPrincipal.release();
 			if (imagenPrincipalGray != null) imagenPrincipalGray.release();
-			if (template != null) template.release();
-			if (imagenROI != null) imagenROI.release();
-			if (resultado != null) resultado.release();
 		}
 	}
-	
+
+	/**
+	 * Performs a grayscale search for a template within an already captured raw frame.
+	 */
+	public static DTOImageSearchResult searchTemplateGrayscale(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+		return searchTemplateGrayscale(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, false);
+	}
+
+	/**
+	 * Performs a grayscale search for a template within an already captured raw frame.
+	 *
+	 * @param pyramid whether to locate candidates at half resolution and only match
+	 *                small full resolution windows around them, searching the whole
+	 *                ROI only when none of them reaches the threshold
+	 */
+	public static DTOImageSearchResult searchTemplateGrayscale(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, boolean pyramid) {
+		try {
+			return searchBestMatch(frame.getGrayMat(), templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, true, pyramid);
+		} catch (Exception e) {
+			logger.error(formatLogMessage("Exception during frame grayscale template search"), e);
+			return new DTOImageSearchResult(false, null, 0.0);
+		}
+	}
+
 	/**
 	 * Performs a grayscale search for multiple matches of a template within a main image.
 	 * Both the template and the image are converted to grayscale before matching.
@@ -550,135 +846,103 @@ public class ImageSearchUtil {
 			String templateResourcePath, DTOPoint topLeftCorner, DTOPoint bottomRightCorner,
 			double thresholdPercentage, int maxResults) {
 
-		List<DTOImageSearchResult> results = new ArrayList<>();
 		Mat mainImage = null;
 		Mat mainImageGray = null;
-		Mat template = null;
-		Mat imageROI = null;
-		Mat matchResult = null;
-		Mat resultCopy = null;
 
 		try {
-			// Quick ROI validation
-			int roiX = topLeftCorner.getX();
-			int roiY = topLeftCorner.getY();
-			int roiWidth = bottomRightCorner.getX() - topLeftCorner.getX();
-			int roiHeight = bottomRightCorner.getY() - topLeftCorner.getY();
-
-			if (roiWidth <= 0 || roiHeight <= 0) {
-				return results;
-			}
-
 			// Optimized decoding
-			MatOfByte matOfByte = new MatOfByte(image);
-			mainImage = Imgcodecs.imdecode(matOfByte, Imgcodecs.IMREAD_COLOR);
-
+			mainImage = decodeImage(image);
 			if (mainImage.empty()) {
-				return results;
+				return new ArrayList<>();
 			}
-			
+
 			// Convert to grayscale
 			mainImageGray = new Mat();
 			Imgproc.cvtColor(mainImage, mainImageGray, Imgproc.COLOR_BGR2GRAY);
 			mainImage.release();
 			mainImage = null;
 
-			// Load grayscale template with cache
-			template = loadTemplateGrayscale(templateResourcePath);
-			if (template.empty()) {
-				return results;
-			}
-
-			// Validations
-			if (roiX + roiWidth > mainImageGray.cols() || roiY + roiHeight > mainImageGray.rows()) {
-				return results;
-			}
-
-			// Create ROI
-			Rect roi = new Rect(roiX, roiY, roiWidth, roiHeight);
-			imageROI = new Mat(mainImageGray, roi);
-
-			int resultCols = imageROI.cols() - template.cols() + 1;
-			int resultRows = imageROI.rows() - template.rows() + 1;
-			if (resultCols <= 0 || resultRows <= 0) {
-				return results;
-			}
-
-			// Template matching
-			matchResult = new Mat(resultRows, resultCols, CvType.CV_32FC1);
-			Imgproc.matchTemplate(imageROI, template, matchResult, Imgproc.TM_CCOEFF_NORMED);
-
-			// Optimized search for multiple matches
-			double thresholdDecimal = thresholdPercentage / 100.0;
-			resultCopy = matchResult.clone();
-			int templateWidth = template.cols();
-			int templateHeight = template.rows();
-
-			// Pre-calculate for optimization
-			int halfTemplateWidth = templateWidth / 2;
-			int halfTemplateHeight = templateHeight / 2;
-
-			while (results.size() < maxResults || maxResults <= 0) {
-				Core.MinMaxLocResult mmr = Core.minMaxLoc(resultCopy);
-				double matchValue = mmr.maxVal;
-
-				if (matchValue < thresholdDecimal) {
-					break;
-				}
-
-				Point matchLoc = mmr.maxLoc;
-				double centerX = matchLoc.x + roi.x + halfTemplateWidth;
-				double centerY = matchLoc.y + roi.y + halfTemplateHeight;
-
-				results.add(new DTOImageSearchResult(true,
-					new DTOPoint((int) centerX, (int) centerY), matchValue * 100.0));
-
-				// Optimized suppression
-				int suppressX = Math.max(0, (int)matchLoc.x - halfTemplateWidth);
-				int suppressY = Math.max(0, (int)matchLoc.y - halfTemplateHeight);
-				int suppressWidth = Math.min(templateWidth, resultCopy.cols() - suppressX);
-				int suppressHeight = Math.min(templateHeight, resultCopy.rows() - suppressY);
-
-				if (suppressWidth > 0 && suppressHeight > 0) {
-					Rect suppressRect = new Rect(suppressX, suppressY, suppressWidth, suppressHeight);
-					Mat suppressArea = new Mat(resultCopy, suppressRect);
-					suppressArea.setTo(new org.opencv.core.Scalar(0));
-					suppressArea.release();
-				}
-			}
+			return searchAllMatches(mainImageGray, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, 0, true);
 
 		} catch (Exception e) {
 			logger.error(formatLogMessage("Exception during optimized multiple grayscale template search"), e);
+			return new ArrayList<>();
 		} finally {
 			// Explicit memory release
 			if (mainImage != null) mainImage.release();
 			if (mainImageGray != null) mainImageGray.release();
-			if (template != null) template.release();
-			if (imageROI != null) imageROI.release();
-			if (matchResult != null) matchResult.release();
-			if (resultCopy != null) resultCopy.release();
 		}
+	}
 
-		return results;
+	/**
+	 * Performs a grayscale search for multiple matches of a template within an already captured raw frame.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateGrayscaleMultiple(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults) {
+		return searchTemplateGrayscaleMultiple(frame, templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, 0);
+	}
+
+	/**
+	 * Performs a grayscale search for multiple matches of a template within an already captured raw frame.
+	 *
+	 * @param nmsRadius pixels suppressed around each match before looking for the next
+	 *                  one, or 0 to suppress an area the size of the template
+	 */
+	public static List<DTOImageSearchResult> searchTemplateGrayscaleMultiple(RawFrame frame, String templateResourcePath,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults, int nmsRadius) {
+		try {
+			return searchAllMatches(frame.getGrayMat(), templateResourcePath, topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults, nmsRadius, true);
+		} catch (Exception e) {
+			logger.error(formatLogMessage("Exception during frame multiple grayscale template search"), e);
+			return new ArrayList<>();
+		}
 	}
 
 	/**
 	 * Method for preloading common templates.
 	 */
 	public static void preloadTemplate(String templateResourcePath) {
-		openCVThreadPool.submit(() -> loadTemplateOptimized(templateResourcePath));
+		openCVThreadPool.submit(() -> {
+			templateUseLock.readLock().lock();
+			try {
+				loadTemplateOptimized(templateResourcePath);
+			} finally {
+				templateUseLock.readLock().unlock();
+			}
+		});
 	}
 
 	/**
 	 * Method to clear cache manually.
+	 * <p>
+	 * Waits for the searches in flight to finish, then releases the decoded templates.
 	 */
 	public static void clearCache() {
-		templateCache.values().forEach(Mat::release);
-		templateCache.clear();
-		grayscaleTemplateCache.values().forEach(Mat::release);
-		grayscaleTemplateCache.clear();
-		templateBytesCache.clear();
-		cacheInitialized = false;
+		templateUseLock.writeLock().lock();
+		try {
+			TemplatePack pack = templatePack;
+			releaseDecodedTemplates(templateCache, pack);
+			releaseDecodedTemplates(grayscaleTemplateCache, pack);
+			// Downscaled templates are always allocated, even with a pack
+			releaseDecodedTemplates(pyramidTemplateCache, null);
+			templateBytesCache.clear();
+			cacheInitialized = false;
+		} finally {
+			templateUseLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Empties a template cache, releasing the Mats that own their pixels. Mats over
+	 * the template pack only wrap the mapped file, which stays open.
+	 */
+	private static void releaseDecodedTemplates(ConcurrentHashMap<String, Mat> cache, TemplatePack pack) {
+		for (String templatePath : cache.keySet()) {
+			Mat template = cache.remove(templatePath);
+			if (template != null && (pack == null || !pack.contains(templatePath))) {
+				template.release();
+			}
+		}
 	}
 
 	/**
@@ -713,6 +977,38 @@ public class ImageSearchUtil {
 		return searchTemplateGrayscaleMultiple(image, enumTemplate.getTemplate(), topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
 	}
 
+	/**
+	 * Search for a template in a raw frame using the EnumTemplates enum directly.
+	 */
+	public static DTOImageSearchResult searchTemplate(RawFrame frame, EnumTemplates enumTemplate,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+		return searchTemplate(frame, enumTemplate.getTemplate(), topLeftCorner, bottomRightCorner, thresholdPercentage);
+	}
+
+	/**
+	 * Search for multiple templates in a raw frame using the EnumTemplates enum directly.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateMultiple(RawFrame frame, EnumTemplates enumTemplate,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults) {
+		return searchTemplateMultiple(frame, enumTemplate.getTemplate(), topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
+	}
+
+	/**
+	 * Search for a template in a raw frame using grayscale and the EnumTemplates enum directly.
+	 */
+	public static DTOImageSearchResult searchTemplateGrayscale(RawFrame frame, EnumTemplates enumTemplate,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage) {
+		return searchTemplateGrayscale(frame, enumTemplate.getTemplate(), topLeftCorner, bottomRightCorner, thresholdPercentage);
+	}
+
+	/**
+	 * Search for multiple templates in a raw frame using grayscale and the EnumTemplates enum directly.
+	 */
+	public static List<DTOImageSearchResult> searchTemplateGrayscaleMultiple(RawFrame frame, EnumTemplates enumTemplate,
+			DTOPoint topLeftCorner, DTOPoint bottomRightCorner, double thresholdPercentage, int maxResults) {
+		return searchTemplateGrayscaleMultiple(frame, enumTemplate.getTemplate(), topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
+	}
+
 	/**
 	 * Asynchronous version using enum.
 	 */
@@ -722,6 +1018,28 @@ public class ImageSearchUtil {
 		return searchTemplateMultipleAsync(image, enumTemplate.getTemplate(), topLeftCorner, bottomRightCorner, thresholdPercentage, maxResults);
 	}
 
+	/**
+	 * Enables or disables searching near the last known location of a template
+	 * before scanning the whole region of interest.
+	 */
+	public static void setLocationHintsEnabled(boolean enabled) {
+		locationIndex.setEnabled(enabled);
+	}
+
+	/**
+	 * Sets the game version that learned template locations are kept under.
+	 */
+	public static void setLocationHintsScope(String gameVersion) {
+		locationIndex.setScope(gameVersion);
+	}
+
+	/**
+	 * Gets the location hint index, to query hit/miss statistics or clear it.
+	 */
+	public static TemplateLocationIndex getLocationIndex() {
+		return locationIndex;
+	}
+
 	/**
 	 * Checks if the cache is fully initialized.
 	 */
@@ -733,8 +1051,26 @@ public class ImageSearchUtil {
 	 * Gets cache statistics.
 	 */
 	public static String getCacheStats() {
-		return String.format("Templates in cache: %d/%d, Bytes cache: %d",
-			templateCache.size(), EnumTemplates.values().length, templateBytesCache.size());
+		long lookups = templateLookups.sum();
+		long allocations = templateAllocations.sum();
+		return String.format("Templates in cache: %d/%d, Bytes cache: %d, Template allocations: %d over %d searches (%.3f per search), %s",
+			templateCache.size(), EnumTemplates.values().length, templateBytesCache.size(),
+			allocations, lookups, lookups == 0 ? 0.0 : (double) allocations / lookups, locationIndex);
+	}
+
+	/**
+	 * Gets the number of native template Mats created so far. Cached templates are
+	 * shared, so this stops growing once every template has been used once.
+	 */
+	public static long getTemplateAllocations() {
+		return templateAllocations.sum();
+	}
+
+	/**
+	 * Gets the number of template lookups made by searches.
+	 */
+	public static long getTemplateLookups() {
+		return templateLookups.sum();
 	}
 
 	public static void loadNativeLibrary(String resourcePath) throws IOException {
@@ -9,15 +9,29 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import javax.imageio.ImageIO;
 
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 
+import cl.camodev.utiles.image.RawFrame;
+import cl.camodev.utiles.metrics.HotPathMetrics;
+import cl.camodev.utiles.ocr.GlyphRecognizer;
+import cl.camodev.utiles.ocr.OcrResultCache;
+import cl.camodev.utiles.ocr.TesseractPool;
+import cl.camodev.wosbot.ot.DTOOcrRegion;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
-import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +40,19 @@ public class UtilOCR {
 
     private static final Logger log = LoggerFactory.getLogger(UtilOCR.class);
 
+    private static final GlyphRecognizer glyphRecognizer = new GlyphRecognizer();
+
+    // Where learned glyphs are saved, null to keep them in memory only
+    private static volatile Path glyphFile;
+
+    /**
+     * A read of a region that has not been found in the result cache.
+     */
+    @FunctionalInterface
+    private interface RegionRead {
+        String read() throws TesseractException;
+    }
+
     /**
      * Performs OCR on a specified region of a BufferedImage using Tesseract.
      * 
@@ -55,6 +82,341 @@ public class UtilOCR {
         }
 
         BufferedImage subImage = image.getSubimage(x, y, width, height);
+        return ocrSingleLine(subImage, language);
+    }
+
+    /**
+     * Performs OCR on a specified region of a BufferedImage using Tesseract with custom settings.
+     * 
+     * @param image    Buffered image to process.
+     * @param p1       Top-left point that defines the region.
+     * @param p2       Bottom-right point that defines the region.
+     * @param settings DTOTesseractSettings containing OCR configuration.
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the image is null or the specified region
+     *                                  is invalid.
+     */
+    public static String ocrFromRegion(BufferedImage image, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings)
+            throws TesseractException {
+        if (image == null) {
+            throw new IllegalArgumentException("Image cannot be null.");
+        }
+
+        int x = (int) java.lang.Math.min(p1.getX(), p2.getX());
+        int y = (int) java.lang.Math.min(p1.getY(), p2.getY());
+        int width = (int) java.lang.Math.abs(p1.getX() - p2.getX());
+        int height = (int) java.lang.Math.abs(p1.getY() - p2.getY());
+
+        if (x + width > image.getWidth() || y + height > image.getHeight()) {
+            throw new IllegalArgumentException("Specified region exceeds image bounds.");
+        }
+
+        // Stage 0: Raw captured region
+        BufferedImage rawImage = image.getSubimage(x, y, width, height);
+        return ocrWithSettings(rawImage, () -> image, settings);
+    }
+
+    /**
+     * Performs OCR on a specified region of a raw frame using Tesseract.
+     * Only the requested region is copied out of the frame.
+     *
+     * @param frame    Raw frame to process.
+     * @param p1       Top-left point that defines the region.
+     * @param p2       Bottom-right point that defines the region.
+     * @param language Language code for Tesseract.
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the frame is null or the specified region
+     *                                  is invalid.
+     */
+    public static String ocrFromRegion(RawFrame frame, DTOPoint p1, DTOPoint p2, String language)
+            throws TesseractException {
+        if (frame == null) {
+            throw new IllegalArgumentException("Image cannot be null.");
+        }
+        int x = Math.min(p1.getX(), p2.getX());
+        int y = Math.min(p1.getY(), p2.getY());
+        int width = Math.abs(p1.getX() - p2.getX());
+        int height = Math.abs(p1.getY() - p2.getY());
+
+        return cachedRead(frame, x, y, width, height, "line|" + language,
+                () -> ocrSingleLine(frame.toBufferedImage(x, y, width, height), language));
+    }
+
+    /**
+     * Performs OCR on a specified region of a raw frame using Tesseract with custom settings.
+     * Only the requested region is copied out of the frame.
+     *
+     * @param frame    Raw frame to process.
+     * @param p1       Top-left point that defines the region.
+     * @param p2       Bottom-right point that defines the region.
+     * @param settings DTOTesseractSettings containing OCR configuration.
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the frame is null or the specified region
+     *                                  is invalid.
+     */
+    public static String ocrFromRegion(RawFrame frame, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings)
+            throws TesseractException {
+        if (frame == null) {
+            throw new IllegalArgumentException("Image cannot be null.");
+        }
+        int x = Math.min(p1.getX(), p2.getX());
+        int y = Math.min(p1.getY(), p2.getY());
+        int width = Math.abs(p1.getX() - p2.getX());
+        int height = Math.abs(p1.getY() - p2.getY());
+
+        Color textColor = settings.isRemoveBackground() ? settings.getTextColor() : null;
+        RegionRead read = () -> ocrWithSettings(frame.toBufferedImage(x, y, width, height), frame::toBufferedImage, settings);
+        // Debug reads always run, since they are asked for their image dumps
+        if (settings.isDebug()) {
+            return read.read();
+        }
+        String mode = "settings|" + engineKey(settings) + "|" + (textColor != null ? textColor.getRGB() : "");
+        return cachedRead(frame, x, y, width, height, mode, read);
+    }
+
+    /**
+     * Performs OCR on several regions of the same raw frame. Regions are read in
+     * parallel, each on its own pooled Tesseract engine, so the batch takes about
+     * as long as its slowest region.
+     *
+     * @param frame    Raw frame to process.
+     * @param regions  Regions to read, with their optional Tesseract settings.
+     * @param language Language code for the regions without settings.
+     * @return Extracted text by region name, in the order of {@code regions}. The
+     *         text of a region whose read failed is null.
+     * @throws IllegalArgumentException If the frame is null.
+     */
+    public static Map<String, String> ocrFromRegions(RawFrame frame, List<DTOOcrRegion> regions, String language) {
+        if (frame == null) {
+            throw new IllegalArgumentException("Image cannot be null.");
+        }
+        Map<String, String> results = new LinkedHashMap<>();
+        if (regions.size() == 1) {
+            DTOOcrRegion region = regions.get(0);
+            try {
+                results.put(region.name(), ocrFromRegion(frame, region, language));
+            } catch (TesseractException | RuntimeException e) {
+                log.warn("OCR of region '{}' failed: {}", region.name(), e.getMessage());
+                results.put(region.name(), null);
+            }
+            return results;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = new ArrayList<>(regions.size());
+            for (DTOOcrRegion region : regions) {
+                futures.add(executor.submit(() -> ocrFromRegion(frame, region, language)));
+            }
+            for (int i = 0; i < regions.size(); i++) {
+                String name = regions.get(i).name();
+                try {
+                    results.put(name, futures.get(i).get());
+                } catch (ExecutionException e) {
+                    log.warn("OCR of region '{}' failed: {}", name, e.getCause().getMessage());
+                    results.put(name, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(future -> future.cancel(true));
+                    results.put(name, null);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static String ocrFromRegion(RawFrame frame, DTOOcrRegion region, String language) throws TesseractException {
+        return region.settings() != null
+                ? ocrFromRegion(frame, region.topLeft(), region.bottomRight(), region.settings())
+                : ocrFromRegion(frame, region.topLeft(), region.bottomRight(), language);
+    }
+
+    /**
+     * Reads a counter or timer, made only of characters of
+     * {@link GlyphRecognizer#ALPHABET}, from a region of a raw frame. The
+     * learned glyphs are tried first and Tesseract only reads the regions they
+     * are not conclusive about, which teaches the glyphs its results. While
+     * some allowed characters have no samples, only near exact glyph matches
+     * are accepted.
+     *
+     * @param frame        Raw frame to process.
+     * @param p1           Top-left point that defines the region.
+     * @param p2           Bottom-right point that defines the region.
+     * @param language     Language code for Tesseract.
+     * @param allowedChars Characters the region may hold, such as "0123456789/".
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the frame is null or the allowed
+     *                                  characters are outside the glyph alphabet.
+     */
+    public static String ocrDigitsFromRegion(RawFrame frame, DTOPoint p1, DTOPoint p2, String language, String allowedChars)
+            throws TesseractException {
+        if (frame == null) {
+            throw new IllegalArgumentException("Image cannot be null.");
+        }
+        if (!GlyphRecognizer.supports(allowedChars)) {
+            throw new IllegalArgumentException("Allowed characters must be within " + GlyphRecognizer.ALPHABET);
+        }
+        int x = Math.min(p1.getX(), p2.getX());
+        int y = Math.min(p1.getY(), p2.getY());
+        int width = Math.abs(p1.getX() - p2.getX());
+        int height = Math.abs(p1.getY() - p2.getY());
+
+        return cachedRead(frame, x, y, width, height, "digits|" + language + "|" + allowedChars,
+                () -> readDigits(frame, p1, p2, null, allowedChars,
+                        () -> ocrSingleLine(frame.toBufferedImage(x, y, width, height), language)));
+    }
+
+    /**
+     * Reads a counter or timer like {@link #ocrDigitsFromRegion(RawFrame, DTOPoint, DTOPoint, String, String)},
+     * falling back to a Tesseract read with custom settings. The whitelist of the settings
+     * gives the characters the region may hold, and the text colour, when the background
+     * is removed, separates the glyphs from the background.
+     *
+     * @param frame    Raw frame to process.
+     * @param p1       Top-left point that defines the region.
+     * @param p2       Bottom-right point that defines the region.
+     * @param settings DTOTesseractSettings containing OCR configuration.
+     * @return Extracted text from the specified region.
+     * @throws TesseractException       If an error occurs during OCR processing.
+     * @throws IllegalArgumentException If the frame is null or the whitelist of the
+     *                                  settings is outside the glyph alphabet.
+     */
+    public static String ocrDigitsFromRegion(RawFrame frame, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings)
+            throws TesseractException {
+        if (frame == null) {
+            throw new IllegalArgumentException("Image cannot be null.");
+        }
+        String allowedChars = settings.hasAllowedChars() ? settings.getAllowedChars() : null;
+        if (!GlyphRecognizer.supports(allowedChars)) {
+            throw new IllegalArgumentException("Allowed characters must be within " + GlyphRecognizer.ALPHABET);
+        }
+        int x = Math.min(p1.getX(), p2.getX());
+        int y = Math.min(p1.getY(), p2.getY());
+        int width = Math.abs(p1.getX() - p2.getX());
+        int height = Math.abs(p1.getY() - p2.getY());
+
+        Color textColor = settings.isRemoveBackground() ? settings.getTextColor() : null;
+        RegionRead read = () -> readDigits(frame, p1, p2, textColor, allowedChars,
+                () -> ocrWithSettings(frame.toBufferedImage(x, y, width, height), frame::toBufferedImage, settings));
+        // Debug reads skip the cache; their images are only dumped when Tesseract reads
+        if (settings.isDebug()) {
+            return read.read();
+        }
+        String mode = "digits|" + engineKey(settings) + "|" + (textColor != null ? textColor.getRGB() : "");
+        return cachedRead(frame, x, y, width, height, mode, read);
+    }
+
+    /**
+     * Reads a region with the learned glyphs, then with {@code tesseract} when they are
+     * not conclusive. Tesseract texts within the allowed characters are learned.
+     */
+    private static String readDigits(RawFrame frame, DTOPoint p1, DTOPoint p2, Color textColor, String allowedChars,
+            RegionRead tesseract) throws TesseractException {
+        String text = glyphRecognizer.read(frame, p1, p2, textColor, allowedChars);
+        if (text != null) {
+            return text;
+        }
+        text = tesseract.read();
+        // Only texts within the allowed characters are trusted as samples
+        if (text != null && text.replaceAll("\\s", "").chars().allMatch(c -> allowedChars.indexOf(c) >= 0)
+                && glyphRecognizer.learn(frame, p1, p2, textColor, text)) {
+            saveLearnedGlyphs();
+        }
+        return text;
+    }
+
+    /**
+     * Answers a read from the OCR result cache when the region pixels were already
+     * read in the same mode, and caches the result of {@code read} otherwise.
+     *
+     * @param mode Read mode and engine options; reads in different modes never share results.
+     */
+    private static String cachedRead(RawFrame frame, int x, int y, int width, int height, String mode, RegionRead read)
+            throws TesseractException {
+        if (!OcrResultCache.isEnabled()) {
+            return read.read();
+        }
+        OcrResultCache.Key key = new OcrResultCache.Key(frame.regionHash(x, y, width, height), mode);
+        String text = OcrResultCache.get(key);
+        if (text == null) {
+            text = read.read();
+            OcrResultCache.put(key, text);
+        }
+        return text;
+    }
+
+    /**
+     * Replaces the glyphs learned by the digit reads with the ones saved in {@code file},
+     * if it exists, and saves the glyphs learned from now on there. The glyph reads then
+     * start from the samples of previous sessions instead of learning them again.
+     */
+    public static void loadLearnedGlyphs(Path file) {
+        glyphFile = file;
+        glyphRecognizer.clear();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            log.info("Loaded {} glyph samples from {}", glyphRecognizer.load(file), file);
+        } catch (IOException e) {
+            log.warn("Could not load glyph samples from {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void saveLearnedGlyphs() {
+        Path file = glyphFile;
+        if (file == null) {
+            return;
+        }
+        try {
+            glyphRecognizer.save(file);
+        } catch (IOException e) {
+            log.warn("Could not save glyph samples to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Initialises the OCR engines used by the most common reads, so that the
+     * first reads of a session do not pay for loading the traineddata.
+     *
+     * @param language Language code of the plain single-line reads.
+     */
+    public static void warmUp(String language) {
+        TesseractPool.warmUp(
+                singleLineKey(language),
+                engineKey(DTOTesseractSettings.builder().build()),
+                engineKey(DTOTesseractSettings.builder().setAllowedChars("0123456789")
+                        .setPageSegMode(DTOTesseractSettings.PageSegMode.SINGLE_LINE).build()));
+    }
+
+    /**
+     * Engine of the plain single-line reads: single line segmentation, LSTM only.
+     */
+    private static TesseractPool.EngineKey singleLineKey(String language) {
+        return TesseractPool.key(language, 7, 1, null);
+    }
+
+    /**
+     * Engine of the reads with custom settings. Only the engine options are part of
+     * the key; background removal and debug dumps happen before the read.
+     */
+    private static TesseractPool.EngineKey engineKey(DTOTesseractSettings settings) {
+        return TesseractPool.key("eng",
+                settings.hasPageSegMode() ? settings.getPageSegMode() : null,
+                settings.hasOcrEngineMode() ? settings.getOcrEngineMode() : null,
+                settings.hasAllowedChars() ? settings.getAllowedChars() : null);
+    }
+
+    /**
+     * Upscales an already cropped region and runs single-line OCR on it.
+     */
+    private static String ocrSingleLine(BufferedImage subImage, String language) throws TesseractException {
+        long start = System.nanoTime();
+        int width = subImage.getWidth();
+        int height = subImage.getHeight();
 
         // Upscale x2 for clarity
         BufferedImage resizedImage = new BufferedImage(width * 2, height * 2, subImage.getType());
@@ -82,46 +444,23 @@ public class UtilOCR {
 //            e.printStackTrace();
 //        }
 
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath("lib/tesseract");
-        tesseract.setLanguage(language);
-
-        // Configurations to improve numeric OCR
-        tesseract.setPageSegMode(7); // single line
-        tesseract.setOcrEngineMode(1); // LSTM only
-
-        return tesseract.doOCR(resizedImage).replace("\n", "").replace("\r", "").trim();
+        String text = TesseractPool.read(singleLineKey(language), resizedImage).replace("\n", "").replace("\r", "").trim();
+        HotPathMetrics.recordLatency(HotPathMetrics.OCR, start);
+        return text;
     }
 
     /**
-     * Performs OCR on a specified region of a BufferedImage using Tesseract with custom settings.
-     * 
-     * @param image    Buffered image to process.
-     * @param p1       Top-left point that defines the region.
-     * @param p2       Bottom-right point that defines the region.
-     * @param settings DTOTesseractSettings containing OCR configuration.
-     * @return Extracted text from the specified region.
-     * @throws TesseractException       If an error occurs during OCR processing.
-     * @throws IllegalArgumentException If the image is null or the specified region
-     *                                  is invalid.
+     * Upscales an already cropped region, applies the optional preprocessing and runs OCR on it.
+     *
+     * @param rawImage  Cropped region to process.
+     * @param fullImage Supplier of the complete source image, only used when dumping debug images.
+     * @param settings  DTOTesseractSettings containing OCR configuration.
      */
-    public static String ocrFromRegion(BufferedImage image, DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings)
+    private static String ocrWithSettings(BufferedImage rawImage, Supplier<BufferedImage> fullImage, DTOTesseractSettings settings)
             throws TesseractException {
-        if (image == null) {
-            throw new IllegalArgumentException("Image cannot be null.");
-        }
-
-        int x = (int) java.lang.Math.min(p1.getX(), p2.getX());
-        int y = (int) java.lang.Math.min(p1.getY(), p2.getY());
-        int width = (int) java.lang.Math.abs(p1.getX() - p2.getX());
-        int height = (int) java.lang.Math.abs(p1.getY() - p2.getY());
-
-        if (x + width > image.getWidth() || y + height > image.getHeight()) {
-            throw new IllegalArgumentException("Specified region exceeds image bounds.");
-        }
-
-        // Stage 0: Raw captured region
-        BufferedImage rawImage = image.getSubimage(x, y, width, height);
+        long start = System.nanoTime();
+        int width = rawImage.getWidth();
+        int height = rawImage.getHeight();
 
         // Stage 1: Cutted/Upscaled x2 for clarity
         BufferedImage cuttedImage = new BufferedImage(width * 2, height * 2, rawImage.getType());
@@ -150,7 +489,7 @@ public class UtilOCR {
                 
                 // Save stage 0: raw (complete original image without cropping)
                 ByteArrayOutputStream baos0 = new java.io.ByteArrayOutputStream();
-                ImageIO.write(image, "png", baos0);
+                ImageIO.write(fullImage.get(), "png", baos0);
                 Path outputPath0 = tempDir.resolve(timestamp + "_0_raw.png");
                 Files.write(outputPath0, baos0.toByteArray());
                 
@@ -170,25 +509,9 @@ public class UtilOCR {
             }
         }
 
-        Tesseract tesseract = new Tesseract();
-        tesseract.setDatapath("lib/tesseract");
-        tesseract.setLanguage("eng");
-
-        // Apply optional settings if provided
-        if (settings.hasPageSegMode()) {
-            tesseract.setPageSegMode(settings.getPageSegMode());
-        }
-
-        if (settings.hasOcrEngineMode()) {
-            tesseract.setOcrEngineMode(settings.getOcrEngineMode());
-        }
-
-        // Apply allowed characters whitelist if provided
-        if (settings.hasAllowedChars()) {
-            tesseract.setVariable("tessedit_char_whitelist", settings.getAllowedChars());
-        }
-
-        return tesseract.doOCR(processedImage).replace("\n", "").replace("\r", "").trim();
+        String text = TesseractPool.read(engineKey(settings), processedImage).replace("\n", "").replace("\r", "").trim();
+        HotPathMetrics.recordLatency(HotPathMetrics.OCR, start);
+        return text;
     }
 
     /**
@@ -0,0 +1,199 @@
+package cl.camodev.utiles.image;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfFloat;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import cl.camodev.wosbot.ot.DTOArea;
+
+/**
+ * Counts the pixels of screen regions that belong to a set of named
+ * {@link ColorClass colour classes}, working on the shared BGR Mat of a
+ * {@link RawFrame} with OpenCV masks instead of per-pixel Java calls.
+ * <p>
+ * Classes are exclusive and tried in registration order: a pixel matching
+ * several of them is only counted for the first one. Register every class
+ * up front; an analyzer is then safe to share between threads.
+ * <pre>
+ * ColorAnalyzer analyzer = new ColorAnalyzer()
+ *         .register(ColorClass.rgbNear("background", 127, 173, 205, 20))
+ *         .register(ColorClass.dominantChannel("green", ColorClass.Channel.GREEN, 1.2, 100));
+ * ColorCounts counts = analyzer.analyze(frame, area, 1);
+ * </pre>
+ */
+public final class ColorAnalyzer {
+
+	private static final int HUE_BINS = 180;
+
+	private final Map<String, ColorClass> classes = new LinkedHashMap<>();
+
+	/**
+	 * Adds a colour class, after the ones already registered.
+	 *
+	 * @throws IllegalArgumentException if a class with the same name is already registered
+	 */
+	public ColorAnalyzer register(ColorClass colorClass) {
+		if (classes.putIfAbsent(colorClass.getName(), colorClass) != null) {
+			throw new IllegalArgumentException("Color class already registered: " + colorClass.getName());
+		}
+		return this;
+	}
+
+	/**
+	 * Analyses a region of the frame.
+	 *
+	 * @param area     region to analyse, both corners included; clipped to the frame
+	 * @param stepSize sample every {@code stepSize}-th pixel in each direction, 1 for all of them
+	 */
+	public ColorCounts analyze(RawFrame frame, DTOArea area, int stepSize) {
+		Planes planes = Planes.of(frame, area, stepSize);
+		if (planes == null) {
+			return ColorCounts.empty();
+		}
+
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		Mat claimed = Mat.zeros(planes.bgr().size(), CvType.CV_8UC1);
+		Mat mask = new Mat();
+		try {
+			for (ColorClass colorClass : classes.values()) {
+				colorClass.buildMask(planes, mask);
+				mask.setTo(new Scalar(0), claimed);
+				counts.put(colorClass.getName(), Core.countNonZero(mask));
+				Core.bitwise_or(claimed, mask, claimed);
+			}
+			return new ColorCounts(counts, (int) planes.bgr().total());
+		} finally {
+			claimed.release();
+			mask.release();
+			planes.release();
+		}
+	}
+
+	/**
+	 * Analyses several regions of the same frame.
+	 *
+	 * @return one result per region, in the same order
+	 */
+	public List<ColorCounts> analyze(RawFrame frame, List<DTOArea> areas, int stepSize) {
+		List<ColorCounts> results = new ArrayList<>(areas.size());
+		for (DTOArea area : areas) {
+			results.add(analyze(frame, area, stepSize));
+		}
+		return results;
+	}
+
+	/**
+	 * Finds the most frequent hue of a region from its HSV histogram, ignoring
+	 * greyish and dark pixels, whose hue is meaningless.
+	 *
+	 * @return the hue, from 0 to 179, or -1 if no pixel is saturated and bright enough
+	 */
+	public static int dominantHue(RawFrame frame, DTOArea area, int stepSize, int minSaturation, int minValue) {
+		Planes planes = Planes.of(frame, area, stepSize);
+		if (planes == null) {
+			return -1;
+		}
+
+		Mat colorful = new Mat();
+		Mat histogram = new Mat();
+		try {
+			Core.inRange(planes.hsv(), new Scalar(0, minSaturation, minValue), new Scalar(HUE_BINS - 1, 255, 255), colorful);
+			if (Core.countNonZero(colorful) == 0) {
+				return -1;
+			}
+			Imgproc.calcHist(List.of(planes.hsv()), new MatOfInt(0), colorful, histogram, new MatOfInt(HUE_BINS), new MatOfFloat(0, HUE_BINS));
+			return (int) Core.minMaxLoc(histogram).maxLoc.y;
+		} finally {
+			colorful.release();
+			histogram.release();
+			planes.release();
+		}
+	}
+
+	/**
+	 * Lazily derived views of one sampled region, shared by the masks of all classes.
+	 */
+	static final class Planes {
+		private final Mat bgr;
+		private Mat hsv;
+		private List<Mat> channels;
+
+		private Planes(Mat bgr) {
+			this.bgr = bgr;
+		}
+
+		/**
+		 * @return the sampled region, or null if it lies outside the frame
+		 */
+		static Planes of(RawFrame frame, DTOArea area, int stepSize) {
+			if (stepSize < 1) {
+				throw new IllegalArgumentException("Step size must be at least 1.");
+			}
+			int x1 = Math.max(0, area.topLeft().getX());
+			int y1 = Math.max(0, area.topLeft().getY());
+			int x2 = Math.min(frame.getWidth() - 1, area.bottomRight().getX());
+			int y2 = Math.min(frame.getHeight() - 1, area.bottomRight().getY());
+			if (x2 < x1 || y2 < y1) {
+				return null;
+			}
+
+			int columns = (x2 - x1) / stepSize + 1;
+			int rows = (y2 - y1) / stepSize + 1;
+			Mat source = frame.getBgrMat();
+			if (stepSize == 1) {
+				return new Planes(new Mat(source, new Rect(x1, y1, columns, rows)));
+			}
+
+			// Nearest neighbour with an exact integer ratio picks pixels x1, x1 + step, ...
+			// as a strided scan would; the last stride may be cut short by the frame edge
+			int width = Math.min(columns * stepSize, frame.getWidth() - x1);
+			int height = Math.min(rows * stepSize, frame.getHeight() - y1);
+			Mat region = new Mat(source, new Rect(x1, y1, width, height));
+			Mat sampled = new Mat();
+			Imgproc.resize(region, sampled, new Size(columns, rows), 0, 0, Imgproc.INTER_NEAREST);
+			region.release();
+			return new Planes(sampled);
+		}
+
+		Mat bgr() {
+			return bgr;
+		}
+
+		Mat hsv() {
+			if (hsv == null) {
+				hsv = new Mat();
+				Imgproc.cvtColor(bgr, hsv, Imgproc.COLOR_BGR2HSV);
+			}
+			return hsv;
+		}
+
+		Mat channel(int index) {
+			if (channels == null) {
+				channels = new ArrayList<>(3);
+				Core.split(bgr, channels);
+			}
+			return channels.get(index);
+		}
+
+		void release() {
+			bgr.release();
+			if (hsv != null) {
+				hsv.release();
+			}
+			if (channels != null) {
+				channels.forEach(Mat::release);
+			}
+		}
+	}
+}
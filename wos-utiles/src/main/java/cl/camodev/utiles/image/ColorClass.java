@@ -0,0 +1,113 @@
+package cl.camodev.utiles.image;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+
+/**
+ * Named set of colours that {@link ColorAnalyzer} counts pixels against.
+ * <p>
+ * Every class builds a binary mask of its pixels with whole-region OpenCV
+ * operations ({@code inRange}, {@code compare}), so no pixel is read from
+ * Java. Colour components are given in RGB order; hue follows the OpenCV
+ * convention of 0 to 179.
+ */
+public final class ColorClass {
+
+	/**
+	 * Colour channels of a BGR Mat, by index.
+	 */
+	public enum Channel {
+		BLUE(0),
+		GREEN(1),
+		RED(2);
+
+		private final int index;
+
+		Channel(int index) {
+			this.index = index;
+		}
+	}
+
+	@FunctionalInterface
+	interface MaskBuilder {
+		void build(ColorAnalyzer.Planes planes, Mat mask);
+	}
+
+	private final String name;
+	private final MaskBuilder maskBuilder;
+
+	private ColorClass(String name, MaskBuilder maskBuilder) {
+		if (name == null || name.isEmpty()) {
+			throw new IllegalArgumentException("Color class name cannot be empty.");
+		}
+		this.name = name;
+		this.maskBuilder = maskBuilder;
+	}
+
+	/**
+	 * Pixels whose every component lies within the given inclusive bounds.
+	 */
+	public static ColorClass rgbRange(String name, int minRed, int minGreen, int minBlue, int maxRed, int maxGreen, int maxBlue) {
+		Scalar lower = new Scalar(minBlue, minGreen, minRed);
+		Scalar upper = new Scalar(maxBlue, maxGreen, maxRed);
+		return new ColorClass(name, (planes, mask) -> Core.inRange(planes.bgr(), lower, upper, mask));
+	}
+
+	/**
+	 * Pixels whose every component differs from the reference colour by less than {@code tolerance}.
+	 */
+	public static ColorClass rgbNear(String name, int red, int green, int blue, int tolerance) {
+		int delta = tolerance - 1;
+		return rgbRange(name, red - delta, green - delta, blue - delta, red + delta, green + delta, blue + delta);
+	}
+
+	/**
+	 * Pixels whose hue, saturation and value lie within the given inclusive bounds.
+	 */
+	public static ColorClass hsvRange(String name, int minHue, int minSaturation, int minValue, int maxHue, int maxSaturation, int maxValue) {
+		Scalar lower = new Scalar(minHue, minSaturation, minValue);
+		Scalar upper = new Scalar(maxHue, maxSaturation, maxValue);
+		return new ColorClass(name, (planes, mask) -> Core.inRange(planes.hsv(), lower, upper, mask));
+	}
+
+	/**
+	 * Pixels where {@code channel} is above {@code minValue} and more than
+	 * {@code ratio} times the largest of the two other channels, e.g. green or
+	 * red text over a neutral background.
+	 */
+	public static ColorClass dominantChannel(String name, Channel channel, double ratio, int minValue) {
+		return new ColorClass(name, (planes, mask) -> {
+			Mat dominant = planes.channel(channel.index);
+			Mat others = new Mat();
+			Mat dominantF = new Mat();
+			Mat bright = new Mat();
+			try {
+				Core.max(planes.channel((channel.index + 1) % 3), planes.channel((channel.index + 2) % 3), others);
+				others.convertTo(others, CvType.CV_32F, ratio);
+				dominant.convertTo(dominantF, CvType.CV_32F);
+				Core.compare(dominantF, others, mask, Core.CMP_GT);
+				Core.compare(dominant, new Scalar(minValue), bright, Core.CMP_GT);
+				Core.bitwise_and(mask, bright, mask);
+			} finally {
+				others.release();
+				dominantF.release();
+				bright.release();
+			}
+		});
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	void buildMask(ColorAnalyzer.Planes planes, Mat mask) {
+		maskBuilder.build(planes, mask);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
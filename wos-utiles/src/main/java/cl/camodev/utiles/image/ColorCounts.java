@@ -0,0 +1,75 @@
+package cl.camodev.utiles.image;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of a {@link ColorAnalyzer} pass over one region: the number of
+ * sampled pixels falling in each registered colour class.
+ */
+public final class ColorCounts {
+
+	private final Map<String, Integer> counts;
+	private final int sampled;
+
+	ColorCounts(Map<String, Integer> counts, int sampled) {
+		this.counts = Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+		this.sampled = sampled;
+	}
+
+	/**
+	 * Counts of a region that could not be analysed.
+	 */
+	public static ColorCounts empty() {
+		return new ColorCounts(Map.of(), 0);
+	}
+
+	/**
+	 * @return the number of pixels of the given class, 0 for unknown classes
+	 */
+	public int get(String colorClass) {
+		return counts.getOrDefault(colorClass, 0);
+	}
+
+	/**
+	 * @return the number of pixels sampled in the region
+	 */
+	public int getSampled() {
+		return sampled;
+	}
+
+	/**
+	 * @return the fraction of sampled pixels of the given class, from 0 to 1
+	 */
+	public double getRatio(String colorClass) {
+		return sampled == 0 ? 0 : (double) get(colorClass) / sampled;
+	}
+
+	/**
+	 * @return the class with the most pixels, or null if no pixel matched any class
+	 */
+	public String getDominant() {
+		String dominant = null;
+		int best = 0;
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			if (entry.getValue() > best) {
+				best = entry.getValue();
+				dominant = entry.getKey();
+			}
+		}
+		return dominant;
+	}
+
+	/**
+	 * @return counts by class name, in registration order
+	 */
+	public Map<String, Integer> asMap() {
+		return counts;
+	}
+
+	@Override
+	public String toString() {
+		return "ColorCounts" + counts + " of " + sampled;
+	}
+}
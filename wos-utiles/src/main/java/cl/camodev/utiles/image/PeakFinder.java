@@ -0,0 +1,114 @@
+package cl.camodev.utiles.image;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+
+/**
+ * Extracts every match of a template from a {@code matchTemplate} response map
+ * in a single pass, instead of repeatedly looking for the global maximum and
+ * blanking it.
+ * <p>
+ * The response is thresholded by OpenCV and only the positions and scores of
+ * the pixels above the threshold are read back. Those candidates are sorted by
+ * score and filtered with the same greedy suppression the blanking loop did:
+ * the result is the peaks, in the order, that repeated {@code minMaxLoc} calls
+ * would have returned.
+ */
+public final class PeakFinder {
+
+	/**
+	 * A peak of the response map, in response map coordinates (top-left corner of the match).
+	 */
+	public record Peak(int x, int y, double score) {
+	}
+
+	private PeakFinder() {
+	}
+
+	/**
+	 * Finds the peaks of a single channel float response map.
+	 *
+	 * Every peak suppresses the {@code suppressWidth} x {@code suppressHeight}
+	 * box that starts {@code suppressHalfWidth} and {@code suppressHalfHeight}
+	 * before it, clipped to the map, and the next peak is the best remaining
+	 * point, ties going to the first one in row order.
+	 *
+	 * @param minScore lowest score kept, in the range of the response values; must be above 0
+	 * @param maxPeaks maximum number of peaks returned, or 0 or less for no limit
+	 * @return peaks sorted by score, best first
+	 */
+	public static List<Peak> findPeaks(Mat response, double minScore, int suppressHalfWidth, int suppressHalfHeight,
+			int suppressWidth, int suppressHeight, int maxPeaks) {
+		List<Peak> peaks = new ArrayList<>();
+		Mat aboveThreshold = new Mat();
+		MatOfPoint locations = new MatOfPoint();
+		try {
+			Core.compare(response, new Scalar(minScore), aboveThreshold, Core.CMP_GE);
+			Core.findNonZero(aboveThreshold, locations);
+			if (locations.empty()) {
+				return peaks;
+			}
+
+			// findNonZero lists the points in row order: read the scores of the rows
+			// they span in one call instead of one call per candidate
+			Point[] points = locations.toArray();
+			int firstRow = (int) points[0].y;
+			int lastRow = (int) points[points.length - 1].y;
+			int cols = response.cols();
+			float[] scores = new float[(lastRow - firstRow + 1) * cols];
+			Mat rows = response.rowRange(firstRow, lastRow + 1);
+			try {
+				rows.get(0, 0, scores);
+			} finally {
+				rows.release();
+			}
+
+			List<Peak> candidates = new ArrayList<>(points.length);
+			for (Point point : points) {
+				int x = (int) point.x;
+				int y = (int) point.y;
+				candidates.add(new Peak(x, y, scores[(y - firstRow) * cols + x]));
+			}
+			candidates.sort(Comparator.comparingDouble(Peak::score).reversed()
+					.thenComparingInt(Peak::y).thenComparingInt(Peak::x));
+
+			for (Peak candidate : candidates) {
+				if (maxPeaks > 0 && peaks.size() >= maxPeaks) {
+					break;
+				}
+				boolean suppressed = false;
+				for (Peak kept : peaks) {
+					if (inSuppressedBox(candidate.x(), kept.x(), suppressHalfWidth, suppressWidth, response.cols())
+							&& inSuppressedBox(candidate.y(), kept.y(), suppressHalfHeight, suppressHeight, response.rows())) {
+						suppressed = true;
+						break;
+					}
+				}
+				if (!suppressed) {
+					peaks.add(candidate);
+				}
+			}
+			return peaks;
+		} finally {
+			aboveThreshold.release();
+			locations.release();
+		}
+	}
+
+	/**
+	 * Checks one axis of the box blanked around a kept peak, clipped to the map
+	 * like the blanking rectangle was.
+	 */
+	private static boolean inSuppressedBox(int value, int keptValue, int half, int size, int limit) {
+		int start = Math.max(0, keptValue - half);
+		int length = Math.min(size, limit - start);
+		return value >= start && value < start + length;
+	}
+}
@@ -0,0 +1,108 @@
+package cl.camodev.utiles.image;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Bulk converters from the packed pixel layouts reported by the emulator
+ * framebuffer to OpenCV's 3-channel BGR.
+ * <p>
+ * Every conversion is a single bulk copy of the source buffer into a per-thread
+ * staging Mat followed by one native {@code cvtColor} swizzle, instead of a Java
+ * loop reading each channel of each pixel.
+ */
+public final class PixelLayoutConverter {
+
+	/**
+	 * Packed framebuffer layouts with a specialised conversion.
+	 */
+	public enum Layout {
+		/** Bytes R, G, B, A. */
+		RGBA_8888(4, CvType.CV_8UC4, Imgproc.COLOR_RGBA2BGR),
+		/** Bytes R, G, B, unused. Converted exactly like {@link #RGBA_8888}. */
+		RGBX_8888(4, CvType.CV_8UC4, Imgproc.COLOR_RGBA2BGR),
+		/** Bytes B, G, R, A. */
+		BGRA_8888(4, CvType.CV_8UC4, Imgproc.COLOR_BGRA2BGR),
+		/** Little-endian 16-bit words, red in the high 5 bits and blue in the low 5 bits. */
+		RGB_565(2, CvType.CV_8UC2, Imgproc.COLOR_BGR5652BGR);
+
+		private final int bytesPerPixel;
+		private final int packedType;
+		private final int conversionCode;
+
+		Layout(int bytesPerPixel, int packedType, int conversionCode) {
+			this.bytesPerPixel = bytesPerPixel;
+			this.packedType = packedType;
+			this.conversionCode = conversionCode;
+		}
+
+		public int getBytesPerPixel() {
+			return bytesPerPixel;
+		}
+
+		/**
+		 * Identifies a layout from the bit offsets and lengths of a framebuffer header.
+		 *
+		 * @return the matching layout, or null when the framebuffer needs the generic per-pixel path
+		 */
+		public static Layout detect(int bpp, int redOffset, int redLength, int greenOffset, int greenLength,
+				int blueOffset, int blueLength, int alphaLength) {
+			if (bpp == 32 && redLength == 8 && greenLength == 8 && blueLength == 8 && greenOffset == 8) {
+				if (redOffset == 0 && blueOffset == 16) {
+					return alphaLength == 0 ? RGBX_8888 : RGBA_8888;
+				}
+				if (redOffset == 16 && blueOffset == 0) {
+					return BGRA_8888;
+				}
+			}
+			if (bpp == 16 && redOffset == 11 && redLength == 5 && greenOffset == 5 && greenLength == 6
+					&& blueOffset == 0 && blueLength == 5) {
+				return RGB_565;
+			}
+			return null;
+		}
+	}
+
+	// Reused between frames of the same thread, reallocated only when the geometry changes
+	private static final ThreadLocal<Mat> stagingMat = ThreadLocal.withInitial(Mat::new);
+	private static final ThreadLocal<Mat> bgrScratchMat = ThreadLocal.withInitial(Mat::new);
+
+	private PixelLayoutConverter() {
+	}
+
+	/**
+	 * Converts a packed buffer into {@code dst} as CV_8UC3 BGR. {@code dst} is only
+	 * reallocated when its size or type does not match, so callers can reuse it
+	 * across frames.
+	 */
+	public static void toBgrMat(byte[] data, int width, int height, Layout layout, Mat dst) {
+		if (data.length < width * height * layout.getBytesPerPixel()) {
+			throw new IllegalArgumentException("Buffer too small for " + width + "x" + height + " " + layout);
+		}
+		Mat packed = stagingMat.get();
+		packed.create(height, width, layout.packedType);
+		packed.put(0, 0, data);
+		Imgproc.cvtColor(packed, dst, layout.conversionCode);
+	}
+
+	/**
+	 * Converts a packed buffer into a new tightly packed BGR byte array.
+	 */
+	public static byte[] toBgrBytes(byte[] data, int width, int height, Layout layout) {
+		byte[] bgr = new byte[width * height * 3];
+		toBgrBytes(data, width, height, layout, bgr);
+		return bgr;
+	}
+
+	/**
+	 * Converts a packed buffer into {@code target}, which must hold at least
+	 * {@code width * height * 3} bytes, e.g. the raster of a
+	 * {@link java.awt.image.BufferedImage#TYPE_3BYTE_BGR} image.
+	 */
+	public static void toBgrBytes(byte[] data, int width, int height, Layout layout, byte[] target) {
+		Mat bgr = bgrScratchMat.get();
+		toBgrMat(data, width, height, layout, bgr);
+		bgr.get(0, 0, target);
+	}
+}
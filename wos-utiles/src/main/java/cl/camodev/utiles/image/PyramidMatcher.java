@@ -0,0 +1,149 @@
+package cl.camodev.utiles.image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+import cl.camodev.wosbot.ot.DTOImageSearchResult;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * Coarse-to-fine template matching. The region of interest and the template are
+ * matched at half resolution to find a few candidate peaks, then only small
+ * full resolution windows around those peaks are matched with
+ * {@code TM_CCOEFF_NORMED}. The returned score and position therefore come from
+ * a full resolution match, like a plain search over the whole region.
+ * <p>
+ * A full resolution peak that is not among the coarse candidates is missed; the
+ * coarse score slack keeps that to very thin or very low contrast templates, and
+ * callers confirm a miss with a full resolution search. Pyramid mode therefore
+ * pays off for large templates that are usually present, where the coarse pass
+ * answers most searches.
+ */
+public final class PyramidMatcher {
+
+	// Templates smaller than this on either side once downscaled are left to the full search
+	private static final int MIN_COARSE_TEMPLATE_SIDE = 8;
+
+	// Coarse peaks refined at full resolution, best first
+	private static final int MAX_CANDIDATES = 3;
+
+	// Coarse scores run lower than full resolution ones; candidates this far below the threshold are still refined
+	private static final double COARSE_SCORE_SLACK = 0.15;
+
+	// Full resolution pixels searched around the upscaled position of a coarse peak
+	private static final int REFINE_PADDING = 4;
+
+	private PyramidMatcher() {
+	}
+
+	/**
+	 * Builds the half resolution template used by {@link #match}.
+	 */
+	public static Mat downscaleTemplate(Mat template) {
+		Mat coarse = new Mat();
+		Imgproc.pyrDown(template, coarse);
+		return coarse;
+	}
+
+	/**
+	 * Checks whether a template is big enough, and the region big enough for it, to
+	 * be matched at half resolution.
+	 */
+	public static boolean isApplicable(Mat template, Rect roi) {
+		return template.cols() / 2 >= MIN_COARSE_TEMPLATE_SIDE && template.rows() / 2 >= MIN_COARSE_TEMPLATE_SIDE
+				&& roi.width >= template.cols() && roi.height >= template.rows();
+	}
+
+	/**
+	 * Finds the best match of {@code template} inside {@code roi}.
+	 *
+	 * @param coarseTemplate the template as returned by {@link #downscaleTemplate}
+	 * @return the best refined match with its centre in image coordinates; not found,
+	 *         with the best refined score, when it is below the threshold
+	 */
+	public static DTOImageSearchResult match(Mat image, Rect roi, Mat template, Mat coarseTemplate, double thresholdPercentage) {
+		double thresholdDecimal = thresholdPercentage / 100.0;
+		List<Point> candidates = findCoarseCandidates(image, roi, coarseTemplate, thresholdDecimal - COARSE_SCORE_SLACK);
+
+		double bestScore = -1.0;
+		DTOPoint bestCenter = null;
+		for (Point candidate : candidates) {
+			int x1 = Math.max(roi.x, roi.x + (int) candidate.x * 2 - REFINE_PADDING);
+			int y1 = Math.max(roi.y, roi.y + (int) candidate.y * 2 - REFINE_PADDING);
+			int x2 = Math.min(roi.x + roi.width, roi.x + (int) candidate.x * 2 + template.cols() + REFINE_PADDING);
+			int y2 = Math.min(roi.y + roi.height, roi.y + (int) candidate.y * 2 + template.rows() + REFINE_PADDING);
+			if (x2 - x1 < template.cols() || y2 - y1 < template.rows()) {
+				continue;
+			}
+
+			Rect window = new Rect(x1, y1, x2 - x1, y2 - y1);
+			Mat windowMat = new Mat(image, window);
+			Mat result = new Mat();
+			try {
+				Imgproc.matchTemplate(windowMat, template, result, Imgproc.TM_CCOEFF_NORMED);
+				Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+				if (mmr.maxVal > bestScore) {
+					bestScore = mmr.maxVal;
+					bestCenter = new DTOPoint((int) (mmr.maxLoc.x + window.x + (template.cols() / 2.0)),
+							(int) (mmr.maxLoc.y + window.y + (template.rows() / 2.0)));
+				}
+			} finally {
+				windowMat.release();
+				result.release();
+			}
+		}
+
+		double matchPercentage = Math.max(bestScore, 0.0) * 100.0;
+		if (bestCenter == null || matchPercentage < thresholdPercentage) {
+			return new DTOImageSearchResult(false, null, matchPercentage);
+		}
+		return new DTOImageSearchResult(true, bestCenter, matchPercentage);
+	}
+
+	/**
+	 * @return top-left positions of the best coarse peaks in half resolution ROI
+	 *         coordinates; always at least the best one
+	 */
+	private static List<Point> findCoarseCandidates(Mat image, Rect roi, Mat coarseTemplate, double minScore) {
+		List<Point> candidates = new ArrayList<>(MAX_CANDIDATES);
+		Mat roiMat = new Mat(image, roi);
+		Mat coarseImage = new Mat();
+		Mat result = new Mat();
+		try {
+			Imgproc.pyrDown(roiMat, coarseImage);
+			if (coarseImage.cols() < coarseTemplate.cols() || coarseImage.rows() < coarseTemplate.rows()) {
+				return candidates;
+			}
+			Imgproc.matchTemplate(coarseImage, coarseTemplate, result, Imgproc.TM_CCOEFF_NORMED);
+
+			while (candidates.size() < MAX_CANDIDATES) {
+				Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+				if (!candidates.isEmpty() && mmr.maxVal < minScore) {
+					break;
+				}
+				candidates.add(mmr.maxLoc);
+
+				// Suppress the peak so the next candidate is a different spot
+				int suppressX = Math.max(0, (int) mmr.maxLoc.x - coarseTemplate.cols() / 2);
+				int suppressY = Math.max(0, (int) mmr.maxLoc.y - coarseTemplate.rows() / 2);
+				int suppressWidth = Math.min(coarseTemplate.cols(), result.cols() - suppressX);
+				int suppressHeight = Math.min(coarseTemplate.rows(), result.rows() - suppressY);
+				Mat suppressArea = new Mat(result, new Rect(suppressX, suppressY, suppressWidth, suppressHeight));
+				suppressArea.setTo(new Scalar(-1.0));
+				suppressArea.release();
+			}
+			return candidates;
+		} finally {
+			roiMat.release();
+			coarseImage.release();
+			result.release();
+		}
+	}
+}
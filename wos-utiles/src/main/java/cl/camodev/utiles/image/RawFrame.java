@@ -0,0 +1,271 @@
+package cl.camodev.utiles.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Uncompressed screen frame captured from an emulator.
+ * <p>
+ * Holds the raw pixel buffer exactly as produced by the capture path (no PNG
+ * encode/decode round trip) together with its geometry. Consumers such as
+ * {@code ImageSearchUtil} and {@code UtilOCR} read the pixels directly; the
+ * OpenCV views (colour and grayscale) are built lazily, once per frame, and
+ * shared by every search evaluated against it.
+ * <p>
+ * The Mats returned by this class are owned by the frame: callers may create
+ * ROI headers over them but must never write to or release them. Call
+ * {@link #release()} once the frame is no longer needed to free native memory
+ * eagerly.
+ */
+public final class RawFrame {
+
+	/**
+	 * Pixel layouts a frame buffer can be stored in.
+	 */
+	public enum PixelFormat {
+		BGR_888(3),
+		RGBA_8888(4);
+
+		private final int bytesPerPixel;
+
+		PixelFormat(int bytesPerPixel) {
+			this.bytesPerPixel = bytesPerPixel;
+		}
+
+		public int getBytesPerPixel() {
+			return bytesPerPixel;
+		}
+	}
+
+	private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private final byte[] data;
+	private final int width;
+	private final int height;
+	private final int stride;
+	private final PixelFormat format;
+	private final long captureTimeMillis;
+
+	private Mat bgrMat;
+	private Mat grayMat;
+
+	/**
+	 * Creates a frame over the given buffer. The buffer is not copied.
+	 *
+	 * @param data   pixel buffer, {@code stride * height} bytes at least
+	 * @param width  frame width in pixels
+	 * @param height frame height in pixels
+	 * @param stride number of bytes between the start of two consecutive rows
+	 * @param format layout of each pixel in {@code data}
+	 */
+	public RawFrame(byte[] data, int width, int height, int stride, PixelFormat format) {
+		if (data == null || format == null) {
+			throw new IllegalArgumentException("Frame data and format cannot be null.");
+		}
+		if (width <= 0 || height <= 0 || stride < width * format.getBytesPerPixel()) {
+			throw new IllegalArgumentException("Invalid frame geometry: " + width + "x" + height + ", stride " + stride);
+		}
+		if (data.length < stride * height) {
+			throw new IllegalArgumentException("Frame buffer too small for " + width + "x" + height);
+		}
+		this.data = data;
+		this.width = width;
+		this.height = height;
+		this.stride = stride;
+		this.format = format;
+		this.captureTimeMillis = System.currentTimeMillis();
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getStride() {
+		return stride;
+	}
+
+	public PixelFormat getFormat() {
+		return format;
+	}
+
+	public long getCaptureTimeMillis() {
+		return captureTimeMillis;
+	}
+
+	/**
+	 * Returns the frame as a 3-channel BGR Mat, building it on first use.
+	 * The returned Mat is shared and must be treated as read-only.
+	 */
+	public synchronized Mat getBgrMat() {
+		if (bgrMat == null) {
+			bgrMat = toBgrMat();
+		}
+		return bgrMat;
+	}
+
+	/**
+	 * Returns the frame as a single channel grayscale Mat, converting it on first
+	 * use so that any number of grayscale searches cost one colour conversion.
+	 * The returned Mat is shared and must be treated as read-only.
+	 */
+	public synchronized Mat getGrayMat() {
+		if (grayMat == null) {
+			grayMat = new Mat();
+			Imgproc.cvtColor(getBgrMat(), grayMat, Imgproc.COLOR_BGR2GRAY);
+		}
+		return grayMat;
+	}
+
+	private Mat toBgrMat() {
+		int bpp = format.getBytesPerPixel();
+		if (format == PixelFormat.RGBA_8888 && stride == width * bpp) {
+			Mat bgr = new Mat();
+			PixelLayoutConverter.toBgrMat(data, width, height, PixelLayoutConverter.Layout.RGBA_8888, bgr);
+			return bgr;
+		}
+
+		Mat packed = new Mat(height, width, bpp == 3 ? CvType.CV_8UC3 : CvType.CV_8UC4);
+		if (stride == width * bpp) {
+			packed.put(0, 0, data);
+		} else {
+			byte[] row = new byte[width * bpp];
+			for (int y = 0; y < height; y++) {
+				System.arraycopy(data, y * stride, row, 0, row.length);
+				packed.put(y, 0, row);
+			}
+		}
+
+		if (format == PixelFormat.BGR_888) {
+			return packed;
+		}
+		Mat bgr = new Mat();
+		Imgproc.cvtColor(packed, bgr, Imgproc.COLOR_RGBA2BGR);
+		packed.release();
+		return bgr;
+	}
+
+	/**
+	 * Returns the pixel at the given coordinates packed as {@code 0xRRGGBB},
+	 * matching {@link BufferedImage#getRGB(int, int)} without alpha.
+	 */
+	public int getRGB(int x, int y) {
+		int offset = y * stride + x * format.getBytesPerPixel();
+		int r, g, b;
+		if (format == PixelFormat.BGR_888) {
+			b = data[offset] & 0xFF;
+			g = data[offset + 1] & 0xFF;
+			r = data[offset + 2] & 0xFF;
+		} else {
+			r = data[offset] & 0xFF;
+			g = data[offset + 1] & 0xFF;
+			b = data[offset + 2] & 0xFF;
+		}
+		return (r << 16) | (g << 8) | b;
+	}
+
+	/**
+	 * Copies the given region into a new {@link BufferedImage#TYPE_3BYTE_BGR} image.
+	 *
+	 * @throws IllegalArgumentException if the region exceeds the frame bounds
+	 */
+	public BufferedImage toBufferedImage(int x, int y, int regionWidth, int regionHeight) {
+		if (x < 0 || y < 0 || regionWidth <= 0 || regionHeight <= 0 || x + regionWidth > width || y + regionHeight > height) {
+			throw new IllegalArgumentException("Specified region exceeds image bounds.");
+		}
+
+		BufferedImage image = new BufferedImage(regionWidth, regionHeight, BufferedImage.TYPE_3BYTE_BGR);
+		byte[] target = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+		int bpp = format.getBytesPerPixel();
+		int rowBytes = regionWidth * 3;
+
+		for (int row = 0; row < regionHeight; row++) {
+			int src = (y + row) * stride + x * bpp;
+			int dst = row * rowBytes;
+			if (format == PixelFormat.BGR_888) {
+				System.arraycopy(data, src, target, dst, rowBytes);
+			} else {
+				for (int col = 0; col < regionWidth; col++, src += bpp, dst += 3) {
+					target[dst] = data[src + 2];
+					target[dst + 1] = data[src + 1];
+					target[dst + 2] = data[src];
+				}
+			}
+		}
+		return image;
+	}
+
+	/**
+	 * 64 bit hash of the raw bytes of a region, read eight bytes at a time.
+	 * Equal regions of frames in the same format always hash equal; any changed
+	 * pixel changes the hash with overwhelming probability. Meant to detect
+	 * unchanged regions, not as a perceptual comparison.
+	 *
+	 * @throws IllegalArgumentException if the region exceeds the frame bounds
+	 */
+	public long regionHash(int x, int y, int regionWidth, int regionHeight) {
+		if (x < 0 || y < 0 || regionWidth <= 0 || regionHeight <= 0 || x + regionWidth > width || y + regionHeight > height) {
+			throw new IllegalArgumentException("Specified region exceeds image bounds.");
+		}
+		int rowBytes = regionWidth * format.getBytesPerPixel();
+		long hash = mix(((long) regionWidth << 32 | regionHeight) ^ format.ordinal());
+		for (int row = 0; row < regionHeight; row++) {
+			int offset = (y + row) * stride + x * format.getBytesPerPixel();
+			int end = offset + rowBytes;
+			for (; offset + Long.BYTES <= end; offset += Long.BYTES) {
+				hash = (hash ^ (long) LONG_VIEW.get(data, offset)) * HASH_MULTIPLIER;
+			}
+			for (; offset < end; offset++) {
+				hash = (hash ^ (data[offset] & 0xFF)) * HASH_MULTIPLIER;
+			}
+			hash = Long.rotateLeft(hash, 29);
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		hash ^= hash >>> 33;
+		hash *= 0xC4CEB9FE1A85EC53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Copies the whole frame into a new {@link BufferedImage#TYPE_3BYTE_BGR} image.
+	 */
+	public BufferedImage toBufferedImage() {
+		return toBufferedImage(0, 0, width, height);
+	}
+
+	/**
+	 * Releases the native memory held by this frame. The frame can still be used
+	 * afterwards; derived Mats are rebuilt on demand.
+	 */
+	public synchronized void release() {
+		if (bgrMat != null) {
+			bgrMat.release();
+			bgrMat = null;
+		}
+		if (grayMat != null) {
+			grayMat.release();
+			grayMat = null;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package cl.camodev.utiles.image;
+
+import java.util.Arrays;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Compact perceptual fingerprint of a screen, used to recognise which screen
+ * is shown without running template searches.
+ * <p>
+ * A few fixed probe regions, chosen on the UI chrome rather than on the game
+ * world, are shrunk to 9x8 grayscale thumbnails and turned into 64 bit
+ * difference hashes (each bit tells whether a pixel is brighter than its right
+ * neighbour). Two fingerprints are compared by the number of differing bits,
+ * which stays low across small animations and changing numbers.
+ */
+public final class ScreenFingerprint {
+
+	// Probe regions on the 720x1280 reference layout: x, y, width, height
+	private static final int[][] PROBES = {
+			{ 0, 0, 720, 120 },      // top bar
+			{ 0, 1160, 720, 120 },   // bottom bar
+			{ 560, 1040, 160, 240 }, // bottom right corner
+			{ 0, 120, 120, 720 },    // left side menu
+			{ 160, 440, 400, 400 },  // centre, where dialogs open
+			{ 0, 320, 720, 720 },    // band where the reconnect dialog opens
+	};
+
+	private static final int REFERENCE_WIDTH = 720;
+	private static final int REFERENCE_HEIGHT = 1280;
+
+	/**
+	 * Maximum value returned by {@link #distance(ScreenFingerprint)}.
+	 */
+	public static final int MAX_DISTANCE = PROBES.length * Long.SIZE;
+
+	/**
+	 * Index of the centre probe, the only one that covers the dialogs and popups
+	 * opened over a screen.
+	 */
+	public static final int CENTRE_PROBE = 4;
+
+	/**
+	 * Index of the probe covering the search region of the reconnect dialog.
+	 */
+	public static final int RECONNECT_PROBE = 5;
+
+	private final long[] hashes;
+
+	private ScreenFingerprint(long[] hashes) {
+		this.hashes = hashes;
+	}
+
+	/**
+	 * Computes the fingerprint of a frame from its shared grayscale plane.
+	 */
+	public static ScreenFingerprint of(RawFrame frame) {
+		Mat gray = frame.getGrayMat();
+		double scaleX = (double) frame.getWidth() / REFERENCE_WIDTH;
+		double scaleY = (double) frame.getHeight() / REFERENCE_HEIGHT;
+
+		long[] hashes = new long[PROBES.length];
+		Mat thumbnail = new Mat();
+		try {
+			for (int i = 0; i < PROBES.length; i++) {
+				int[] probe = PROBES[i];
+				Rect region = new Rect((int) (probe[0] * scaleX), (int) (probe[1] * scaleY),
+						Math.max(1, (int) (probe[2] * scaleX)), Math.max(1, (int) (probe[3] * scaleY)));
+				Mat probeMat = new Mat(gray, region);
+				Imgproc.resize(probeMat, thumbnail, new Size(9, 8), 0, 0, Imgproc.INTER_AREA);
+				probeMat.release();
+				hashes[i] = differenceHash(thumbnail);
+			}
+		} finally {
+			thumbnail.release();
+		}
+		return new ScreenFingerprint(hashes);
+	}
+
+	private static long differenceHash(Mat thumbnail) {
+		byte[] pixels = new byte[9 * 8];
+		thumbnail.get(0, 0, pixels);
+		long hash = 0;
+		for (int y = 0; y < 8; y++) {
+			for (int x = 0; x < 8; x++) {
+				int left = pixels[y * 9 + x] & 0xFF;
+				int right = pixels[y * 9 + x + 1] & 0xFF;
+				hash = (hash << 1) | (left > right ? 1 : 0);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the number of differing bits, from 0 (same screen) to {@link #MAX_DISTANCE}
+	 */
+	public int distance(ScreenFingerprint other) {
+		int distance = 0;
+		for (int i = 0; i < hashes.length; i++) {
+			distance += Long.bitCount(hashes[i] ^ other.hashes[i]);
+		}
+		return distance;
+	}
+
+	/**
+	 * @return the number of differing bits of a single probe, from 0 to 64
+	 */
+	public int probeDistance(ScreenFingerprint other, int probe) {
+		return Long.bitCount(hashes[probe] ^ other.hashes[probe]);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ScreenFingerprint other && Arrays.equals(hashes, other.hashes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(hashes);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("ScreenFingerprint[");
+		for (int i = 0; i < hashes.length; i++) {
+			builder.append(i == 0 ? "" : " ").append(String.format("%016x", hashes[i]));
+		}
+		return builder.append(']').toString();
+	}
+}
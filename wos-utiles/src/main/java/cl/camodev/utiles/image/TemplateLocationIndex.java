@@ -0,0 +1,208 @@
+package cl.camodev.utiles.image;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.opencv.core.Rect;
+
+/**
+ * Remembers where each template was last found so single-match searches can
+ * look in a small padded window around those spots before scanning the whole
+ * region of interest.
+ * <p>
+ * Entries are keyed by the template path and match mode, within the current
+ * scope (the game version, since layouts can differ between versions). Only the
+ * most recent distinct spots of a template are kept.
+ */
+public final class TemplateLocationIndex {
+
+	// Distinct spots remembered per template, most recent first
+	private static final int MAX_SPOTS = 3;
+
+	// Hits closer than this to a known spot refresh it instead of adding a new one
+	private static final int SAME_SPOT_DISTANCE = 8;
+
+	// Extra pixels searched around the template on each side of a known spot
+	private static final int WINDOW_PADDING = 24;
+
+	// Hinted windows may cover at most this fraction of the ROI in total, so a
+	// miss costs little on top of the full search that follows it
+	private static final double MAX_WINDOW_AREA_FRACTION = 0.25;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final LongAdder hintedHits = new LongAdder();
+	private final LongAdder hintedMisses = new LongAdder();
+	private final LongAdder unhintedSearches = new LongAdder();
+
+	private volatile boolean enabled = true;
+	private volatile String scope = "";
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turns hinted searches on or off. Recorded spots are kept.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Sets the scope that every key is namespaced with, e.g. the game version.
+	 */
+	public void setScope(String scope) {
+		this.scope = scope == null ? "" : scope;
+	}
+
+	/**
+	 * Returns the windows to try before a full search, clipped to {@code roi} and
+	 * most recent spot first. Windows that cannot contain the template are skipped,
+	 * and windows stop being added once they cover a quarter of the ROI: beyond
+	 * that, a hinted search saves too little to be worth the cost of a miss.
+	 *
+	 * @return at most {@value #MAX_SPOTS} windows, empty when the template has no
+	 *         known spot inside the ROI or the ROI is barely larger than a window
+	 */
+	public List<Rect> windowsFor(String key, Rect roi, int templateWidth, int templateHeight) {
+		Entry entry = enabled ? entries.get(scoped(key)) : null;
+		if (entry == null) {
+			return List.of();
+		}
+
+		List<Rect> windows = new ArrayList<>(MAX_SPOTS);
+		double areaBudget = roi.area() * MAX_WINDOW_AREA_FRACTION;
+		double area = 0;
+		for (int[] spot : entry.spots()) {
+			int x1 = Math.max(roi.x, spot[0] - templateWidth / 2 - WINDOW_PADDING);
+			int y1 = Math.max(roi.y, spot[1] - templateHeight / 2 - WINDOW_PADDING);
+			int x2 = Math.min(roi.x + roi.width, spot[0] + (templateWidth + 1) / 2 + WINDOW_PADDING);
+			int y2 = Math.min(roi.y + roi.height, spot[1] + (templateHeight + 1) / 2 + WINDOW_PADDING);
+			if (x2 - x1 >= templateWidth && y2 - y1 >= templateHeight) {
+				area += (double) (x2 - x1) * (y2 - y1);
+				if (area > areaBudget) {
+					break;
+				}
+				windows.add(new Rect(x1, y1, x2 - x1, y2 - y1));
+			}
+		}
+		return windows;
+	}
+
+	/**
+	 * Records where a template was found, given the centre of the match.
+	 */
+	public void recordHit(String key, int centerX, int centerY) {
+		if (enabled) {
+			entries.computeIfAbsent(scoped(key), k -> new Entry()).record(centerX, centerY);
+		}
+	}
+
+	/**
+	 * Counts a search that was answered by one of the hinted windows.
+	 */
+	public void countHintedHit(String key) {
+		hintedHits.increment();
+		Entry entry = entries.get(scoped(key));
+		if (entry != null) {
+			entry.hits.increment();
+		}
+	}
+
+	/**
+	 * Counts a search whose hinted windows missed and that fell back to the full ROI.
+	 */
+	public void countHintedMiss(String key) {
+		hintedMisses.increment();
+		Entry entry = entries.get(scoped(key));
+		if (entry != null) {
+			entry.misses.increment();
+		}
+	}
+
+	/**
+	 * Counts a search that had no hint and went straight to the full ROI.
+	 */
+	public void countUnhintedSearch() {
+		unhintedSearches.increment();
+	}
+
+	public long getHintedHits() {
+		return hintedHits.sum();
+	}
+
+	public long getHintedMisses() {
+		return hintedMisses.sum();
+	}
+
+	public long getUnhintedSearches() {
+		return unhintedSearches.sum();
+	}
+
+	/**
+	 * @return the fraction of hinted searches answered by a window, or 0 if none was hinted
+	 */
+	public double getHitRate() {
+		long hits = hintedHits.sum();
+		long total = hits + hintedMisses.sum();
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	/**
+	 * @return hits and misses of every template that has been hinted at least once, by key
+	 */
+	public Map<String, long[]> getTemplateStats() {
+		Map<String, long[]> stats = new TreeMap<>();
+		entries.forEach((key, entry) -> {
+			long hits = entry.hits.sum();
+			long misses = entry.misses.sum();
+			if (hits + misses > 0) {
+				stats.put(key, new long[] { hits, misses });
+			}
+		});
+		return stats;
+	}
+
+	/**
+	 * Forgets every spot and resets the statistics.
+	 */
+	public void clear() {
+		entries.clear();
+		hintedHits.reset();
+		hintedMisses.reset();
+		unhintedSearches.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Location hints: %d hits, %d misses (%.1f%% hit rate), %d unhinted searches, %d templates indexed",
+				getHintedHits(), getHintedMisses(), getHitRate() * 100.0, getUnhintedSearches(), entries.size());
+	}
+
+	private String scoped(String key) {
+		return scope + "|" + key;
+	}
+
+	private static final class Entry {
+		private final LinkedList<int[]> spots = new LinkedList<>();
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+
+		synchronized List<int[]> spots() {
+			return new ArrayList<>(spots);
+		}
+
+		synchronized void record(int x, int y) {
+			spots.removeIf(spot -> Math.abs(spot[0] - x) <= SAME_SPOT_DISTANCE && Math.abs(spot[1] - y) <= SAME_SPOT_DISTANCE);
+			spots.addFirst(new int[] { x, y });
+			if (spots.size() > MAX_SPOTS) {
+				spots.removeLast();
+			}
+		}
+	}
+}
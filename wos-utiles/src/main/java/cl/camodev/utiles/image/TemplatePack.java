@@ -0,0 +1,136 @@
+package cl.camodev.utiles.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * Read-only view over the template pack produced by {@link TemplatePackWriter}:
+ * raw BGR and gray pixel planes of every template behind an offset index.
+ * <p>
+ * The pack is memory-mapped and the Mats handed out wrap the mapped pages
+ * directly, so templates are available without any PNG decoding and their
+ * memory is shared and paged by the OS. Those Mats do not own their pixels:
+ * they must never be written to nor released, and stay valid as long as the
+ * pack is reachable.
+ */
+public final class TemplatePack {
+
+	public static final String RESOURCE = "/templates.pack";
+
+	static final int MAGIC = 0x574F5450; // "WOTP"
+	static final int VERSION = 1;
+
+	private final MappedByteBuffer buffer;
+	private final Map<String, int[]> geometry = new HashMap<>();
+	private final Map<String, Integer> dataOffsets = new HashMap<>();
+
+	private TemplatePack(MappedByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("Not a template pack of version " + VERSION);
+		}
+		int count = buffer.getInt(8);
+		int indexSize = buffer.getInt(12);
+		int dataStart = 16 + indexSize;
+
+		ByteBuffer index = buffer.duplicate().position(16).limit(dataStart);
+		for (int i = 0; i < count; i++) {
+			byte[] path = new byte[index.getShort()];
+			index.get(path);
+			int width = index.getInt();
+			int height = index.getInt();
+			long offset = index.getLong();
+			String resourcePath = new String(path, StandardCharsets.UTF_8);
+			geometry.put(resourcePath, new int[] { width, height });
+			dataOffsets.put(resourcePath, Math.toIntExact(dataStart + offset));
+		}
+	}
+
+	/**
+	 * Opens the pack shipped on the classpath. A pack inside a jar is copied once
+	 * to a temporary file so that it can be mapped.
+	 *
+	 * @return the pack, or null if the build did not produce one
+	 */
+	public static TemplatePack openFromClasspath() throws IOException {
+		URL url = TemplatePack.class.getResource(RESOURCE);
+		if (url == null) {
+			return null;
+		}
+
+		Path file;
+		if ("file".equals(url.getProtocol())) {
+			try {
+				file = Paths.get(url.toURI());
+			} catch (URISyntaxException e) {
+				throw new IOException("Invalid template pack location " + url, e);
+			}
+		} else {
+			file = Files.createTempFile("wosbot-templates", ".pack");
+			file.toFile().deleteOnExit();
+			try (InputStream in = url.openStream()) {
+				Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		return open(file);
+	}
+
+	/**
+	 * Maps a pack file read-only.
+	 */
+	public static TemplatePack open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new TemplatePack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public Set<String> getTemplatePaths() {
+		return geometry.keySet();
+	}
+
+	public boolean contains(String templateResourcePath) {
+		return geometry.containsKey(templateResourcePath);
+	}
+
+	/**
+	 * @return a BGR Mat over the mapped pixels, or null if the template is not packed
+	 */
+	public Mat colorTemplate(String templateResourcePath) {
+		int[] size = geometry.get(templateResourcePath);
+		if (size == null) {
+			return null;
+		}
+		int offset = dataOffsets.get(templateResourcePath);
+		return new Mat(size[1], size[0], CvType.CV_8UC3, buffer.slice(offset, size[0] * size[1] * 3));
+	}
+
+	/**
+	 * @return a grayscale Mat over the mapped pixels, or null if the template is not packed
+	 */
+	public Mat grayscaleTemplate(String templateResourcePath) {
+		int[] size = geometry.get(templateResourcePath);
+		if (size == null) {
+			return null;
+		}
+		int offset = dataOffsets.get(templateResourcePath) + size[0] * size[1] * 3;
+		return new Mat(size[1], size[0], CvType.CV_8UC1, buffer.slice(offset, size[0] * size[1]));
+	}
+}
@@ -0,0 +1,122 @@
+package cl.camodev.utiles.image;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Build-time tool that packs every PNG under a templates folder into a single
+ * {@link TemplatePack} file. Run by the wos-serv build, which owns the template
+ * resources; pure Java, so no OpenCV native library is needed at build time.
+ * <p>
+ * Usage: {@code TemplatePackWriter <resources root> <templates folder> <output file>}.
+ * Entries are keyed by their classpath path, e.g. {@code /templates/city.png}.
+ */
+public final class TemplatePackWriter {
+
+	private TemplatePackWriter() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			throw new IllegalArgumentException("Usage: TemplatePackWriter <resources root> <templates folder> <output file>");
+		}
+		Path resourcesRoot = Paths.get(args[0]);
+		Path templatesFolder = Paths.get(args[1]);
+		Path output = Paths.get(args[2]);
+
+		List<Path> pngs;
+		try (Stream<Path> files = Files.walk(templatesFolder)) {
+			pngs = files.filter(path -> path.toString().toLowerCase().endsWith(".png")).sorted().toList();
+		}
+
+		List<Entry> entries = new ArrayList<>(pngs.size());
+		for (Path png : pngs) {
+			BufferedImage image = ImageIO.read(png.toFile());
+			if (image == null) {
+				System.err.println("Skipping unreadable template " + png);
+				continue;
+			}
+			String resourcePath = "/" + resourcesRoot.relativize(png).toString().replace('\\', '/');
+			entries.add(new Entry(resourcePath, image));
+		}
+
+		Files.createDirectories(output.toAbsolutePath().getParent());
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+			write(entries, out);
+		}
+		System.out.println("Packed " + entries.size() + " templates into " + output);
+	}
+
+	private static void write(List<Entry> entries, OutputStream out) throws IOException {
+		// Index first, so data offsets can be computed from its size
+		ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+		DataOutputStream index = new DataOutputStream(indexBytes);
+		long dataOffset = 0;
+		for (Entry entry : entries) {
+			byte[] path = entry.path.getBytes(StandardCharsets.UTF_8);
+			index.writeShort(path.length);
+			index.write(path);
+			index.writeInt(entry.width);
+			index.writeInt(entry.height);
+			index.writeLong(dataOffset);
+			dataOffset += (long) entry.width * entry.height * 4;
+		}
+		index.flush();
+
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(TemplatePack.MAGIC);
+		data.writeInt(TemplatePack.VERSION);
+		data.writeInt(entries.size());
+		data.writeInt(indexBytes.size());
+		indexBytes.writeTo(data);
+
+		// Per entry: BGR plane (CV_8UC3) followed by its gray plane (CV_8UC1)
+		for (Entry entry : entries) {
+			data.write(entry.bgr);
+			data.write(entry.gray);
+		}
+		data.flush();
+	}
+
+	private static final class Entry {
+		private final String path;
+		private final int width;
+		private final int height;
+		private final byte[] bgr;
+		private final byte[] gray;
+
+		Entry(String path, BufferedImage image) {
+			this.path = path;
+			this.width = image.getWidth();
+			this.height = image.getHeight();
+			this.bgr = new byte[width * height * 3];
+			this.gray = new byte[width * height];
+
+			int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+			for (int i = 0; i < argb.length; i++) {
+				// Alpha is dropped, as imdecode does with IMREAD_COLOR
+				int r = (argb[i] >> 16) & 0xFF;
+				int g = (argb[i] >> 8) & 0xFF;
+				int b = argb[i] & 0xFF;
+				bgr[i * 3] = (byte) b;
+				bgr[i * 3 + 1] = (byte) g;
+				bgr[i * 3 + 2] = (byte) r;
+				// Same fixed point coefficients as cvtColor COLOR_BGR2GRAY
+				gray[i] = (byte) ((r * 4899 + g * 9617 + b * 1868 + (1 << 13)) >> 14);
+			}
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package cl.camodev.utiles.metrics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process wide registry of the latencies and counters of the bot hot paths:
+ * screen captures, template searches, OCR reads, ADB input and task runs.
+ * <p>
+ * Call sites take {@link System#nanoTime()} before the measured work and
+ * hand it to {@code record*} afterwards. Recorders are created on first use
+ * and never removed, so recording is a map lookup plus lock-free adders.
+ */
+public final class HotPathMetrics {
+
+	public static final String CAPTURE = "capture";
+	public static final String OCR = "ocr";
+	public static final String INPUT = "input";
+	public static final String TASK = "task";
+
+	private static final ConcurrentHashMap<String, LatencyRecorder> latencies = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<String, TemplateSearchStats> templates = new ConcurrentHashMap<>();
+
+	private static volatile boolean enabled = true;
+
+	private HotPathMetrics() {
+	}
+
+	/**
+	 * Turns recording on or off. Already recorded values are kept.
+	 */
+	public static void setEnabled(boolean enabled) {
+		HotPathMetrics.enabled = enabled;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Records the time elapsed since {@code startNanos} under {@code name}, e.g.
+	 * {@code "capture"} or {@code "task:Arena"}.
+	 */
+	public static void recordLatency(String name, long startNanos) {
+		if (!enabled) {
+			return;
+		}
+		long elapsed = System.nanoTime() - startNanos;
+		LatencyRecorder recorder = latencies.get(name);
+		if (recorder == null) {
+			recorder = latencies.computeIfAbsent(name, key -> new LatencyRecorder());
+		}
+		recorder.record(elapsed);
+	}
+
+	public static void increment(String counter) {
+		if (!enabled) {
+			return;
+		}
+		LongAdder adder = counters.get(counter);
+		if (adder == null) {
+			adder = counters.computeIfAbsent(counter, key -> new LongAdder());
+		}
+		adder.increment();
+	}
+
+	/**
+	 * Records one template search started at {@code startNanos}.
+	 *
+	 * @param mode  search variant, e.g. {@code "color"} or {@code "gray-multi"}
+	 * @param score best match percentage seen, found or not
+	 */
+	public static void recordTemplateSearch(String template, String mode, long startNanos, boolean found, double score) {
+		if (!enabled) {
+			return;
+		}
+		long elapsed = System.nanoTime() - startNanos;
+		String key = mode + "|" + template;
+		TemplateSearchStats stats = templates.get(key);
+		if (stats == null) {
+			stats = templates.computeIfAbsent(key, k -> new TemplateSearchStats(template, mode));
+		}
+		stats.record(elapsed, found, score);
+	}
+
+	/**
+	 * @return latency snapshots by name, sorted by name
+	 */
+	public static Map<String, LatencyRecorder.Snapshot> getLatencies() {
+		Map<String, LatencyRecorder.Snapshot> snapshots = new TreeMap<>();
+		latencies.forEach((name, recorder) -> snapshots.put(name, recorder.snapshot()));
+		return snapshots;
+	}
+
+	/**
+	 * @return counter values by name, sorted by name
+	 */
+	public static Map<String, Long> getCounters() {
+		Map<String, Long> values = new TreeMap<>();
+		counters.forEach((name, adder) -> values.put(name, adder.sum()));
+		return values;
+	}
+
+	/**
+	 * @return per template statistics, most time consuming first
+	 */
+	public static List<TemplateSearchStats.Snapshot> getTemplateStats() {
+		List<TemplateSearchStats.Snapshot> snapshots = new ArrayList<>(templates.size());
+		templates.values().forEach(stats -> snapshots.add(stats.snapshot()));
+		snapshots.sort(Comparator.comparingDouble((TemplateSearchStats.Snapshot s) -> s.latency().meanMillis() * s.searches()).reversed());
+		return snapshots;
+	}
+
+	/**
+	 * Human readable report of every recorder, counter and template.
+	 */
+	public static String report() {
+		StringBuilder report = new StringBuilder();
+		report.append("Hot path metrics at ").append(LocalDateTime.now()).append(System.lineSeparator());
+
+		report.append(System.lineSeparator()).append(String.format("%-40s %10s %10s %10s %10s %10s %10s%n",
+				"LATENCY (ms)", "count", "mean", "p50", "p95", "p99", "max"));
+		getLatencies().forEach((name, s) -> report.append(String.format("%-40s %10d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+				name, s.count(), s.meanMillis(), s.p50Millis(), s.p95Millis(), s.p99Millis(), s.maxMillis())));
+
+		report.append(System.lineSeparator()).append(String.format("%-40s %10s%n", "COUNTER", "value"));
+		getCounters().forEach((name, value) -> report.append(String.format("%-40s %10d%n", name, value)));
+
+		report.append(System.lineSeparator()).append(String.format("%-60s %-12s %8s %8s %8s %10s %10s%n",
+				"TEMPLATE", "mode", "searches", "hit %", "score", "mean ms", "p95 ms"));
+		for (TemplateSearchStats.Snapshot s : getTemplateStats()) {
+			report.append(String.format("%-60s %-12s %8d %8.1f %8.2f %10.2f %10.2f%n", s.template(), s.mode(), s.searches(),
+					s.hitRate() * 100.0, s.meanScore(), s.latency().meanMillis(), s.latency().p95Millis()));
+		}
+		return report.toString();
+	}
+
+	/**
+	 * Forgets every recorded value.
+	 */
+	public static void reset() {
+		latencies.clear();
+		counters.clear();
+		templates.clear();
+	}
+}
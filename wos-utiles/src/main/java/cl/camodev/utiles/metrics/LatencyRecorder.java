@@ -0,0 +1,86 @@
+package cl.camodev.utiles.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of two buckets, from one
+ * microsecond up to more than an hour.
+ * <p>
+ * Recording is a handful of {@link LongAdder} increments, so it can sit on
+ * hot paths shared by several emulator threads. Percentiles are approximate:
+ * they report the upper bound of the bucket they fall in, capped by the
+ * largest recorded value.
+ */
+public final class LatencyRecorder {
+
+	private static final int BUCKETS = 32;
+
+	/**
+	 * Point in time view of a recorder, in milliseconds.
+	 */
+	public record Snapshot(long count, double meanMillis, double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+	}
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+	public LatencyRecorder() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void record(long nanos) {
+		long micros = Math.max(1, nanos / 1000);
+		int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+		buckets[bucket].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		double maxMillis = maxNanos.get() / 1_000_000.0;
+		if (total == 0) {
+			return new Snapshot(0, 0, 0, 0, 0, 0);
+		}
+		double meanMillis = totalNanos.sum() / 1_000_000.0 / count.sum();
+		return new Snapshot(total, meanMillis, percentile(counts, total, 0.50, maxMillis),
+				percentile(counts, total, 0.95, maxMillis), percentile(counts, total, 0.99, maxMillis), maxMillis);
+	}
+
+	private static double percentile(long[] counts, long total, double quantile, double maxMillis) {
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				// Bucket i holds values below 2^(i+1) microseconds
+				return Math.min(maxMillis, (1L << (i + 1)) / 1000.0);
+			}
+		}
+		return maxMillis;
+	}
+
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		count.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+	}
+}
@@ -0,0 +1,49 @@
+package cl.camodev.utiles.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search latency, hit rate and scores of one template in one search mode.
+ */
+public final class TemplateSearchStats {
+
+	/**
+	 * Point in time view of the statistics of a template.
+	 */
+	public record Snapshot(String template, String mode, long searches, long hits, double meanScore, LatencyRecorder.Snapshot latency) {
+
+		/**
+		 * @return the fraction of searches that found the template, from 0 to 1
+		 */
+		public double hitRate() {
+			return searches == 0 ? 0 : (double) hits / searches;
+		}
+	}
+
+	private final String template;
+	private final String mode;
+	private final LatencyRecorder latency = new LatencyRecorder();
+	private final LongAdder hits = new LongAdder();
+	private final DoubleAdder scoreSum = new DoubleAdder();
+
+	TemplateSearchStats(String template, String mode) {
+		this.template = template;
+		this.mode = mode;
+	}
+
+	void record(long nanos, boolean found, double score) {
+		latency.record(nanos);
+		if (found) {
+			hits.increment();
+		}
+		scoreSum.add(score);
+	}
+
+	public Snapshot snapshot() {
+		LatencyRecorder.Snapshot latencySnapshot = latency.snapshot();
+		long searches = latencySnapshot.count();
+		double meanScore = searches == 0 ? 0 : scoreSum.sum() / searches;
+		return new Snapshot(template, mode, searches, hits.sum(), meanScore, latencySnapshot);
+	}
+}
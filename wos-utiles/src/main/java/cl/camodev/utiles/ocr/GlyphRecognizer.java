@@ -0,0 +1,579 @@
+package cl.camodev.utiles.ocr;
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import cl.camodev.utiles.image.RawFrame;
+import cl.camodev.utiles.metrics.HotPathMetrics;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * Template based reader for the counters and timers of the game, limited to
+ * digits and the separators {@value #ALPHABET}.
+ * <p>
+ * A region is binarised, split into glyphs with connected components and
+ * every glyph is compared with the known samples of each character in one
+ * matrix product. The game renders these texts with a single font, so a
+ * handful of samples per character is enough to read them in well under a
+ * millisecond, against tens of milliseconds for a Tesseract read.
+ * <p>
+ * There are no glyph assets: samples are learned from Tesseract reads of the
+ * same regions, see {@link #learn}, and kept across sessions with
+ * {@link #save} and {@link #load}. A glyph is only ever compared with the
+ * characters it may be. While some of them have no samples yet, an unseen
+ * character would be read as the closest known one, so glyphs are then only
+ * accepted with the score that {@link #learn} treats as the same character.
+ * For the reads the table is not sure about the caller falls back to
+ * Tesseract, which in turn feeds the table.
+ */
+public final class GlyphRecognizer {
+
+    public static final String ALPHABET = "0123456789/:.,";
+
+    private static final int GLYPH_WIDTH = 12;
+    private static final int GLYPH_HEIGHT = 16;
+    private static final int GLYPH_SIZE = GLYPH_WIDTH * GLYPH_HEIGHT;
+
+    private static final int MIN_COMPONENT_AREA = 2;
+    private static final int MAX_GLYPHS = 24;
+    private static final double MIN_CELL_ASPECT = 0.6;
+
+    private static final int MAX_SAMPLES_PER_CHAR = 8;
+    private static final double MIN_SCORE = 0.80;
+    private static final double MIN_MARGIN = 0.10;
+    private static final double DUPLICATE_SCORE = 0.97;
+    private static final double CONFLICT_SCORE = 0.92;
+
+    private static final int FILE_MAGIC = 0x474C5950; // "GLYP"
+    private static final int FILE_VERSION = 1;
+
+    // Same colour distance as the background removal of UtilOCR
+    private static final int TEXT_COLOR_DISTANCE = 45;
+
+    /**
+     * Immutable sample set, swapped as a whole when samples are learned. Reads
+     * share the read lock, so the native templates of a replaced table are only
+     * released once no read is using them.
+     */
+    private record Table(Map<Character, List<float[]>> samples, char[] labels, Mat templates) {
+        static final Table EMPTY = new Table(Map.of(), new char[0], null);
+
+        void release() {
+            if (templates != null) {
+                templates.release();
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock saveLock = new ReentrantLock();
+    private Table table = Table.EMPTY;
+
+    /**
+     * @return true if every character of the whitelist can be read by this recognizer
+     */
+    public static boolean supports(String allowedChars) {
+        if (allowedChars == null || allowedChars.isEmpty()) {
+            return false;
+        }
+        return allowedChars.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0);
+    }
+
+    /**
+     * @return true if every character of {@code chars} has learned samples
+     */
+    public boolean covers(String chars) {
+        lock.readLock().lock();
+        try {
+            return covers(table, chars);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean covers(Table table, String chars) {
+        return supports(chars) && chars.chars().allMatch(c -> table.samples().containsKey((char) c));
+    }
+
+    /**
+     * Reads the text of a region of the frame.
+     *
+     * @param textColor    colour of the text, or null to separate it from the background by brightness
+     * @param allowedChars characters the region may hold. Until all of them have samples, glyphs
+     *                     must score as high as a sample of the same character would.
+     * @return the text, or null if the region holds an unknown or ambiguous glyph
+     */
+    public String read(RawFrame frame, DTOPoint p1, DTOPoint p2, Color textColor, String allowedChars) {
+        if (!supports(allowedChars)) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Table current = table;
+            if (current.labels().length == 0) {
+                return null;
+            }
+            double minScore = covers(current, allowedChars) ? MIN_SCORE : CONFLICT_SCORE;
+            return read(current, frame, p1, p2, textColor, allowedChars, minScore);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String read(Table current, RawFrame frame, DTOPoint p1, DTOPoint p2, Color textColor, String allowedChars,
+            double minScore) {
+        long start = System.nanoTime();
+        List<float[]> glyphs = segment(frame, p1, p2, textColor);
+        if (glyphs.isEmpty()) {
+            return null;
+        }
+
+        float[] scores = score(current, glyphs);
+        int templates = current.labels().length;
+        StringBuilder text = new StringBuilder(glyphs.size());
+        for (int g = 0; g < glyphs.size(); g++) {
+            // Best score of each allowed character, then the best two characters
+            Map<Character, Float> best = new HashMap<>();
+            for (int t = 0; t < templates; t++) {
+                char label = current.labels()[t];
+                if (allowedChars.indexOf(label) >= 0) {
+                    best.merge(label, scores[g * templates + t], Math::max);
+                }
+            }
+            char first = 0;
+            float firstScore = -1;
+            float secondScore = -1;
+            for (Map.Entry<Character, Float> entry : best.entrySet()) {
+                float value = entry.getValue();
+                if (value > firstScore) {
+                    secondScore = firstScore;
+                    firstScore = value;
+                    first = entry.getKey();
+                } else if (value > secondScore) {
+                    secondScore = value;
+                }
+            }
+            if (firstScore < minScore || firstScore - secondScore < MIN_MARGIN) {
+                HotPathMetrics.increment(HotPathMetrics.OCR + ":glyph-miss");
+                return null;
+            }
+            text.append(first);
+        }
+        HotPathMetrics.recordLatency(HotPathMetrics.OCR + ":glyph", start);
+        return text.toString();
+    }
+
+    /**
+     * Adds the glyphs of a region as samples of the characters of {@code text},
+     * usually the result of a Tesseract read of the same region. Nothing is
+     * learned unless the region splits into exactly one glyph per character,
+     * and a glyph that closely matches a sample of another character rejects
+     * the whole text, since the read was probably wrong.
+     *
+     * @return true if at least one new sample was added
+     */
+    public boolean learn(RawFrame frame, DTOPoint p1, DTOPoint p2, Color textColor, String text) {
+        if (text == null) {
+            return false;
+        }
+        String chars = text.replaceAll("\\s", "");
+        if (!supports(chars) || chars.length() > MAX_GLYPHS) {
+            return false;
+        }
+        List<float[]> glyphs = segment(frame, p1, p2, textColor);
+        if (glyphs.size() != chars.length()) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Table current = table;
+            float[] scores = current.labels().length == 0 ? new float[0] : score(current, glyphs);
+            int templates = current.labels().length;
+            Map<Character, List<float[]>> samples = new HashMap<>();
+            current.samples().forEach((c, list) -> samples.put(c, new ArrayList<>(list)));
+
+            boolean added = false;
+            for (int g = 0; g < glyphs.size(); g++) {
+                char c = chars.charAt(g);
+                float sameScore = -1;
+                for (int t = 0; t < templates; t++) {
+                    float value = scores[g * templates + t];
+                    if (current.labels()[t] == c) {
+                        sameScore = Math.max(sameScore, value);
+                    } else if (value >= CONFLICT_SCORE) {
+                        return false;
+                    }
+                }
+                List<float[]> list = samples.computeIfAbsent(c, k -> new ArrayList<>());
+                if (sameScore < DUPLICATE_SCORE && list.size() < MAX_SAMPLES_PER_CHAR) {
+                    list.add(glyphs.get(g));
+                    added = true;
+                }
+            }
+            if (added) {
+                table = buildTable(samples);
+                current.release();
+            }
+            return added;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of learned samples
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.labels().length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            table.release();
+            table = Table.EMPTY;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the learned samples to a file, replacing it atomically. Saves are
+     * serialised, so the file always ends up with the latest table.
+     */
+    public void save(Path file) throws IOException {
+        saveLock.lock();
+        try {
+            Table current;
+            lock.readLock().lock();
+            try {
+                current = table;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(FILE_MAGIC);
+                    out.writeInt(FILE_VERSION);
+                    out.writeInt(GLYPH_WIDTH);
+                    out.writeInt(GLYPH_HEIGHT);
+                    out.writeInt(current.labels().length);
+                    for (Map.Entry<Character, List<float[]>> entry : current.samples().entrySet()) {
+                        for (float[] sample : entry.getValue()) {
+                            out.writeChar(entry.getKey());
+                            for (float value : sample) {
+                                out.writeFloat(value);
+                            }
+                        }
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the learned samples with the ones written by {@link #save}.
+     *
+     * @return number of samples loaded
+     * @throws IOException if the file cannot be read or holds glyphs of another format
+     */
+    public int load(Path file) throws IOException {
+        Map<Character, List<float[]>> samples = new HashMap<>();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION
+                    || in.readInt() != GLYPH_WIDTH || in.readInt() != GLYPH_HEIGHT) {
+                throw new IOException("Unsupported glyph file " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                char c = in.readChar();
+                float[] sample = new float[GLYPH_SIZE];
+                for (int j = 0; j < GLYPH_SIZE; j++) {
+                    sample[j] = in.readFloat();
+                }
+                if (ALPHABET.indexOf(c) < 0) {
+                    throw new IOException("Unexpected glyph '" + c + "' in " + file);
+                }
+                List<float[]> list = samples.computeIfAbsent(c, k -> new ArrayList<>());
+                if (list.size() < MAX_SAMPLES_PER_CHAR) {
+                    list.add(sample);
+                    loaded++;
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            Table previous = table;
+            table = samples.isEmpty() ? Table.EMPTY : buildTable(samples);
+            previous.release();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return loaded;
+    }
+
+    private static Table buildTable(Map<Character, List<float[]>> samples) {
+        int count = samples.values().stream().mapToInt(List::size).sum();
+        char[] labels = new char[count];
+        Mat templates = new Mat(count, GLYPH_SIZE, CvType.CV_32F);
+        int row = 0;
+        for (Map.Entry<Character, List<float[]>> entry : samples.entrySet()) {
+            for (float[] sample : entry.getValue()) {
+                labels[row] = entry.getKey();
+                templates.put(row++, 0, sample);
+            }
+        }
+        Map<Character, List<float[]>> frozen = new HashMap<>();
+        samples.forEach((c, list) -> frozen.put(c, List.copyOf(list)));
+        return new Table(Map.copyOf(frozen), labels, templates);
+    }
+
+    /**
+     * Correlates every glyph with every sample. Glyph vectors are zero mean
+     * and unit length, so the products are normalised cross-correlations.
+     *
+     * @return row major glyphs x samples scores
+     */
+    private static float[] score(Table table, List<float[]> glyphs) {
+        Mat vectors = new Mat(glyphs.size(), GLYPH_SIZE, CvType.CV_32F);
+        Mat scores = new Mat();
+        try {
+            for (int g = 0; g < glyphs.size(); g++) {
+                vectors.put(g, 0, glyphs.get(g));
+            }
+            Core.gemm(vectors, table.templates(), 1, new Mat(), 0, scores, Core.GEMM_2_T);
+            float[] values = new float[glyphs.size() * table.labels().length];
+            scores.get(0, 0, values);
+            return values;
+        } finally {
+            vectors.release();
+            scores.release();
+        }
+    }
+
+    /**
+     * Splits a region into glyphs, left to right, each normalised to a
+     * {@value #GLYPH_WIDTH}x{@value #GLYPH_HEIGHT} vector. Glyph cells span
+     * the whole text line, so the position of dots and commas is kept.
+     *
+     * @return the glyph vectors, or an empty list if the region cannot be split
+     */
+    private static List<float[]> segment(RawFrame frame, DTOPoint p1, DTOPoint p2, Color textColor) {
+        int x = Math.max(0, Math.min(p1.getX(), p2.getX()));
+        int y = Math.max(0, Math.min(p1.getY(), p2.getY()));
+        int width = Math.min(frame.getWidth() - x, Math.abs(p1.getX() - p2.getX()));
+        int height = Math.min(frame.getHeight() - y, Math.abs(p1.getY() - p2.getY()));
+        if (width <= 0 || height <= 0) {
+            return List.of();
+        }
+
+        Mat binary = new Mat();
+        Mat labels = new Mat();
+        Mat stats = new Mat();
+        Mat centroids = new Mat();
+        try {
+            binarize(frame, new Rect(x, y, width, height), textColor, binary);
+            int count = Imgproc.connectedComponentsWithStats(binary, labels, stats, centroids, 8, CvType.CV_32S);
+            int[] values = new int[count * Imgproc.CC_STAT_MAX];
+            stats.get(0, 0, values);
+
+            // Label 0 is the background
+            List<Component> components = new ArrayList<>();
+            for (int label = 1; label < count; label++) {
+                int offset = label * Imgproc.CC_STAT_MAX;
+                if (values[offset + Imgproc.CC_STAT_AREA] >= MIN_COMPONENT_AREA) {
+                    components.add(new Component(label, values[offset + Imgproc.CC_STAT_LEFT], values[offset + Imgproc.CC_STAT_TOP],
+                            values[offset + Imgproc.CC_STAT_WIDTH], values[offset + Imgproc.CC_STAT_HEIGHT]));
+                }
+            }
+            List<Component> merged = mergeColumns(components);
+            if (merged.isEmpty() || merged.size() > MAX_GLYPHS) {
+                return List.of();
+            }
+
+            int lineTop = merged.stream().mapToInt(c -> c.top).min().getAsInt();
+            int lineBottom = merged.stream().mapToInt(c -> c.top + c.height).max().getAsInt();
+            List<float[]> glyphs = new ArrayList<>(merged.size());
+            for (Component component : merged) {
+                float[] glyph = normalize(labels, component, lineTop, lineBottom - lineTop);
+                if (glyph == null) {
+                    return List.of();
+                }
+                glyphs.add(glyph);
+            }
+            return glyphs;
+        } finally {
+            binary.release();
+            labels.release();
+            stats.release();
+            centroids.release();
+        }
+    }
+
+    /**
+     * Builds a mask of the text pixels of the region: the pixels close to the
+     * text colour when it is known, otherwise the minority side of an Otsu
+     * threshold of the grayscale plane.
+     */
+    private static void binarize(RawFrame frame, Rect region, Color textColor, Mat binary) {
+        if (textColor != null) {
+            Mat diff = new Mat();
+            Mat distance = new Mat();
+            Mat sum = new Mat(1, 3, CvType.CV_32F);
+            try {
+                Core.absdiff(new Mat(frame.getBgrMat(), region),
+                        new Scalar(textColor.getBlue(), textColor.getGreen(), textColor.getRed()), diff);
+                sum.put(0, 0, 1f, 1f, 1f);
+                // Sum of the channel distances, saturated at 255 which is well above the threshold
+                Core.transform(diff, distance, sum);
+                Imgproc.threshold(distance, binary, TEXT_COLOR_DISTANCE - 1, 255, Imgproc.THRESH_BINARY_INV);
+            } finally {
+                diff.release();
+                distance.release();
+                sum.release();
+            }
+            return;
+        }
+        Imgproc.threshold(new Mat(frame.getGrayMat(), region), binary, 0, 255, Imgproc.THRESH_BINARY | Imgproc.THRESH_OTSU);
+        if (Core.countNonZero(binary) * 2 > region.area()) {
+            Core.bitwise_not(binary, binary);
+        }
+    }
+
+    /**
+     * Sorts components left to right and merges the ones stacked in the same
+     * column, such as the dots of a colon or a glyph broken by antialiasing.
+     */
+    private static List<Component> mergeColumns(List<Component> components) {
+        components.sort(Comparator.comparingInt(c -> c.left));
+        List<Component> merged = new ArrayList<>();
+        for (Component component : components) {
+            Component last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null) {
+                int overlap = Math.min(last.left + last.width, component.left + component.width) - Math.max(last.left, component.left);
+                if (overlap * 2 >= Math.min(last.width, component.width)) {
+                    last.absorb(component);
+                    continue;
+                }
+            }
+            merged.add(component);
+        }
+        return merged;
+    }
+
+    /**
+     * Draws the pixels of a glyph on a cell as tall as the text line, scales it
+     * to the glyph size and returns it as a zero mean, unit length vector.
+     *
+     * @return the vector, or null for a blank or solid cell
+     */
+    private static float[] normalize(Mat labels, Component component, int lineTop, int lineHeight) {
+        int cellWidth = Math.max(component.width, (int) Math.ceil(lineHeight * MIN_CELL_ASPECT));
+        Mat cell = Mat.zeros(lineHeight, cellWidth, CvType.CV_8U);
+        Mat mask = new Mat();
+        Mat scaled = new Mat();
+        try {
+            Rect box = new Rect(component.left, component.top, component.width, component.height);
+            Mat target = new Mat(cell, new Rect((cellWidth - component.width) / 2, component.top - lineTop, component.width, component.height));
+            for (int label : component.labels) {
+                Core.compare(new Mat(labels, box), new Scalar(label), mask, Core.CMP_EQ);
+                target.setTo(new Scalar(255), mask);
+            }
+            Imgproc.resize(cell, scaled, new Size(GLYPH_WIDTH, GLYPH_HEIGHT), 0, 0, Imgproc.INTER_AREA);
+            scaled.convertTo(scaled, CvType.CV_32F);
+
+            float[] vector = new float[GLYPH_SIZE];
+            scaled.get(0, 0, vector);
+            double mean = 0;
+            for (float value : vector) {
+                mean += value;
+            }
+            mean /= GLYPH_SIZE;
+            double norm = 0;
+            for (int i = 0; i < GLYPH_SIZE; i++) {
+                vector[i] -= (float) mean;
+                norm += vector[i] * vector[i];
+            }
+            if (norm < 1e-6) {
+                return null;
+            }
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < GLYPH_SIZE; i++) {
+                vector[i] *= scale;
+            }
+            return vector;
+        } finally {
+            cell.release();
+            mask.release();
+            scaled.release();
+        }
+    }
+
+    /**
+     * Bounding box of one or more connected components.
+     */
+    private static final class Component {
+        private final List<Integer> labels = new ArrayList<>(2);
+        private int left;
+        private int top;
+        private int width;
+        private int height;
+
+        Component(int label, int left, int top, int width, int height) {
+            this.labels.add(label);
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+        }
+
+        void absorb(Component other) {
+            int right = Math.max(left + width, other.left + other.width);
+            int bottom = Math.max(top + height, other.top + other.height);
+            left = Math.min(left, other.left);
+            top = Math.min(top, other.top);
+            width = right - left;
+            height = bottom - top;
+            labels.addAll(other.labels);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package cl.camodev.utiles.ocr;
+
+import cl.camodev.wosbot.ot.DTOTesseractSettings;
+
+/**
+ * Engine a {@link TextRecognitionProvider} read should go through.
+ */
+public enum OcrEngine {
+
+    /**
+     * Tesseract, for any text.
+     */
+    TESSERACT,
+
+    /**
+     * The glyphs learned by {@link GlyphRecognizer}, with Tesseract reading the
+     * regions they are not conclusive about and teaching them. Only reads whose
+     * settings whitelist is within {@link GlyphRecognizer#ALPHABET} can use it;
+     * the other ones go to Tesseract.
+     */
+    GLYPHS;
+
+    /**
+     * @return whether a read with these settings goes through the glyph reader
+     */
+    public boolean usesGlyphs(DTOTesseractSettings settings) {
+        return this == GLYPHS && settings != null && settings.hasAllowedChars()
+                && GlyphRecognizer.supports(settings.getAllowedChars());
+    }
+}
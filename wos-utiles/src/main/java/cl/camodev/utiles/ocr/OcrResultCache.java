@@ -0,0 +1,145 @@
+package cl.camodev.utiles.ocr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import cl.camodev.utiles.metrics.HotPathMetrics;
+
+/**
+ * Bounded LRU cache of OCR results, keyed by the content of the region read.
+ * <p>
+ * OCR is deterministic: the same pixels read with the same engine options
+ * give the same text. Labels, prices and counters that did not change since
+ * the last read are therefore answered from here instead of going through
+ * Tesseract again. Entries expire after a time to live, so that the cache
+ * does not pin results forever on long sessions.
+ * <p>
+ * Access is guarded by a {@link ReentrantLock} rather than a monitor, so
+ * callers running on virtual threads do not pin their carrier.
+ */
+public final class OcrResultCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 512;
+    private static final long DEFAULT_TTL_MILLIS = 10 * 60 * 1000L;
+
+    /**
+     * Cache key.
+     *
+     * @param pixels hash of the raw region pixels, including the region size
+     * @param mode   read mode and engine options the text was produced with
+     */
+    public record Key(long pixels, String mode) {
+    }
+
+    private record Entry(String text, long expiresAt) {
+    }
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private static volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+    private static volatile long ttlMillis = DEFAULT_TTL_MILLIS;
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    private OcrResultCache() {
+    }
+
+    /**
+     * Sets the size and time to live bounds and drops every cached result.
+     * A size of zero disables the cache.
+     */
+    public static void configure(int maxEntries, long ttlMillis) {
+        lock.lock();
+        try {
+            OcrResultCache.maxEntries = Math.max(0, maxEntries);
+            OcrResultCache.ttlMillis = Math.max(0, ttlMillis);
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return maxEntries > 0 && ttlMillis > 0;
+    }
+
+    /**
+     * @return the cached text of the key, or null if it is unknown or expired
+     */
+    public static String get(Key key) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt() <= now) {
+                entries.remove(key);
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            misses.increment();
+            HotPathMetrics.increment(HotPathMetrics.OCR + ":cache-miss");
+            return null;
+        }
+        hits.increment();
+        HotPathMetrics.increment(HotPathMetrics.OCR + ":cache-hit");
+        return entry.text();
+    }
+
+    public static void put(Key key, String text) {
+        if (text == null || !isEnabled()) {
+            return;
+        }
+        Entry entry = new Entry(text, System.currentTimeMillis() + ttlMillis);
+        lock.lock();
+        try {
+            entries.put(key, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cache usage summary, for the logs and the metrics report.
+     */
+    public static String getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        double hitRate = lookups == 0 ? 0 : hitCount * 100.0 / lookups;
+        return String.format("OCR cache: %d/%d entries, %d lookups, %.1f%% hits, %d evictions",
+                size, maxEntries, lookups, hitRate, evictions.sum());
+    }
+}
@@ -0,0 +1,302 @@
+package cl.camodev.utiles.ocr;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import cl.camodev.utiles.metrics.HotPathMetrics;
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded pool of initialised Tesseract engines, one sub-pool per engine
+ * configuration.
+ * <p>
+ * {@link Tesseract#doOCR(BufferedImage)} creates the native engine and loads
+ * the traineddata on every call. Pooled engines are initialised once and
+ * only get a new image per read, which removes that cost from every OCR
+ * read after the first one of a configuration.
+ * <p>
+ * Borrowing waits on a {@link Semaphore} rather than a monitor, so callers
+ * running on virtual threads are parked without pinning their carrier.
+ * <p>
+ * Engines left idle for {@link #IDLE_TIMEOUT_MS} are closed, so configurations
+ * used once or in bursts do not keep their native engines and models loaded.
+ */
+public final class TesseractPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(TesseractPool.class);
+
+    public static final String DATA_PATH = "lib/tesseract";
+
+    private static final int DEFAULT_MAX_ENGINES_PER_KEY = 4;
+
+    /**
+     * How long an engine may stay idle before it is closed.
+     */
+    public static final long IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Engine configuration. Reads with equal keys can share an engine.
+     *
+     * @param pageSegMode   page segmentation mode, or -1 for the Tesseract default
+     * @param ocrEngineMode OCR engine mode, or -1 for the Tesseract default
+     * @param allowedChars  character whitelist, or null for none
+     */
+    public record EngineKey(String language, int pageSegMode, int ocrEngineMode, String allowedChars) {
+    }
+
+    private static final ConcurrentHashMap<EngineKey, SubPool> pools = new ConcurrentHashMap<>();
+    private static volatile int maxEnginesPerKey = DEFAULT_MAX_ENGINES_PER_KEY;
+
+    private static final LongAdder borrows = new LongAdder();
+    private static final LongAdder contendedBorrows = new LongAdder();
+    private static final LongAdder enginesCreated = new LongAdder();
+    private static final LongAdder enginesDiscarded = new LongAdder();
+    private static final LongAdder enginesEvicted = new LongAdder();
+
+    private static final ScheduledExecutorService evictionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "OcrEngineEviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        evictionScheduler.scheduleWithFixedDelay(TesseractPool::evictIdleEngines,
+                IDLE_TIMEOUT_MS, IDLE_TIMEOUT_MS / 5, TimeUnit.MILLISECONDS);
+    }
+
+    private TesseractPool() {
+    }
+
+    /**
+     * @return the key of a read with explicit engine options, null meaning the Tesseract default
+     */
+    public static EngineKey key(String language, Integer pageSegMode, Integer ocrEngineMode, String allowedChars) {
+        return new EngineKey(language,
+                pageSegMode != null ? pageSegMode : -1,
+                ocrEngineMode != null ? ocrEngineMode : -1,
+                allowedChars);
+    }
+
+    /**
+     * Sets how many engines each configuration may hold, including the
+     * configurations already in use. Shrinking closes the surplus idle engines
+     * now and the busy ones as they are given back.
+     */
+    public static void setMaxEnginesPerKey(int max) {
+        maxEnginesPerKey = Math.max(1, max);
+        for (SubPool pool : pools.values()) {
+            pool.resize(maxEnginesPerKey);
+        }
+    }
+
+    /**
+     * Initialises one engine of each configuration ahead of the first read.
+     */
+    public static void warmUp(EngineKey... keys) {
+        for (EngineKey key : keys) {
+            try {
+                release(borrow(key), true);
+            } catch (Exception e) {
+                logger.warn("Could not warm up OCR engine {}: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs OCR on an image with an engine of the given configuration,
+     * waiting for one to be free if all of them are busy.
+     */
+    public static String read(EngineKey key, BufferedImage image) throws TesseractException {
+        PooledTesseract engine = borrow(key);
+        boolean healthy = false;
+        try {
+            String text = engine.read(image);
+            healthy = true;
+            return text;
+        } finally {
+            release(engine, healthy);
+        }
+    }
+
+    private static PooledTesseract borrow(EngineKey key) throws TesseractException {
+        SubPool pool = pools.computeIfAbsent(key, k -> new SubPool(maxEnginesPerKey));
+        borrows.increment();
+        if (!pool.permits.tryAcquire()) {
+            contendedBorrows.increment();
+            long start = System.nanoTime();
+            try {
+                pool.permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TesseractException("Interrupted while waiting for an OCR engine", e);
+            }
+            HotPathMetrics.recordLatency(HotPathMetrics.OCR + ":pool-wait", start);
+        }
+
+        PooledTesseract engine = pool.idle.pollFirst();
+        if (engine != null) {
+            return engine;
+        }
+        try {
+            engine = new PooledTesseract(key, pool);
+            enginesCreated.increment();
+            return engine;
+        } catch (RuntimeException | Error e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives an engine back. An engine whose last read failed is dropped, since
+     * its native state can no longer be trusted.
+     */
+    private static void release(PooledTesseract engine, boolean healthy) {
+        SubPool pool = engine.pool;
+        if (!healthy) {
+            engine.close();
+            enginesDiscarded.increment();
+        } else if (pool.idle.size() >= pool.capacity) {
+            // Surplus left by a shrunk capacity
+            engine.close();
+        } else {
+            engine.lastUsedMillis = System.currentTimeMillis();
+            pool.idle.addFirst(engine);
+        }
+        pool.permits.release();
+    }
+
+    /**
+     * Closes the engines idle for longer than {@link #IDLE_TIMEOUT_MS}. Idle
+     * engines are kept most recently used first, so only the tail is checked.
+     */
+    private static void evictIdleEngines() {
+        long oldestKept = System.currentTimeMillis() - IDLE_TIMEOUT_MS;
+        for (SubPool pool : pools.values()) {
+            PooledTesseract engine;
+            while ((engine = pool.idle.peekLast()) != null && engine.lastUsedMillis < oldestKept) {
+                // A borrower may have taken it meanwhile: only close it if it was still idle
+                if (pool.idle.removeLastOccurrence(engine)) {
+                    engine.close();
+                    enginesEvicted.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Pool usage summary, for the logs and the metrics report.
+     */
+    public static String getStats() {
+        int idle = 0;
+        int busy = 0;
+        for (SubPool pool : pools.values()) {
+            idle += pool.idle.size();
+            busy += pool.capacity - pool.permits.availablePermits();
+        }
+        return String.format("OCR engines: %d configurations, %d idle, %d busy, %d created, %d discarded, %d evicted, %d borrows (%d waited)",
+                pools.size(), idle, busy, enginesCreated.sum(), enginesDiscarded.sum(), enginesEvicted.sum(), borrows.sum(), contendedBorrows.sum());
+    }
+
+    /**
+     * Closes every idle engine. Engines in use are closed when given back
+     * only if their read fails, so call this once OCR has stopped.
+     */
+    public static void shutdown() {
+        for (SubPool pool : pools.values()) {
+            PooledTesseract engine;
+            while ((engine = pool.idle.pollFirst()) != null) {
+                engine.close();
+            }
+        }
+        pools.clear();
+    }
+
+    private static final class SubPool {
+        private volatile int capacity;
+        private final ResizableSemaphore permits;
+        private final ConcurrentLinkedDeque<PooledTesseract> idle = new ConcurrentLinkedDeque<>();
+
+        SubPool(int capacity) {
+            this.capacity = capacity;
+            this.permits = new ResizableSemaphore(capacity);
+        }
+
+        synchronized void resize(int newCapacity) {
+            int delta = newCapacity - capacity;
+            capacity = newCapacity;
+            if (delta > 0) {
+                permits.release(delta);
+            } else if (delta < 0) {
+                // May go negative while busy engines are out, holding back new borrows until they return
+                permits.reducePermits(-delta);
+                PooledTesseract engine;
+                while (idle.size() > newCapacity && (engine = idle.pollLast()) != null) {
+                    engine.close();
+                }
+            }
+        }
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    /**
+     * Tesseract instance whose native engine stays initialised between reads.
+     */
+    private static final class PooledTesseract extends Tesseract {
+        private final SubPool pool;
+        private volatile long lastUsedMillis;
+
+        PooledTesseract(EngineKey key, SubPool pool) {
+            this.pool = pool;
+            setDatapath(DATA_PATH);
+            setLanguage(key.language());
+            if (key.pageSegMode() >= 0) {
+                setPageSegMode(key.pageSegMode());
+            }
+            if (key.ocrEngineMode() >= 0) {
+                setOcrEngineMode(key.ocrEngineMode());
+            }
+            if (key.allowedChars() != null) {
+                setVariable("tessedit_char_whitelist", key.allowedChars());
+            }
+            init();
+            setVariables();
+        }
+
+        String read(BufferedImage image) throws TesseractException {
+            try {
+                setImage(image, null);
+                return getOCRText(null, 0);
+            } catch (IOException e) {
+                throw new TesseractException(e);
+            } finally {
+                // Drops the image and recognition results, keeps the loaded model
+                getAPI().TessBaseAPIClear(getHandle());
+            }
+        }
+
+        void close() {
+            dispose();
+        }
+    }
+}
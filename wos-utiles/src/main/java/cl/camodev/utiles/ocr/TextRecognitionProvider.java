@@ -1,8 +1,12 @@
 package cl.camodev.utiles.ocr;
 
+import cl.camodev.wosbot.ot.DTOOcrRegion;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import net.sourceforge.tess4j.TesseractException;
 
 /**
@@ -13,6 +17,15 @@ import net.sourceforge.tess4j.TesseractException;
  */
 public interface TextRecognitionProvider {
 
+    /**
+     * Text read from a region together with the hash of the pixels it was read from.
+     *
+     * @param text      the recognized text, or {@code null} if no text could be recognized
+     * @param signature hash of the region pixels, or {@code null} if the provider cannot compute it
+     */
+    record SignedText(String text, Long signature) {
+    }
+
     /**
      * Performs OCR on the region defined by the given points using the provided settings.
      *
@@ -24,4 +37,97 @@ public interface TextRecognitionProvider {
      * @throws TesseractException  if the underlying OCR engine fails
      */
     String ocrRegion(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings) throws IOException, TesseractException;
-}
\ No newline at end of file
+
+    /**
+     * Performs OCR on a region with the given engine. The default implementation has no
+     * other engine than Tesseract and reads with {@link #ocrRegion(DTOPoint, DTOPoint, DTOTesseractSettings)}.
+     *
+     * @param p1       the first corner (top‑left) of the region to capture
+     * @param p2       the second corner (bottom‑right) of the region to capture
+     * @param settings optional Tesseract configuration (may be {@code null}); its whitelist tells
+     *                 the glyph reader which characters the region may hold
+     * @param engine   the engine to read with; reads it cannot handle fall back to Tesseract
+     * @return the recognized text, or {@code null} if no text could be recognized
+     * @throws IOException        if an image capture or file I/O error occurs
+     * @throws TesseractException if the underlying OCR engine fails
+     */
+    default String ocrRegion(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings, OcrEngine engine)
+            throws IOException, TesseractException {
+        return ocrRegion(p1, p2, settings);
+    }
+
+    /**
+     * Returns a hash of the current pixels of the region, used to tell whether the region
+     * changed since a previous read. The default implementation does not support it.
+     *
+     * @param p1 the first corner (top‑left) of the region
+     * @param p2 the second corner (bottom‑right) of the region
+     * @return the hash, or {@code null} if the provider cannot compute it
+     * @throws IOException if an image capture error occurs
+     */
+    default Long regionSignature(DTOPoint p1, DTOPoint p2) throws IOException {
+        return null;
+    }
+
+    /**
+     * Performs OCR on a region and hashes the pixels that were read, so that a later
+     * {@link #regionSignature} tells whether the text may have changed. Implementations
+     * backed by a screen capture should take both from the same frame; the default
+     * implementation reads and hashes separately.
+     *
+     * @param p1       the first corner (top‑left) of the region to capture
+     * @param p2       the second corner (bottom‑right) of the region to capture
+     * @param settings optional Tesseract configuration (may be {@code null})
+     * @return the recognized text and the region hash
+     * @throws IOException        if an image capture or file I/O error occurs
+     * @throws TesseractException if the underlying OCR engine fails
+     */
+    default SignedText ocrRegionWithSignature(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings)
+            throws IOException, TesseractException {
+        String text = ocrRegion(p1, p2, settings);
+        return new SignedText(text, regionSignature(p1, p2));
+    }
+
+    /**
+     * Same as {@link #ocrRegionWithSignature(DTOPoint, DTOPoint, DTOTesseractSettings)} with the
+     * given engine. The default implementation reads with
+     * {@link #ocrRegion(DTOPoint, DTOPoint, DTOTesseractSettings, OcrEngine)} and hashes separately.
+     *
+     * @param engine the engine to read with; reads it cannot handle fall back to Tesseract
+     */
+    default SignedText ocrRegionWithSignature(DTOPoint p1, DTOPoint p2, DTOTesseractSettings settings, OcrEngine engine)
+            throws IOException, TesseractException {
+        String text = ocrRegion(p1, p2, settings, engine);
+        return new SignedText(text, regionSignature(p1, p2));
+    }
+
+    /**
+     * Returns how long, in milliseconds, {@link #regionSignature} may keep answering from
+     * the same capture. Polling faster than this cannot see a change. The default is zero.
+     */
+    default long signatureRefreshMillis() {
+        return 0;
+    }
+
+    /**
+     * Performs OCR on several regions at once. The default implementation reads them one
+     * by one with {@link #ocrRegion}; implementations backed by a screen capture should
+     * read every region from the same frame.
+     *
+     * @param regions the regions to read, each with its own optional settings
+     * @return the recognized text of each region by region name, in the order of
+     *         {@code regions}; the value is {@code null} for a region that could not be read
+     * @throws IOException if an image capture or file I/O error occurs
+     */
+    default Map<String, String> ocrRegions(List<DTOOcrRegion> regions) throws IOException {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (DTOOcrRegion region : regions) {
+            try {
+                results.put(region.name(), ocrRegion(region.topLeft(), region.bottomRight(), region.settings()));
+            } catch (TesseractException e) {
+                results.put(region.name(), null);
+            }
+        }
+        return results;
+    }
+}
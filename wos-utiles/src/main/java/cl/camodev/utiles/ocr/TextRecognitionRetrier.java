@@ -1,5 +1,6 @@
 package cl.camodev.utiles.ocr;
 
+import cl.camodev.utiles.metrics.HotPathMetrics;
 import cl.camodev.wosbot.ot.DTOPoint;
 import cl.camodev.wosbot.ot.DTOTesseractSettings;
 
@@ -15,35 +16,59 @@ import org.slf4j.LoggerFactory;
  * Generic helper class that performs OCR on a region with retry logic. It uses a supplied
  * {@link TextRecognitionProvider} to fetch text, tests the text with a user‑supplied predicate to
  * determine success, and converts the text to an arbitrary return type on success.
+ * <p>
+ * OCR of unchanged pixels gives the same text again, so when the provider can hash the region
+ * ({@link TextRecognitionProvider#regionSignature}) a retry only runs once the region changed.
+ * The delay between attempts becomes a timeout: the region is polled and the retry starts as
+ * soon as it changes, while an attempt whose region stayed the same for the whole delay is
+ * skipped without running OCR. Every poll may cost a capture, so polls are never closer than
+ * the time the previous one took, nor than the provider keeps serving the same frame.
  *
  * @param <T> the type the recognized text should be converted to upon success
  */
 public class TextRecognitionRetrier<T> {
 
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private enum RegionWait { CHANGED, UNCHANGED, INTERRUPTED }
+
     private final TextRecognitionProvider textRecognitionProvider;
+    private final OcrEngine engine;
     private final Logger logger;
 
     /**
-     * Constructs a new retry helper.
+     * Constructs a new retry helper reading with Tesseract.
      *
      * @param textRecognitionProvider the provider used to perform OCR; must not be {@code null}
      */
     public TextRecognitionRetrier(TextRecognitionProvider textRecognitionProvider) {
+        this(textRecognitionProvider, OcrEngine.TESSERACT);
+    }
+
+    /**
+     * Constructs a new retry helper reading with the given engine.
+     *
+     * @param textRecognitionProvider the provider used to perform OCR; must not be {@code null}
+     * @param engine                  the engine of every read; reads it cannot handle fall back to Tesseract
+     */
+    public TextRecognitionRetrier(TextRecognitionProvider textRecognitionProvider, OcrEngine engine) {
         this.textRecognitionProvider = Objects.requireNonNull(textRecognitionProvider, "ocrProvider");
+        this.engine = Objects.requireNonNull(engine, "engine");
         this.logger = LoggerFactory.getLogger(TextRecognitionRetrier.class);
     }
 
     /**
      * Attempts to read text from the region defined by {@code p1} and {@code p2} using the
-     * provided {@code settings}. The attempt is repeated up to {@code maxRetries} times
-     * with a delay between attempts. Once the {@code successPredicate} returns {@code true}
-     * for the recognized text, the text is passed through {@code converter} and returned.
-     * If no attempt succeeds, {@code null} is returned.
+     * provided {@code settings}. The attempt is repeated up to {@code maxRetries} times,
+     * waiting up to {@code delayMs} for the region to change before each retry. Once the
+     * {@code successPredicate} returns {@code true} for the recognized text, the text is
+     * passed through {@code converter} and returned. If no attempt succeeds, {@code null}
+     * is returned.
      *
      * @param p1              top‑left corner of the region to capture
      * @param p2              bottom‑right corner of the region to capture
      * @param maxRetries      maximum number of OCR attempts
-     * @param delayMs         delay in milliseconds between attempts
+     * @param delayMs         maximum wait in milliseconds for the region to change between attempts
      * @param settings        optional Tesseract settings for the OCR engine
      * @param successPredicate predicate to determine whether the recognized text
      *                        constitutes a successful read
@@ -58,10 +83,25 @@ public class TextRecognitionRetrier<T> {
                      Predicate<String> successPredicate,
                      Function<String, T> converter) {
         String raw = null;
+        Long signature = null;
         for (int attempt = 0; attempt < maxRetries; attempt++) {
+            if (attempt > 0) {
+                RegionWait wait = awaitRegionChange(p1, p2, signature, delayMs);
+                if (wait == RegionWait.INTERRUPTED) {
+                    break;
+                }
+                if (wait == RegionWait.UNCHANGED) {
+                    logger.debug("Region unchanged, skipping OCR attempt {} of {}", attempt + 1, maxRetries);
+                    HotPathMetrics.increment(HotPathMetrics.OCR + ":retry-skipped");
+                    continue;
+                }
+            }
+            signature = null;
             logger.debug("Performing OCR (attempt {} of {})", attempt + 1, maxRetries);
             try {
-                raw = textRecognitionProvider.ocrRegion(p1, p2, settings);
+                TextRecognitionProvider.SignedText read = textRecognitionProvider.ocrRegionWithSignature(p1, p2, settings, engine);
+                raw = read.text();
+                signature = read.signature();
                 if (raw != null && successPredicate.test(raw)) {
                     return converter.apply(raw);
                 }
@@ -70,13 +110,48 @@ public class TextRecognitionRetrier<T> {
             } catch (RuntimeException e) {
                 logger.warn("OCR attempt {} threw a runtime exception: {}", attempt + 1, e.getMessage());
             }
-            try {
-                Thread.sleep(delayMs);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Waits up to {@code timeoutMs} for the region to differ from {@code previous}. Without a
+     * previous signature the whole timeout is waited and the region is treated as changed.
+     */
+    private RegionWait awaitRegionChange(DTOPoint p1, DTOPoint p2, Long previous, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        try {
+            if (previous == null) {
+                Thread.sleep(timeoutMs);
+                return RegionWait.CHANGED;
+            }
+            long interval = Math.max(POLL_INTERVAL_MS, textRecognitionProvider.signatureRefreshMillis());
+            long pollCost = 0;
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return RegionWait.UNCHANGED;
+                }
+                Thread.sleep(Math.min(Math.max(interval, pollCost), remaining));
+                long pollStart = System.currentTimeMillis();
+                Long current = regionSignature(p1, p2);
+                pollCost = System.currentTimeMillis() - pollStart;
+                if (!previous.equals(current)) {
+                    return RegionWait.CHANGED;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return RegionWait.INTERRUPTED;
+        }
+    }
+
+    private Long regionSignature(DTOPoint p1, DTOPoint p2) {
+        try {
+            return textRecognitionProvider.regionSignature(p1, p2);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not hash OCR region: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cl.camodev.utiles.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Random;
+
+import org.opencv.core.Mat;
+
+/**
+ * Microbenchmark comparing the original per-pixel framebuffer conversion with
+ * {@link PixelLayoutConverter}. It lives in the test sources so it never ships
+ * in the jar; run it with the benchmark profile:
+ * <pre>
+ * mvn -pl wos-utiles -am -Pbenchmark test
+ * </pre>
+ * Synthetic 720x1280 framebuffers are used, so no emulator is required.
+ */
+public final class PixelConversionBenchmark {
+
+	private static final int WIDTH = 720;
+	private static final int HEIGHT = 1280;
+	private static final int WARMUP_ITERATIONS = 20;
+	private static final int MEASURED_ITERATIONS = 50;
+
+	private static volatile long sink;
+
+	private PixelConversionBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		nu.pattern.OpenCV.loadLocally();
+
+		System.out.printf("Framebuffer %dx%d, %d iterations after %d warmup%n", WIDTH, HEIGHT, MEASURED_ITERATIONS, WARMUP_ITERATIONS);
+		// Bit offsets as reported by ddmlib for each layout: red, green, blue
+		runLayout(PixelLayoutConverter.Layout.RGBA_8888, 32, 0, 8, 16);
+		runLayout(PixelLayoutConverter.Layout.BGRA_8888, 32, 16, 8, 0);
+		runLayout(PixelLayoutConverter.Layout.RGB_565, 16, 11, 5, 0);
+	}
+
+	private static void runLayout(PixelLayoutConverter.Layout layout, int bpp, int redOffset, int greenOffset, int blueOffset) {
+		byte[] data = new byte[WIDTH * HEIGHT * layout.getBytesPerPixel()];
+		new Random(42).nextBytes(data);
+
+		BufferedImage legacyImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		BufferedImage bgrImage = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+		byte[] bgrRaster = ((DataBufferByte) bgrImage.getRaster().getDataBuffer()).getData();
+		Mat reusableMat = new Mat();
+
+		double legacy = measure(() -> legacyConvert(data, bpp, redOffset, greenOffset, blueOffset, legacyImage));
+		double toImage = measure(() -> PixelLayoutConverter.toBgrBytes(data, WIDTH, HEIGHT, layout, bgrRaster));
+		double toMat = measure(() -> PixelLayoutConverter.toBgrMat(data, WIDTH, HEIGHT, layout, reusableMat));
+
+		System.out.printf("%-10s legacy loop -> BufferedImage: %7.3f ms | bulk -> BufferedImage: %7.3f ms (x%.1f) | bulk -> reused Mat: %7.3f ms (x%.1f)%n",
+				layout, legacy, toImage, legacy / toImage, toMat, legacy / toMat);
+		reusableMat.release();
+	}
+
+	private static double measure(Runnable conversion) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			conversion.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			conversion.run();
+		}
+		return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+	}
+
+	/**
+	 * Copy of the original Emulator conversion: three component reads per pixel, then setRGB.
+	 */
+	private static void legacyConvert(byte[] data, int bpp, int redOffset, int greenOffset, int blueOffset, BufferedImage image) {
+		int[] pixels = new int[WIDTH * HEIGHT];
+		int index = 0;
+
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				int offset = index * bpp / 8;
+
+				int r = colorComponent(data, offset, redOffset);
+				int g = colorComponent(data, offset, greenOffset);
+				int b = colorComponent(data, offset, blueOffset);
+
+				pixels[index] = (r << 16) | (g << 8) | b;
+				index++;
+			}
+		}
+
+		image.setRGB(0, 0, WIDTH, HEIGHT, pixels, 0, WIDTH);
+		sink += pixels[pixels.length - 1];
+	}
+
+	private static int colorComponent(byte[] data, int baseOffset, int bitOffset) {
+		if (bitOffset == -1)
+			return 0;
+		int byteOffset = bitOffset / 8;
+		return data[baseOffset + byteOffset] & 0xFF;
+	}
+}
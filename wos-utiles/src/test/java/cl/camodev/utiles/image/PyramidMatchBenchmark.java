@@ -0,0 +1,169 @@
+package cl.camodev.utiles.image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import cl.camodev.wosbot.ot.DTOImageSearchResult;
+import cl.camodev.wosbot.ot.DTOPoint;
+
+/**
+ * Microbenchmark deciding whether a template should use the pyramid mode of
+ * {@code TemplateSearchDefaults}. For every template it measures
+ * <ul>
+ * <li>the full resolution {@code TM_CCOEFF_NORMED} search done without pyramid,</li>
+ * <li>a pyramid search that finds the template,</li>
+ * <li>a pyramid miss, which ImageSearchUtil follows with the full search,</li>
+ * </ul>
+ * and prints the hit rate above which the pyramid mode is cheaper on average.
+ * <p>
+ * It lives in the test sources so it never ships in the jar; run it with the
+ * benchmark profile:
+ * <pre>
+ * mvn -pl wos-utiles -am -Pbenchmark test -Dbenchmark.class=cl.camodev.utiles.image.PyramidMatchBenchmark \
+ *     -Dexec.args="screen.png template1.png template2.png"
+ * </pre>
+ * The first argument is a 720x1280 screenshot showing the templates, the next
+ * ones the templates to evaluate, e.g. from wos-serv/src/main/resources/templates.
+ * Without arguments a synthetic frame of smoothed noise is used and templates
+ * are cut from it at odd offsets.
+ */
+public final class PyramidMatchBenchmark {
+
+	private static final int WIDTH = 720;
+	private static final int HEIGHT = 1280;
+	private static final int WARMUP_ITERATIONS = 10;
+	private static final int MEASURED_ITERATIONS = 30;
+	private static final double THRESHOLD = 90.0;
+
+	// Template sizes seen in the templates folder, from small icons to large buttons
+	private static final int[][] TEMPLATE_SIZES = { { 40, 40 }, { 80, 60 }, { 160, 70 }, { 240, 120 } };
+
+	private static volatile double sink;
+
+	private PyramidMatchBenchmark() {
+	}
+
+	public static void main(String[] args) {
+		nu.pattern.OpenCV.loadLocally();
+
+		Mat frame = args.length > 0 ? Imgcodecs.imread(args[0], Imgcodecs.IMREAD_COLOR) : syntheticFrame();
+		if (frame.empty()) {
+			System.err.println("Cannot read screenshot " + args[0]);
+			return;
+		}
+		// A frame with the same statistics that never contains the templates, for the misses
+		Mat missFrame = syntheticFrame();
+
+		List<String> names = new ArrayList<>();
+		List<Mat> templates = new ArrayList<>();
+		if (args.length > 1) {
+			for (int i = 1; i < args.length; i++) {
+				Mat template = Imgcodecs.imread(args[i], Imgcodecs.IMREAD_COLOR);
+				if (template.empty()) {
+					System.err.println("Skipping unreadable template " + args[i]);
+					continue;
+				}
+				names.add(args[i]);
+				templates.add(template);
+			}
+		} else {
+			for (int[] size : TEMPLATE_SIZES) {
+				names.add(size[0] + "x" + size[1]);
+				templates.add(new Mat(frame, new Rect(301, 877, size[0], size[1])).clone());
+			}
+		}
+
+		Rect fullScreen = new Rect(0, 0, frame.cols(), frame.rows());
+		System.out.printf("Frame %dx%d, %d iterations after %d warmup%n", frame.cols(), frame.rows(), MEASURED_ITERATIONS, WARMUP_ITERATIONS);
+
+		for (int i = 0; i < templates.size(); i++) {
+			Mat template = templates.get(i);
+			if (!PyramidMatcher.isApplicable(template, fullScreen)) {
+				System.out.printf("%s: too small for pyramid matching%n", names.get(i));
+				template.release();
+				continue;
+			}
+			Mat coarseTemplate = PyramidMatcher.downscaleTemplate(template);
+
+			DTOImageSearchResult full = fullMatch(frame, fullScreen, template);
+			DTOImageSearchResult pyramid = PyramidMatcher.match(frame, fullScreen, template, coarseTemplate, THRESHOLD);
+
+			double fullMs = measure(() -> sink += fullMatch(frame, fullScreen, template).getMatchPercentage());
+			double hitMs = measure(() -> sink += PyramidMatcher.match(frame, fullScreen, template, coarseTemplate, THRESHOLD).getMatchPercentage());
+			double missMs = measure(() -> {
+				DTOImageSearchResult coarse = PyramidMatcher.match(missFrame, fullScreen, template, coarseTemplate, THRESHOLD);
+				sink += coarse.isFound() ? coarse.getMatchPercentage() : fullMatch(missFrame, fullScreen, template).getMatchPercentage();
+			});
+
+			System.out.printf("%s: full %.3f ms (%.2f%% at %s) | pyramid hit %.3f ms (%.2f%% at %s) | pyramid miss %.3f ms | %s%n",
+					names.get(i), fullMs, full.getMatchPercentage(), full.getPoint(),
+					hitMs, pyramid.getMatchPercentage(), pyramid.getPoint(), missMs, breakEven(fullMs, hitMs, missMs));
+
+			template.release();
+			coarseTemplate.release();
+		}
+		frame.release();
+		missFrame.release();
+	}
+
+	/**
+	 * Hit rate h above which h * hit + (1 - h) * miss is below the full search.
+	 */
+	private static String breakEven(double fullMs, double hitMs, double missMs) {
+		if (hitMs >= fullMs) {
+			return "never pays off";
+		}
+		if (missMs <= fullMs) {
+			return "always pays off";
+		}
+		return String.format("pays off above %.0f%% hits", 100.0 * (missMs - fullMs) / (missMs - hitMs));
+	}
+
+	/**
+	 * Smoothed noise, so that downscaling keeps structure like a real screen does.
+	 */
+	private static Mat syntheticFrame() {
+		Mat frame = new Mat(HEIGHT, WIDTH, CvType.CV_8UC3);
+		Core.randn(frame, 128, 60);
+		Imgproc.GaussianBlur(frame, frame, new Size(5, 5), 0);
+		return frame;
+	}
+
+	/**
+	 * The search done by ImageSearchUtil when pyramid matching is off.
+	 */
+	private static DTOImageSearchResult fullMatch(Mat frame, Rect roi, Mat template) {
+		Mat roiMat = new Mat(frame, roi);
+		Mat result = new Mat();
+		try {
+			Imgproc.matchTemplate(roiMat, template, result, Imgproc.TM_CCOEFF_NORMED);
+			Core.MinMaxLocResult mmr = Core.minMaxLoc(result);
+			return new DTOImageSearchResult(mmr.maxVal * 100.0 >= THRESHOLD,
+					new DTOPoint((int) (mmr.maxLoc.x + roi.x + template.cols() / 2.0),
+							(int) (mmr.maxLoc.y + roi.y + template.rows() / 2.0)),
+					mmr.maxVal * 100.0);
+		} finally {
+			roiMat.release();
+			result.release();
+		}
+	}
+
+	private static double measure(Runnable search) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			search.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			search.run();
+		}
+		return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS;
+	}
+}